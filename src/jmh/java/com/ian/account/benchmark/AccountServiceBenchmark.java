@@ -0,0 +1,58 @@
+package com.ian.account.benchmark;
+
+import com.ian.account.dto.AccountDTO;
+import com.ian.account.service.AccountService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 계좌 생성 벤치마크 (H2 + 내장 Redis)
+ * 계좌 생성의 경합 지점은 계좌 번호 발급이므로, 경합 수준은 번호 블록 크기로 조절한다.
+ * blockSize = 1: 모든 생성 요청이 발급 락을 잡고 Redis 에서 번호를 예약 (HOT)
+ * blockSize = 100: 대부분 서버가 예약한 블록에서 발급 (DISTINCT 에 가까움)
+ * 사용자당 계좌는 최대 10개이므로, 10개마다 새 사용자를 만든다. (사용자 저장 시간이 일부 포함됨)
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class AccountServiceBenchmark {
+    private static final int MAX_ACCOUNTS_PER_USER = 10;
+
+    @Param({"1", "100"})
+    public int blockSize;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("account.number.block-size=" + blockSize);
+        accountService = context.getBean(AccountService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private Long userId;
+        private int accountCount = MAX_ACCOUNTS_PER_USER;
+    }
+
+
+    @Benchmark
+    public AccountDTO createAccount(ThreadState state) {
+        if (state.accountCount == MAX_ACCOUNTS_PER_USER) {
+            state.userId = BenchmarkApplication.createUser(context);
+            state.accountCount = 0;
+        }
+
+        state.accountCount++;
+        return accountService.createAccount(state.userId, 1000L);
+    }
+}
@@ -0,0 +1,57 @@
+package com.ian.account.benchmark;
+
+import com.ian.account.AccountApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 벤치마크용 애플리케이션 컨텍스트 (웹 서버 없이 서비스 계층만 사용)
+ * H2 메모리 DB 와 내장 Redis 를 사용하므로, 운영 환경의 절대 수치가 아니라 변경 전후 비교용 기준선이다.
+ */
+public final class BenchmarkApplication {
+    // data.sql 의 사용자(1~3)와 겹치지 않는 벤치마크 사용자 아이디
+    private static final AtomicLong USER_ID = new AtomicLong(1000L);
+
+    private BenchmarkApplication() {
+    }
+
+    public static ConfigurableApplicationContext start(String... properties) {
+        return builder()
+                .web(WebApplicationType.NONE)
+                .properties(properties)
+                .run();
+    }
+
+    // 웹 서버(임의 포트)와 함께 시작 (부하 테스트용, source: 벤치마크 전용 설정)
+    public static ConfigurableApplicationContext startWeb(Class<?> source, String... properties) {
+        return builder()
+                .sources(source)
+                .web(WebApplicationType.SERVLET)
+                .properties("server.port=0")
+                .properties(properties)
+                .run();
+    }
+
+    private static SpringApplicationBuilder builder() {
+        return new SpringApplicationBuilder(AccountApplication.class)
+                .properties(
+                        "spring.redis.port=16379",
+                        "spring.jpa.properties.hibernate.show_sql=false",
+                        "spring.jpa.properties.hibernate.format_sql=false",
+                        "logging.level.root=WARN"
+                );
+    }
+
+    // 벤치마크 사용자 생성 (data.sql 과 같이 아이디를 지정하여 저장)
+    public static Long createUser(ConfigurableApplicationContext context) {
+        long userId = USER_ID.incrementAndGet();
+        context.getBean(JdbcTemplate.class).update(
+                "insert into account_user(id, user_name, registered_at, updated_at) values (?, 'benchmark', now(), now())",
+                userId);
+        return userId;
+    }
+}
@@ -0,0 +1,10 @@
+package com.ian.account.benchmark;
+
+/**
+ * 벤치마크 경합 수준
+ * DISTINCT: 스레드마다 다른 계좌 사용 (경합 없음)
+ * HOT: 모든 스레드가 같은 계좌 사용 (한 계좌에 요청 집중)
+ */
+public enum Contention {
+    DISTINCT, HOT
+}
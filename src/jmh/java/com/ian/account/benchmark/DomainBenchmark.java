@@ -0,0 +1,106 @@
+package com.ian.account.benchmark;
+
+import com.ian.account.domain.Account;
+import com.ian.account.domain.Transaction;
+import com.ian.account.dto.TransactionDTO;
+import com.ian.account.dto.UseBalance;
+import com.ian.account.service.TransactionIdGenerator;
+import com.ian.account.type.AccountStatus;
+import com.ian.account.type.TransactionResultType;
+import com.ian.account.type.TransactionType;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 도메인 / DTO 변환 벤치마크
+ * 1. Account.useBalance: 잔액 계산 (HOT: 모든 스레드가 같은 Account 객체를 변경)
+ * 2. TransactionDTO.fromEntity -> UseBalance.Response.from: 잔액 사용 응답 변환
+ * 3. 거래 아이디 발급: TransactionIdGenerator (모든 스레드가 같은 발급기 사용) / 이전 방식(UUID) 비교
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class DomainBenchmark {
+    @Param({"DISTINCT", "HOT"})
+    public Contention contention;
+
+    private final TransactionIdGenerator transactionIdGenerator = new TransactionIdGenerator();
+    private Account hotAccount;
+    private Transaction hotTransaction;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        hotAccount = createAccount();
+        hotTransaction = createTransaction(hotAccount);
+    }
+
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private Account account;
+        private Transaction transaction;
+
+        @Setup(Level.Trial)
+        public void setUp(DomainBenchmark benchmark) {
+            if (benchmark.contention == Contention.HOT) {
+                account = benchmark.hotAccount;
+                transaction = benchmark.hotTransaction;
+            } else {
+                account = createAccount();
+                transaction = createTransaction(account);
+            }
+        }
+    }
+
+
+    @Benchmark
+    public Long useBalance(ThreadState state) {
+        state.account.useBalance(10L);
+        return state.account.getBalance();
+    }
+
+    @Benchmark
+    public UseBalance.Response toUseBalanceResponse(ThreadState state) {
+        return UseBalance.Response.from(TransactionDTO.fromEntity(state.transaction));
+    }
+
+    @Benchmark
+    public long nextId() {
+        return transactionIdGenerator.nextId();
+    }
+
+    @Benchmark
+    public String nextTransactionId() {
+        return transactionIdGenerator.nextTransactionId();
+    }
+
+    @Benchmark
+    public String randomUuidTransactionId() {
+        return UUID.randomUUID().toString().replace("-", "");
+    }
+
+
+    private static Account createAccount() {
+        return Account.builder()
+                .accountNumber("1000000000")
+                .accountStatus(AccountStatus.ACTIVE)
+                .balance(Long.MAX_VALUE)
+                .accountCreatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static Transaction createTransaction(Account account) {
+        return Transaction.builder()
+                .transactionType(TransactionType.USE)
+                .transactionResultType(TransactionResultType.S)
+                .account(account)
+                .amount(10L)
+                .balanceSnapshot(account.getBalance())
+                .transactionId("0a1b2c3d4e5f6071")
+                .transactedAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,73 @@
+package com.ian.account.benchmark;
+
+import com.ian.account.dto.TransactionDTO;
+import com.ian.account.service.AccountService;
+import com.ian.account.service.TransactionService;
+import com.ian.account.type.JournalDurability;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JOURNAL 거래 방식 응답 시점 벤치마크 (H2)
+ * DB: 묶음을 DB 에 커밋한 뒤 응답 / WAL: 로컬 메모리 매핑 WAL 에 기록하고 동기화(force)한 뒤 응답
+ * 잔액 사용의 처리량과 응답 시간 분포(SampleTime 의 p99)를 비교한다. 스레드마다 다른 계좌를 사용한다.
+ * WAL 은 임시 디렉터리에 기록하므로, 동기화 비용은 임시 디렉터리가 있는 디스크에 따라 다르다.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(8)
+@State(Scope.Benchmark)
+public class JournalDurabilityBenchmark {
+    private static final long INITIAL_BALANCE = 1_000_000_000_000L;
+    private static final long AMOUNT = 100L;
+
+    @Param({"DB", "WAL"})
+    public JournalDurability durability;
+
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private AccountService accountService;
+    private Path walDirectory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        walDirectory = Files.createTempDirectory("journal-wal");
+        context = BenchmarkApplication.start(
+                "account.transaction.mode=JOURNAL",
+                "account.journal.durability=" + durability,
+                "account.journal.wal.directory=" + walDirectory);
+        transactionService = context.getBean(TransactionService.class);
+        accountService = context.getBean(AccountService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(walDirectory);
+    }
+
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private Long userId;
+        private String accountNumber;
+
+        @Setup(Level.Trial)
+        public void setUp(JournalDurabilityBenchmark benchmark) {
+            userId = BenchmarkApplication.createUser(benchmark.context);
+            accountNumber = benchmark.accountService.createAccount(userId, INITIAL_BALANCE).getAccountNumber();
+        }
+    }
+
+
+    @Benchmark
+    public TransactionDTO useBalance(ThreadState state) {
+        return transactionService.useBalance(state.userId, state.accountNumber, AMOUNT);
+    }
+}
@@ -0,0 +1,121 @@
+package com.ian.account.benchmark;
+
+import com.ian.account.repository.AccountRepository;
+import com.ian.account.repository.AccountUserRepository;
+import com.ian.account.repository.LedgerCheckpointRepository;
+import com.ian.account.repository.LedgerEventRepository;
+import com.ian.account.repository.TransactionRepository;
+import com.ian.account.service.AccountCache;
+import com.ian.account.service.LedgerJournal;
+import com.ian.account.service.TransactionCache;
+import com.ian.account.service.TransactionIdGenerator;
+import com.ian.account.service.TransactionOutbox;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JOURNAL 거래 방식 복구 벤치마크 (H2, ACCOUNTS 개 계좌에 events 건의 이벤트)
+ * 서버 시작 시의 복구(LedgerJournal.recover)에 걸리는 시간: 계좌 테이블(스냅샷) 읽기 + 체크포인트 이후 이벤트 다시 적용
+ * checkpointPercent: 이벤트 중 마지막 체크포인트에 이미 반영된 비율 (0 이면 모든 이벤트를 다시 적용)
+ * 스레드마다 LedgerJournal 을 따로 만들어 같은 DB 에서 복구한다.
+ * 이벤트 1천만 건은 H2 메모리 DB 에 수 GB 를 사용한다.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class JournalRecoveryBenchmark {
+    private static final int ACCOUNTS = 10_000;
+    private static final int INSERT_BATCH = 10_000;
+    private static final long FIRST_ACCOUNT_ID = 1_000_000_000L;
+    private static final long FIRST_EVENT_ID = 2_000_000_000L;
+
+    @Param({"1000000", "10000000"})
+    public int events;
+
+    @Param({"0", "90"})
+    public int checkpointPercent;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        insertAccounts(BenchmarkApplication.createUser(context));
+        insertEvents();
+        long checkpoint = FIRST_EVENT_ID + (long) events * checkpointPercent / 100 - 1;
+        if (checkpointPercent > 0)
+            jdbcTemplate.update("insert into ledger_checkpoint(id, last_event_id, account_count, checkpointed_at, " +
+                    "registered_at, updated_at) values (?, ?, ?, now(), now(), now())", checkpoint, checkpoint, ACCOUNTS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private LedgerJournal ledgerJournal;
+
+        @Setup(Level.Trial)
+        public void setUp(JournalRecoveryBenchmark benchmark) {
+            ConfigurableApplicationContext context = benchmark.context;
+            ledgerJournal = new LedgerJournal(
+                    context.getBean(EntityManager.class),
+                    context.getBean(AccountRepository.class),
+                    context.getBean(AccountUserRepository.class),
+                    context.getBean(TransactionRepository.class),
+                    context.getBean(LedgerEventRepository.class),
+                    context.getBean(LedgerCheckpointRepository.class),
+                    context.getBean(PlatformTransactionManager.class),
+                    context.getBean(TransactionIdGenerator.class),
+                    context.getBean(AccountCache.class),
+                    context.getBean(TransactionCache.class),
+                    context.getBean(TransactionOutbox.class));
+        }
+    }
+
+
+    @Benchmark
+    public long recover(ThreadState state) {
+        return state.ledgerJournal.recover();
+    }
+
+
+    private void insertAccounts(Long userId) {
+        List<Object[]> rows = new ArrayList<>(ACCOUNTS);
+        for (int i = 0; i < ACCOUNTS; i++)
+            rows.add(new Object[]{FIRST_ACCOUNT_ID + i, userId, String.valueOf(9_000_000_000L + i)});
+        jdbcTemplate.batchUpdate("insert into account(id, account_user_id, account_number, account_status, balance, " +
+                "account_created_at, version, registered_at, updated_at) " +
+                "values (?, ?, ?, 'ACTIVE', 0, now(), 0, now(), now())", rows);
+    }
+
+    // 계좌를 돌아가며 입금 이벤트 (적용 후 잔액은 계좌별 누적 합)
+    private void insertEvents() {
+        Timestamp transactedAt = Timestamp.valueOf(LocalDateTime.now());
+        for (int from = 0; from < events; from += INSERT_BATCH) {
+            List<Object[]> rows = new ArrayList<>(INSERT_BATCH);
+            for (int i = from; i < Math.min(from + INSERT_BATCH, events); i++)
+                rows.add(new Object[]{FIRST_EVENT_ID + i, FIRST_ACCOUNT_ID + i % ACCOUNTS,
+                        100L * (i / ACCOUNTS + 1), FIRST_EVENT_ID + i, transactedAt});
+            jdbcTemplate.batchUpdate("insert into ledger_event(id, account_id, transaction_type, delta, balance, " +
+                    "transaction_key, transacted_at, registered_at, updated_at) " +
+                    "values (?, ?, 'CANCEL', 100, ?, ?, ?, now(), now())", rows);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.ian.account.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ian.account.service.AccountMetrics;
+import com.ian.account.service.LockService;
+import com.ian.account.service.RedisLockScript;
+import com.ian.account.type.LockProtocol;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.openjdk.jmh.runner.IterationType;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.redisnode.RedisNode;
+import org.redisson.api.redisnode.RedisNodes;
+import org.redisson.config.Config;
+import org.springframework.beans.DirectFieldAccessor;
+import redis.embedded.RedisServer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 계좌 락 취득/해제 벤치마크 (내장 Redis)
+ * REDISSON: Redisson 분산 락 / SCRIPT: Lua 스크립트 락
+ * HOT 인 경우 모든 스레드가 같은 계좌의 락을 경합 (로컬 락 대기열 + Redis 락)
+ * localTier: account.lock.local-tier.enabled (false 이면 모든 스레드가 Redis 락을 직접 기다림)
+ * 측정이 끝나면 Redis 가 처리한 명령 수(INFO stats 의 total_commands_processed, 측정 반복만)로 락 1회당 Redis 명령 수를 출력한다.
+ * HOT 경합의 p99 는 SampleTime 결과의 p0.99 로 비교한다.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class LockServiceBenchmark {
+    private static final int REDIS_PORT = 16380;
+    private static final long WAIT_MILLIS = 5000L;
+
+    @Param({"DISTINCT", "HOT"})
+    public Contention contention;
+
+    @Param({"REDISSON", "SCRIPT"})
+    public LockProtocol protocol;
+
+    @Param({"true", "false"})
+    public boolean localTier;
+
+    private RedisServer redisServer;
+    private RedissonClient redissonClient;
+    private LockService lockService;
+    private final LongAdder locks = new LongAdder();
+    private long measuredLocks;
+    private long measuredCommands;
+    private long commandsAtIterationStart;
+    private boolean measurement;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        redisServer = RedisServer.builder().port(REDIS_PORT).build();
+        redisServer.start();
+
+        Config config = new Config();
+        config.useSingleServer().setAddress("redis://localhost:" + REDIS_PORT);
+        redissonClient = Redisson.create(config);
+        lockService = new LockService(redissonClient,
+                new RedisLockScript(redissonClient, new ObjectMapper()),
+                new AccountMetrics(new SimpleMeterRegistry()));
+        new DirectFieldAccessor(lockService).setPropertyValue("localTierEnabled", localTier);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%ncontention=%s protocol=%s localTier=%s locks=%d redisCommands=%d (%.2f per lock)%n",
+                contention, protocol, localTier, measuredLocks, measuredCommands,
+                measuredLocks == 0 ? 0.0 : (double) measuredCommands / measuredLocks);
+        redissonClient.shutdown();
+        redisServer.stop();
+    }
+
+    // 측정 반복에서만 락 횟수와 Redis 명령 수 집계 (워밍업 제외)
+    @Setup(Level.Iteration)
+    public void startIteration(IterationParams iterationParams) {
+        measurement = iterationParams.getType() == IterationType.MEASUREMENT;
+        locks.reset();
+        commandsAtIterationStart = getRedisCommands();
+    }
+
+    @TearDown(Level.Iteration)
+    public void endIteration() {
+        if (!measurement)
+            return;
+        measuredLocks += locks.sum();
+        measuredCommands += getRedisCommands() - commandsAtIterationStart;
+    }
+
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private String accountNumber;
+
+        @Setup(Level.Trial)
+        public void setUp(LockServiceBenchmark benchmark, ThreadParams threadParams) {
+            int index = benchmark.contention == Contention.HOT ? 0 : threadParams.getThreadIndex();
+            accountNumber = String.valueOf(1_000_000_000L + index);
+        }
+    }
+
+
+    @Benchmark
+    public void lockUnlock(ThreadState state) {
+        locks.increment();
+        if (protocol == LockProtocol.SCRIPT) {
+            List<String> accountNumbers = List.of(state.accountNumber);
+            lockService.lockAndClaim(accountNumbers, WAIT_MILLIS, null);
+            lockService.unlockAndRecord(accountNumbers, null, null, null);
+            return;
+        }
+
+        lockService.lock(state.accountNumber, WAIT_MILLIS);
+        lockService.unlock(state.accountNumber, null);
+    }
+
+
+    // Redis 서버가 시작 후 처리한 명령 수
+    private long getRedisCommands() {
+        return Long.parseLong(redissonClient.getRedisNodes(RedisNodes.SINGLE).getInstance()
+                .info(RedisNode.InfoSection.STATS).get("total_commands_processed"));
+    }
+}
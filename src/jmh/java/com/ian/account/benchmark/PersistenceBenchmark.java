@@ -0,0 +1,128 @@
+package com.ian.account.benchmark;
+
+import com.ian.account.domain.Account;
+import com.ian.account.domain.Transaction;
+import com.ian.account.repository.AccountRepository;
+import com.ian.account.repository.TransactionRepository;
+import com.ian.account.service.AccountService;
+import com.ian.account.service.TransactionIdGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.ian.account.type.TransactionResultType.S;
+import static com.ian.account.type.TransactionType.USE;
+
+/**
+ * 거래 내역 저장 벤치마크 (초당 저장 행 수, H2)
+ * 1. ingestHistory: 거래 내역 대량 저장 (ROWS 건을 한 트랜잭션에서 저장)
+ * 2. payBatch: 묶음 잔액 사용 (DebitBatcher / LedgerEngine 과 같이 계좌 조회 후 ROWS 건을 반영하고 한 번에 저장)
+ * writer: SAVE 건마다 save / BULK insertAll
+ * batchSize: hibernate.jdbc.batch_size (1 이면 JDBC 배치 미사용)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(PersistenceBenchmark.ROWS)
+@State(Scope.Benchmark)
+public class PersistenceBenchmark {
+    static final int ROWS = 500;
+    private static final long INITIAL_BALANCE = 1_000_000_000_000L;
+    private static final long AMOUNT = 100L;
+
+    public enum Writer {
+        SAVE, BULK
+    }
+
+    @Param({"SAVE", "BULK"})
+    public Writer writer;
+
+    @Param({"1", "100"})
+    public int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private AccountRepository accountRepository;
+    private TransactionRepository transactionRepository;
+    private TransactionTemplate transactionTemplate;
+    private TransactionIdGenerator transactionIdGenerator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize);
+        accountService = context.getBean(AccountService.class);
+        accountRepository = context.getBean(AccountRepository.class);
+        transactionRepository = context.getBean(TransactionRepository.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionIdGenerator = context.getBean(TransactionIdGenerator.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+
+    // 스레드마다 다른 계좌 (잔액 반영 충돌 없이 저장 비용만 측정)
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private String accountNumber;
+
+        @Setup(Level.Trial)
+        public void setUp(PersistenceBenchmark benchmark) {
+            Long userId = BenchmarkApplication.createUser(benchmark.context);
+            accountNumber = benchmark.accountService.createAccount(userId, INITIAL_BALANCE).getAccountNumber();
+        }
+    }
+
+
+    @Benchmark
+    public int ingestHistory(ThreadState state) {
+        return transactionTemplate.execute(status -> {
+            Account account = accountRepository.findByAccountNumber(state.accountNumber).orElseThrow();
+            List<Transaction> transactions = new ArrayList<>(ROWS);
+            for (int i = 0; i < ROWS; i++)
+                transactions.add(createTransaction(account));
+            return write(transactions);
+        });
+    }
+
+    @Benchmark
+    public int payBatch(ThreadState state) {
+        return transactionTemplate.execute(status -> {
+            Account account = accountRepository.findByAccountNumber(state.accountNumber).orElseThrow();
+            List<Transaction> transactions = new ArrayList<>(ROWS);
+            for (int i = 0; i < ROWS; i++) {
+                account.useBalance(AMOUNT);
+                transactions.add(createTransaction(account));
+            }
+            return write(transactions);
+        });
+    }
+
+
+    private int write(List<Transaction> transactions) {
+        if (writer == Writer.BULK)
+            return transactionRepository.insertAll(transactions).size();
+
+        transactions.forEach(transactionRepository::save);
+        return transactions.size();
+    }
+
+    private Transaction createTransaction(Account account) {
+        return Transaction.builder()
+                .account(account)
+                .amount(AMOUNT)
+                .balanceSnapshot(account.getBalance())
+                .transactionType(USE)
+                .transactionResultType(S)
+                .transactionId(transactionIdGenerator.nextTransactionId())
+                .transactedAt(LocalDateTime.now())
+                .build();
+    }
+}
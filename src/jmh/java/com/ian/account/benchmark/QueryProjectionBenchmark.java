@@ -0,0 +1,118 @@
+package com.ian.account.benchmark;
+
+import com.ian.account.domain.AccountUser;
+import com.ian.account.dto.AccountDTO;
+import com.ian.account.dto.TransactionDTO;
+import com.ian.account.repository.AccountRepository;
+import com.ian.account.repository.AccountUserRepository;
+import com.ian.account.repository.TransactionRepository;
+import com.ian.account.service.AccountService;
+import com.ian.account.service.TransactionService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 계좌 확인 / 거래 확인 조회 방식 벤치마크 (H2, 캐시 미사용)
+ * ENTITY: 엔티티 조회 후 DTO 변환 (계좌 -> 사용자, 거래 -> 계좌 -> 사용자를 함께 불러옴)
+ * PROJECTION: 필요한 컬럼만 DTO 로 바로 조회 (findDTOsByAccountUserId, findDTOByTransactionId)
+ * 측정이 끝나면 Hibernate 통계로 조회 1회당 SQL 실행 수와 불러온 엔티티 수를 출력한다.
+ * 조회 1회당 할당량은 GC 프로파일러로 비교한다. (build.gradle 의 jmh 에 profilers = ['gc'] 추가)
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class QueryProjectionBenchmark {
+    private static final int USERS = 100;
+    private static final int ACCOUNTS_PER_USER = 5;
+    private static final int TRANSACTIONS = 1000;
+    private static final long INITIAL_BALANCE = 1_000_000_000_000L;
+    private static final long AMOUNT = 100L;
+
+    @Param({"ENTITY", "PROJECTION"})
+    public String query;
+
+    private ConfigurableApplicationContext context;
+    private AccountRepository accountRepository;
+    private AccountUserRepository accountUserRepository;
+    private TransactionRepository transactionRepository;
+    private Statistics statistics;
+    private Long[] userIds;
+    private String[] transactionIds;
+    private final LongAdder queries = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(
+                "account.account-cache.maximum-size=0",
+                "account.transaction.cache.maximum-size=0",
+                "spring.jpa.properties.hibernate.generate_statistics=true",
+                "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN");
+        accountRepository = context.getBean(AccountRepository.class);
+        accountUserRepository = context.getBean(AccountUserRepository.class);
+        transactionRepository = context.getBean(TransactionRepository.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+
+        AccountService accountService = context.getBean(AccountService.class);
+        TransactionService transactionService = context.getBean(TransactionService.class);
+        userIds = new Long[USERS];
+        String[] accountNumbers = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            userIds[i] = BenchmarkApplication.createUser(context);
+            for (int j = 0; j < ACCOUNTS_PER_USER; j++)
+                accountNumbers[i] = accountService.createAccount(userIds[i], INITIAL_BALANCE).getAccountNumber();
+        }
+        transactionIds = new String[TRANSACTIONS];
+        for (int i = 0; i < TRANSACTIONS; i++)
+            transactionIds[i] = transactionService.useBalance(
+                    userIds[i % USERS], accountNumbers[i % USERS], AMOUNT).getTransactionId();
+
+        statistics.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        long queryCount = queries.sum();
+        System.out.printf("%nquery=%s queries=%d statements=%d (%.2f per query) entitiesLoaded=%d (%.2f per query)%n",
+                query, queryCount,
+                statistics.getPrepareStatementCount(), perQuery(statistics.getPrepareStatementCount(), queryCount),
+                statistics.getEntityLoadCount(), perQuery(statistics.getEntityLoadCount(), queryCount));
+        context.close();
+    }
+
+
+    @Benchmark
+    public List<AccountDTO> getAccountsByUserId() {
+        queries.increment();
+        Long userId = userIds[ThreadLocalRandom.current().nextInt(USERS)];
+        if ("PROJECTION".equals(query))
+            return accountRepository.findDTOsByAccountUserId(userId);
+
+        AccountUser accountUser = accountUserRepository.findById(userId).orElseThrow();
+        return accountRepository.findByAccountUser(accountUser).stream()
+                .map(AccountDTO::fromEntity)
+                .toList();
+    }
+
+    @Benchmark
+    public TransactionDTO queryTransaction() {
+        queries.increment();
+        String transactionId = transactionIds[ThreadLocalRandom.current().nextInt(TRANSACTIONS)];
+        if ("PROJECTION".equals(query))
+            return transactionRepository.findDTOByTransactionId(transactionId).orElseThrow();
+
+        return TransactionDTO.fromEntity(transactionRepository.findByTransactionId(transactionId).orElseThrow());
+    }
+
+
+    private static double perQuery(long count, long queryCount) {
+        return queryCount == 0 ? 0.0 : (double) count / queryCount;
+    }
+}
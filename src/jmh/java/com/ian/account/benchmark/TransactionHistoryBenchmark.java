@@ -0,0 +1,106 @@
+package com.ian.account.benchmark;
+
+import com.ian.account.dto.TransactionHistory;
+import com.ian.account.service.AccountService;
+import com.ian.account.service.TransactionIdGenerator;
+import com.ian.account.service.TransactionService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 계좌 거래 내역 조회 벤치마크 (H2, 한 계좌에 ROWS 건)
+ * page 번째 페이지를 조회하는 시간을 keyset(cursor) 방식과 OFFSET 방식으로 비교한다.
+ * keyset 은 페이지 위치와 관계없이 일정하고, OFFSET 은 앞의 행을 모두 건너뛰므로 뒤 페이지일수록 느려진다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class TransactionHistoryBenchmark {
+    private static final int ROWS = 300_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int INSERT_BATCH = 1000;
+
+    @Param({"1", "100", "10000"})
+    public int page;
+
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private JdbcTemplate jdbcTemplate;
+    private String accountNumber;
+    private Long accountId;
+    private String cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        transactionService = context.getBean(TransactionService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        Long userId = BenchmarkApplication.createUser(context);
+        accountNumber = context.getBean(AccountService.class).createAccount(userId, 0L).getAccountNumber();
+        accountId = jdbcTemplate.queryForObject(
+                "select id from account where account_number = ?", Long.class, accountNumber);
+        insertTransactions(context.getBean(TransactionIdGenerator.class));
+
+        // page 번째 페이지의 cursor (이전 페이지의 마지막 거래 위치)
+        if (page > 1) {
+            Map<String, Object> last = jdbcTemplate.queryForMap(
+                    "select transacted_at, id from transaction where account_id = ? " +
+                            "order by transacted_at desc, id desc offset ? rows fetch next 1 rows only",
+                    accountId, (page - 1) * PAGE_SIZE - 1);
+            LocalDateTime transactedAt = ((Timestamp) last.get("TRANSACTED_AT")).toLocalDateTime();
+            cursor = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                    (transactedAt + "|" + last.get("ID")).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+
+    @Benchmark
+    public TransactionHistory.Response keyset() {
+        TransactionHistory.Request request = new TransactionHistory.Request();
+        request.setCursor(cursor);
+        request.setSize(PAGE_SIZE);
+        return transactionService.getTransactionHistory(accountNumber, request);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> offset() {
+        return jdbcTemplate.queryForList(
+                "select id, transaction_key, transaction_type, transaction_result_type, amount, balance_snapshot, " +
+                        "transacted_at from transaction where account_id = ? " +
+                        "order by transacted_at desc, id desc offset ? rows fetch next ? rows only",
+                accountId, (page - 1) * PAGE_SIZE, PAGE_SIZE);
+    }
+
+
+    private void insertTransactions(TransactionIdGenerator transactionIdGenerator) {
+        LocalDateTime startedAt = LocalDateTime.now().minusDays(1);
+        long id = 1_000_000_000L;
+        for (int from = 0; from < ROWS; from += INSERT_BATCH) {
+            List<Object[]> rows = new ArrayList<>(INSERT_BATCH);
+            for (int i = from; i < Math.min(from + INSERT_BATCH, ROWS); i++) {
+                Timestamp transactedAt = Timestamp.valueOf(startedAt.plusNanos(i * 100_000L));
+                rows.add(new Object[]{id++, accountId, 100L, 0L, transactionIdGenerator.nextId(),
+                        "USE", "S", transactedAt, transactedAt, transactedAt});
+            }
+            jdbcTemplate.batchUpdate("insert into transaction(id, account_id, amount, balance_snapshot, " +
+                    "transaction_key, transaction_type, transaction_result_type, transacted_at, registered_at, " +
+                    "updated_at) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+        }
+    }
+}
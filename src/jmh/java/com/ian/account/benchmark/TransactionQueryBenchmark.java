@@ -0,0 +1,83 @@
+package com.ian.account.benchmark;
+
+import com.ian.account.dto.TransactionDTO;
+import com.ian.account.service.AccountService;
+import com.ian.account.service.TransactionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.search.Search;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 거래 확인 벤치마크 (H2)
+ * 미리 기록한 거래들을 무작위로 조회한다. (조회 대상이 모두 캐시에 들어가는 경우)
+ * cacheSize: account.transaction.cache.maximum-size (0 이면 캐시 미사용 -> 매번 DB 조회)
+ * 측정이 끝나면 조회 1회당 DB(Repository) 호출 수를 출력한다. (캐시 사용 시 0 에 가까움)
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class TransactionQueryBenchmark {
+    private static final int TRANSACTIONS = 1000;
+    private static final long INITIAL_BALANCE = 1_000_000_000_000L;
+    private static final long AMOUNT = 100L;
+
+    @Param({"0", "100000"})
+    public long cacheSize;
+
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private MeterRegistry meterRegistry;
+    private String[] transactionIds;
+    private final LongAdder queries = new LongAdder();
+    private double repositoryCallsBefore;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("account.transaction.cache.maximum-size=" + cacheSize);
+        transactionService = context.getBean(TransactionService.class);
+        meterRegistry = context.getBean(MeterRegistry.class);
+
+        Long userId = BenchmarkApplication.createUser(context);
+        String accountNumber = context.getBean(AccountService.class)
+                .createAccount(userId, INITIAL_BALANCE).getAccountNumber();
+        transactionIds = new String[TRANSACTIONS];
+        for (int i = 0; i < TRANSACTIONS; i++)
+            transactionIds[i] = transactionService.useBalance(userId, accountNumber, AMOUNT).getTransactionId();
+
+        repositoryCallsBefore = getTransactionRepositoryCalls();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        double repositoryCalls = getTransactionRepositoryCalls() - repositoryCallsBefore;
+        long queryCount = queries.sum();
+        System.out.printf("%ncacheSize=%d queries=%d repositoryCalls=%.0f (%.4f per query)%n",
+                cacheSize, queryCount, repositoryCalls, queryCount == 0 ? 0.0 : repositoryCalls / queryCount);
+        context.close();
+    }
+
+
+    @Benchmark
+    public TransactionDTO queryTransaction() {
+        queries.increment();
+        return transactionService.queryTransaction(
+                transactionIds[ThreadLocalRandom.current().nextInt(TRANSACTIONS)]);
+    }
+
+
+    private double getTransactionRepositoryCalls() {
+        return Search.in(meterRegistry)
+                .name("spring.data.repository.invocations")
+                .tag("repository", "TransactionRepository")
+                .tag("method", "findByTransactionId")
+                .timers()
+                .stream()
+                .mapToDouble(timer -> timer.count())
+                .sum();
+    }
+}
@@ -0,0 +1,188 @@
+package com.ian.account.benchmark;
+
+import com.ian.account.domain.Account;
+import com.ian.account.domain.Transaction;
+import com.ian.account.dto.TransactionDTO;
+import com.ian.account.repository.AccountRepository;
+import com.ian.account.repository.TransactionRepository;
+import com.ian.account.service.AccountService;
+import com.ian.account.service.LockService;
+import com.ian.account.service.TransactionIdGenerator;
+import com.ian.account.service.TransactionService;
+import com.ian.account.type.TransactionMode;
+import com.ian.account.type.TransactionResultType;
+import com.ian.account.type.TransactionType;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 거래 서비스 벤치마크 (H2 + 내장 Redis)
+ * 컨트롤러의 @AccountLock 과 같은 방식으로, 거래 방식(mode)에 따라 락이 필요한 거래만 락을 잡고 진행한다.
+ * 1. useBalance: 잔액 사용 (LOCKED: 락 + 조회/변경 / CONDITIONAL_UPDATE: 락 없는 조건부 UPDATE)
+ * 2. useAndCancelBalance: 잔액 사용 후 사용 취소
+ * 3. transferBalance: 계좌 이체 (두 계좌 락, 호출마다 방향을 바꿔 잔액 유지)
+ * 4. transferBalanceByTwoCalls: 계좌 이체 API 이전 방식, 보내는 계좌 잔액 사용 + 받는 계좌 입금을 각각의 락, 트랜잭션으로 처리
+ *    입금 API 가 없으므로 입금 호출은 받는 계좌 락 + 트랜잭션 안에서 계좌 조회, depositBalance, 거래 저장으로 대신한다.
+ *    (이체 거래는 취소할 수 없으므로 사용 취소로 입금을 흉내 내지 않는다, 3 과 같은 방향 전환)
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class TransactionServiceBenchmark {
+    private static final long INITIAL_BALANCE = 1_000_000_000_000L;
+    private static final long AMOUNT = 100L;
+    private static final long WAIT_MILLIS = 5000L;
+
+    @Param({"DISTINCT", "HOT"})
+    public Contention contention;
+
+    @Param({"LOCKED", "CONDITIONAL_UPDATE", "COALESCED"})
+    public TransactionMode mode;
+
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private AccountService accountService;
+    private LockService lockService;
+    private AccountRepository accountRepository;
+    private TransactionRepository transactionRepository;
+    private TransactionIdGenerator transactionIdGenerator;
+    private TransactionTemplate transactionTemplate;
+
+    private Accounts hotAccounts;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("account.transaction.mode=" + mode);
+        transactionService = context.getBean(TransactionService.class);
+        accountService = context.getBean(AccountService.class);
+        lockService = context.getBean(LockService.class);
+        accountRepository = context.getBean(AccountRepository.class);
+        transactionRepository = context.getBean(TransactionRepository.class);
+        transactionIdGenerator = context.getBean(TransactionIdGenerator.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        hotAccounts = createAccounts();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private Accounts accounts;
+        private boolean reverse;
+
+        @Setup(Level.Trial)
+        public void setUp(TransactionServiceBenchmark benchmark) {
+            accounts = benchmark.contention == Contention.HOT
+                    ? benchmark.hotAccounts : benchmark.createAccounts();
+        }
+    }
+
+
+    @Benchmark
+    public TransactionDTO useBalance(ThreadState state) {
+        Accounts accounts = state.accounts;
+        return withLock(TransactionType.USE, List.of(accounts.accountNumber),
+                () -> transactionService.useBalance(accounts.userId, accounts.accountNumber, AMOUNT));
+    }
+
+    @Benchmark
+    public TransactionDTO useAndCancelBalance(ThreadState state) {
+        TransactionDTO used = useBalance(state);
+        return withLock(TransactionType.CANCEL, List.of(used.getAccountNumber()),
+                () -> transactionService.cancelBalance(used.getTransactionId(), used.getAccountNumber(), AMOUNT));
+    }
+
+    @Benchmark
+    public TransactionDTO transferBalance(ThreadState state) {
+        Accounts accounts = state.accounts;
+        String from = state.reverse ? accounts.receiverAccountNumber : accounts.accountNumber;
+        String to = state.reverse ? accounts.accountNumber : accounts.receiverAccountNumber;
+        state.reverse = !state.reverse;
+
+        return withLock(TransactionType.TRANSFER, List.of(from, to),
+                () -> transactionService.transferBalance(accounts.userId, from, to, AMOUNT));
+    }
+
+    @Benchmark
+    public TransactionDTO transferBalanceByTwoCalls(ThreadState state) {
+        Accounts accounts = state.accounts;
+        String from = state.reverse ? accounts.receiverAccountNumber : accounts.accountNumber;
+        String to = state.reverse ? accounts.accountNumber : accounts.receiverAccountNumber;
+        state.reverse = !state.reverse;
+
+        withLock(TransactionType.USE, List.of(from),
+                () -> transactionService.useBalance(accounts.userId, from, AMOUNT));
+        return deposit(to);
+    }
+
+
+    // 입금 API 호출 대신: 받는 계좌 락 + 트랜잭션 안에서 조회 후 변경 (거래 방식과 관계없이 항상 락)
+    private TransactionDTO deposit(String accountNumber) {
+        lockService.lockAll(List.of(accountNumber), WAIT_MILLIS);
+        try {
+            return transactionTemplate.execute(status -> {
+                Account account = accountRepository.findByAccountNumber(accountNumber).orElseThrow();
+                account.depositBalance(AMOUNT);
+                return TransactionDTO.fromEntity(transactionRepository.save(Transaction.builder()
+                        .account(account)
+                        .amount(AMOUNT)
+                        .balanceSnapshot(account.getBalance())
+                        .transactionResultType(TransactionResultType.S)
+                        .transactionType(TransactionType.TRANSFER)
+                        .transactionId(transactionIdGenerator.nextTransactionId())
+                        .transactedAt(LocalDateTime.now())
+                        .build()));
+            });
+        } finally {
+            lockService.unlockAll(List.of(accountNumber), null);
+        }
+    }
+
+
+    private TransactionDTO withLock(TransactionType transactionType, List<String> accountNumbers,
+                                    Supplier<TransactionDTO> transaction) {
+        if (!mode.requiresLock(transactionType))
+            return transaction.get();
+
+        lockService.lockAll(accountNumbers, WAIT_MILLIS);
+        try {
+            return transaction.get();
+        } finally {
+            lockService.unlockAll(accountNumbers, null);
+        }
+    }
+
+    private Accounts createAccounts() {
+        Long userId = BenchmarkApplication.createUser(context);
+        String accountNumber = accountService.createAccount(userId, INITIAL_BALANCE).getAccountNumber();
+        String receiverAccountNumber = accountService.createAccount(userId, INITIAL_BALANCE).getAccountNumber();
+
+        return new Accounts(userId, accountNumber, receiverAccountNumber);
+    }
+
+
+    // 사용자 한 명의 계좌 두 개 (잔액 사용 계좌, 이체 받는 계좌)
+    private static class Accounts {
+        private final Long userId;
+        private final String accountNumber;
+        private final String receiverAccountNumber;
+
+        private Accounts(Long userId, String accountNumber, String receiverAccountNumber) {
+            this.userId = userId;
+            this.accountNumber = accountNumber;
+            this.receiverAccountNumber = receiverAccountNumber;
+        }
+    }
+}
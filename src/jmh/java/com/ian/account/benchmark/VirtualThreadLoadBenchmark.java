@@ -0,0 +1,153 @@
+package com.ian.account.benchmark;
+
+import com.ian.account.service.AccountService;
+import jakarta.servlet.Filter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 동시 요청 부하 테스트 (H2 + Embedded Redis, 웹 서버 포함)
+ * 스레드마다 concurrency 개의 계좌 확인 요청을 한꺼번에 보내고, 모두 응답받을 때까지의 시간을 측정한다. (캐시 미사용)
+ * DB 가 느려진 상황을 흉내 내기 위해 커넥션을 가져올 때마다 latencyMillis 만큼 기다린다. (커넥션 풀 밖에서 대기)
+ * virtualThreads: spring.threads.virtual.enabled
+ * - false: Tomcat 스레드 풀(server.tomcat.threads.max 200)만큼만 동시에 처리 -> 묶음 시간이 약 concurrency / 200 x latencyMillis
+ * - true: 요청마다 가상 스레드 -> 스레드 풀에 묶이지 않고 묶음 시간이 latencyMillis 에 가까워짐
+ * 측정이 끝나면 서버에서 동시에 처리한 최대 요청 수와 실패한 응답 수를 출력한다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class VirtualThreadLoadBenchmark {
+    private static final int USERS = 100;
+    private static final AtomicInteger IN_FLIGHT = new AtomicInteger();
+    private static final AtomicInteger PEAK_IN_FLIGHT = new AtomicInteger();
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    @Param({"1000"})
+    public int concurrency;
+
+    @Param({"20"})
+    public long latencyMillis;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private Long[] userIds;
+    private String baseUrl;
+    private final AtomicInteger failures = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.startWeb(SlowDatabaseConfig.class,
+                "spring.threads.virtual.enabled=" + virtualThreads,
+                "account.account-cache.maximum-size=0",
+                "benchmark.datasource.latency-millis=" + latencyMillis);
+        baseUrl = "http://localhost:"
+                + ((WebServerApplicationContext) context).getWebServer().getPort();
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        AccountService accountService = context.getBean(AccountService.class);
+        userIds = new Long[USERS];
+        for (int i = 0; i < USERS; i++) {
+            userIds[i] = BenchmarkApplication.createUser(context);
+            accountService.createAccount(userIds[i], 10000L);
+        }
+        PEAK_IN_FLIGHT.set(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%nvirtualThreads=%s concurrency=%d latencyMillis=%d peakInFlight=%d failures=%d%n",
+                virtualThreads, concurrency, latencyMillis, PEAK_IN_FLIGHT.get(), failures.get());
+        httpClient.close();
+        context.close();
+    }
+
+
+    @Benchmark
+    public int burst() {
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            HttpRequest request = HttpRequest.newBuilder(
+                    URI.create(baseUrl + "/account?userId=" + userIds[i % USERS])).GET().build();
+            responses.add(httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+        }
+
+        int succeeded = 0;
+        for (CompletableFuture<HttpResponse<Void>> response : responses) {
+            if (response.join().statusCode() == 200)
+                succeeded++;
+            else
+                failures.incrementAndGet();
+        }
+        return succeeded;
+    }
+
+
+    // 느린 DB 흉내 + 동시 처리 요청 수 집계 (startWeb 으로만 등록, 다른 벤치마크의 컴포넌트 스캔에서 제외되도록 @Configuration 없음)
+    public static class SlowDatabaseConfig {
+        @Bean
+        public static BeanPostProcessor slowDataSourcePostProcessor(Environment environment) {
+            long latencyMillis = environment.getProperty("benchmark.datasource.latency-millis", Long.class, 0L);
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource dataSource) || !"dataSource".equals(beanName))
+                        return bean;
+
+                    return new DelegatingDataSource(dataSource) {
+                        @Override
+                        public Connection getConnection() throws SQLException {
+                            sleep(latencyMillis);
+                            return super.getConnection();
+                        }
+                    };
+                }
+            };
+        }
+
+        @Bean
+        public Filter inFlightFilter() {
+            return (request, response, chain) -> {
+                PEAK_IN_FLIGHT.accumulateAndGet(IN_FLIGHT.incrementAndGet(), Math::max);
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    IN_FLIGHT.decrementAndGet();
+                }
+            };
+        }
+
+        private static void sleep(long millis) throws SQLException {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException(e);
+            }
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.ian.account.aop;
 
+import com.ian.account.type.TransactionType;
+
 import java.lang.annotation.*;
 
 @Target(ElementType.METHOD)
@@ -8,4 +10,7 @@ import java.lang.annotation.*;
 @Inherited
 public @interface AccountLock {
     long tryLockTime() default 5000L;
-}
\ No newline at end of file
+
+    // 락으로 보호하는 거래 종류 (거래 방식에 따라 락 없이 처리할 수 있는지 판단)
+    TransactionType transactionType();
+}
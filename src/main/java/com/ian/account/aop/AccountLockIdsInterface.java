@@ -0,0 +1,8 @@
+package com.ian.account.aop;
+
+import java.util.List;
+
+// 여러 계좌의 락이 필요한 요청 (계좌 이체 등)
+public interface AccountLockIdsInterface {
+    List<String> getAccountNumbers();
+}
@@ -0,0 +1,11 @@
+package com.ian.account.aop;
+
+import java.lang.annotation.*;
+
+// Idempotency-Key 헤더가 있는 요청은 처리 결과를 기록하고, 같은 키로 다시 요청하면 기록된 결과로 응답
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+public @interface Idempotent {
+}
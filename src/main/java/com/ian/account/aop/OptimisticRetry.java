@@ -0,0 +1,11 @@
+package com.ian.account.aop;
+
+import java.lang.annotation.*;
+
+// 거래 방식이 OPTIMISTIC 인 경우, 버전 충돌이 발생하면 새 트랜잭션으로 재시도
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+public @interface OptimisticRetry {
+}
@@ -0,0 +1,11 @@
+package com.ian.account.aop;
+
+import java.lang.annotation.*;
+
+// 복제본 DataSource 사용 (account.datasource.replica.enabled), 메서드 안에서 시작하는 읽기 전용 트랜잭션은 복제본에서 읽음
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+public @interface ReadReplica {
+}
@@ -0,0 +1,90 @@
+package com.ian.account.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * 읽기 복제본 DataSource 구성 (account.datasource.replica.enabled 가 true 인 경우)
+ * 원본(spring.datasource)과 복제본(account.datasource.replica) 커넥션 풀을 만들고,
+ * 애플리케이션이 사용하는 DataSource 는 ReadReplicaRoutingDataSource 를 LazyConnectionDataSourceProxy 로 감싸서 제공한다.
+ * 지표: account.datasource.replica.lag (마지막 복제 지연, 밀리초) / account.datasource.replica.available (1: 복제본 사용, 0: 원본 사용)
+ */
+@Configuration
+@ConditionalOnProperty(name = "account.datasource.replica.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+    @Value("${account.datasource.replica.url}")
+    private String url;
+
+    @Value("${account.datasource.replica.username:sa}")
+    private String username = "sa";
+
+    @Value("${account.datasource.replica.password:}")
+    private String password = "";
+
+    @Value("${account.datasource.replica.maximum-pool-size:20}")
+    private int maximumPoolSize = 20;
+
+    // 허용하는 복제 지연 (밀리초, 0 이면 지연을 확인하지 않고 커넥션만 확인)
+    @Value("${account.datasource.replica.max-lag-millis:2000}")
+    private long maxLagMillis = 2000L;
+
+    @Value("${account.datasource.replica.check-interval-millis:500}")
+    private long checkIntervalMillis = 500L;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    // 복제본 풀은 처음 커넥션을 가져올 때 연결하므로, 복제본이 내려가 있어도 애플리케이션은 시작된다.
+    @Bean
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setMaximumPoolSize(maximumPoolSize);
+        dataSource.setReadOnly(true);
+        dataSource.setPoolName("replica");
+        return dataSource;
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public ReadReplicaRoutingDataSource readReplicaRoutingDataSource(
+            @Qualifier("primaryDataSource") DataSource primaryDataSource,
+            @Qualifier("replicaDataSource") DataSource replicaDataSource,
+            MeterRegistry meterRegistry
+    ) {
+        ReadReplicaRoutingDataSource routing = new ReadReplicaRoutingDataSource(
+                primaryDataSource, replicaDataSource, maxLagMillis, checkIntervalMillis);
+        Gauge.builder("account.datasource.replica.lag", routing, ReadReplicaRoutingDataSource::getReplicaLagMillis)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("account.datasource.replica.available", routing, r -> r.isReplicaAvailable() ? 1 : 0)
+                .register(meterRegistry);
+        return routing;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadReplicaRoutingDataSource readReplicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readReplicaRoutingDataSource);
+    }
+}
@@ -0,0 +1,173 @@
+package com.ian.account.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 읽기/쓰기 DataSource 라우팅
+ * 복제본 읽기로 표시된 서비스 메서드(ReadReplicaAspect) 안의 읽기 전용 트랜잭션은 복제본(replica)에서, 나머지는 원본(primary)에서 커넥션을 가져온다.
+ * 트랜잭션의 읽기 전용 여부는 트랜잭션 시작 후에 정해지므로, LazyConnectionDataSourceProxy 로 감싸 첫 SQL 실행 시점에 커넥션을 가져와야 한다.
+ * 복제본 확인 (checkReplica, check-interval-millis 마다)
+ *  - max-lag-millis 가 0 보다 크면 원본에 기록한 하트비트(ReplicaHeartbeat)를 복제본에서 읽어 복제 지연을 계산하고, 허용 범위를 넘으면 원본을 사용한다.
+ *    하트비트는 확인할 때마다 기록하므로 측정한 지연에는 확인 간격이 포함된다. (max-lag-millis 는 check-interval-millis 보다 크게 설정)
+ *  - max-lag-millis 가 0 이면 복제본 커넥션이 유효한지만 확인한다.
+ * 복제본 커넥션을 가져오지 못하면 원본을 사용하고, 다음 확인에서 정상이면 다시 복제본을 사용한다. (첫 확인 전에는 원본 사용)
+ */
+@Slf4j
+public class ReadReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+    private static final ThreadLocal<Boolean> REPLICA_PREFERRED = ThreadLocal.withInitial(() -> false);
+    private static final long HEARTBEAT_ID = 1L;
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final long maxLagMillis;
+    private final long checkIntervalMillis;
+
+    private volatile boolean replicaAvailable;
+    private volatile long replicaLagMillis = -1L;
+    private ScheduledExecutorService monitor;
+
+    public ReadReplicaRoutingDataSource(DataSource primary, DataSource replica, long maxLagMillis, long checkIntervalMillis) {
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLagMillis = maxLagMillis;
+        this.checkIntervalMillis = checkIntervalMillis;
+    }
+
+    // 현재 스레드에서 시작하는 읽기 전용 트랜잭션이 복제본을 사용하도록 표시 -> 이전 표시 반환 (끝나면 restore 로 되돌림)
+    public static boolean preferReplica() {
+        boolean previous = REPLICA_PREFERRED.get();
+        REPLICA_PREFERRED.set(true);
+        return previous;
+    }
+
+    public static void restore(boolean previous) {
+        if (previous)
+            REPLICA_PREFERRED.set(true);
+        else
+            REPLICA_PREFERRED.remove();
+    }
+
+    public void start() {
+        monitor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("replica-monitor").daemon(true).factory());
+        monitor.scheduleWithFixedDelay(this::checkReplica, 0L, checkIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        if (monitor != null)
+            monitor.shutdownNow();
+    }
+
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (isReplicaRoute()) {
+            try {
+                return replica.getConnection();
+            } catch (SQLException e) {
+                markReplicaUnavailable(e);
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (isReplicaRoute()) {
+            try {
+                return replica.getConnection(username, password);
+            } catch (SQLException e) {
+                markReplicaUnavailable(e);
+            }
+        }
+        return primary.getConnection(username, password);
+    }
+
+    // 복제본 상태 확인 (확인 스레드에서 주기적으로 호출)
+    public void checkReplica() {
+        try {
+            long lagMillis = maxLagMillis > 0 ? measureLag() : validateReplica();
+            replicaLagMillis = lagMillis;
+            boolean available = lagMillis >= 0 && (maxLagMillis <= 0 || lagMillis <= maxLagMillis);
+            if (available != replicaAvailable)
+                log.info("Read replica {}, lag: {}ms", available ? "available" : "lagging, route reads to primary", lagMillis);
+            replicaAvailable = available;
+        } catch (SQLException | RuntimeException e) {
+            markReplicaUnavailable(e);
+        }
+    }
+
+    public boolean isReplicaAvailable() {
+        return replicaAvailable;
+    }
+
+    // 마지막으로 측정한 복제 지연 (밀리초, 측정하지 못했으면 -1)
+    public long getReplicaLagMillis() {
+        return replicaLagMillis;
+    }
+
+
+    private boolean isReplicaRoute() {
+        return replicaAvailable
+                && REPLICA_PREFERRED.get()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private void markReplicaUnavailable(Exception e) {
+        if (replicaAvailable)
+            log.warn("Read replica unavailable, route reads to primary", e);
+        replicaAvailable = false;
+        replicaLagMillis = -1L;
+    }
+
+    // 원본에 하트비트 기록 후 복제본에 반영된 하트비트와의 차이 반환 (복제본에 하트비트가 없으면 -1)
+    private long measureLag() throws SQLException {
+        try (Connection connection = primary.getConnection()) {
+            connection.setAutoCommit(true);
+            long now = System.currentTimeMillis();
+            try (PreparedStatement update = connection.prepareStatement(
+                    "update replica_heartbeat set beat_at_millis = ? where id = ?")) {
+                update.setLong(1, now);
+                update.setLong(2, HEARTBEAT_ID);
+                if (update.executeUpdate() == 0) {
+                    try (PreparedStatement insert = connection.prepareStatement(
+                            "insert into replica_heartbeat (id, beat_at_millis) values (?, ?)")) {
+                        insert.setLong(1, HEARTBEAT_ID);
+                        insert.setLong(2, now);
+                        insert.executeUpdate();
+                    }
+                }
+            }
+        }
+
+        try (Connection connection = replica.getConnection();
+             PreparedStatement select = connection.prepareStatement(
+                     "select beat_at_millis from replica_heartbeat where id = ?")) {
+            select.setLong(1, HEARTBEAT_ID);
+            try (ResultSet resultSet = select.executeQuery()) {
+                if (!resultSet.next())
+                    return -1L;
+                return Math.max(0L, System.currentTimeMillis() - resultSet.getLong(1));
+            }
+        }
+    }
+
+    private long validateReplica() throws SQLException {
+        try (Connection connection = replica.getConnection()) {
+            return connection.isValid(1) ? 0L : -1L;
+        }
+    }
+}
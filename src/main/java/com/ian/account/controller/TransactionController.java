@@ -1,14 +1,27 @@
 package com.ian.account.controller;
 
 import com.ian.account.aop.AccountLock;
+import com.ian.account.aop.Idempotent;
 import com.ian.account.dto.CancelBalance;
 import com.ian.account.dto.QueryTransactionResponse;
+import com.ian.account.dto.TransactionExport;
+import com.ian.account.dto.TransactionHistory;
+import com.ian.account.dto.TransferBalance;
 import com.ian.account.dto.UseBalance;
+import com.ian.account.service.FailedTransactionRecorder;
+import com.ian.account.service.TransactionExportService;
 import com.ian.account.service.TransactionService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import static com.ian.account.type.TransactionType.CANCEL;
+import static com.ian.account.type.TransactionType.TRANSFER;
+import static com.ian.account.type.TransactionType.USE;
 
 
 /**
@@ -16,12 +29,17 @@ import org.springframework.web.bind.annotation.*;
  * 1. 잔액 사용
  * 2. 잔액 사용 취소
  * 3. 거래 확인
+ * 4. 계좌 이체
+ * 5. 계좌 거래 내역 조회
+ * 6. 거래 내역 내보내기
  */
 @Slf4j
 @RestController
 @RequiredArgsConstructor
 public class TransactionController {
     private final TransactionService transactionService;
+    private final FailedTransactionRecorder failedTransactionRecorder;
+    private final TransactionExportService transactionExportService;
 
 
     /**
@@ -32,9 +50,11 @@ public class TransactionController {
      * 계좌가 해지 상태인 경우, 거래 금액이 잔액보다 큰 경우, 거래 금액이 너무 작거나 큰 경우
      * 해당 계좌에서 거래(사용, 사용 취소)가 이미 진행 중인 경우 (다른 거래 요청이 오는 경우, 해당 거래가 동시에 잘못 처리되는 것을 방지)
      * 성공: 계좌 번호, 거래 결과 코드(성공/실패), 거래 아이디, 거래 금액, 거래 일시 반환
+     * Idempotency-Key 헤더: 같은 키로 다시 요청하면 처리하지 않고 처음 요청의 결과를 그대로 반환
      */
     @PostMapping("/transaction/use")
-    @AccountLock
+    @Idempotent
+    @AccountLock(transactionType = USE)
     public UseBalance.Response useBalance(@RequestBody @Valid UseBalance.Request request)
             throws InterruptedException {
         // 잔액 사용에 성공했을 경우
@@ -44,13 +64,10 @@ public class TransactionController {
                     request.getUserId(), request.getAccountNumber(), request.getAmount())
             );
         } catch (Exception e) {
-            // 잔액 사용에 실패했을 경우에도 거래 내역을 기록
+            // 잔액 사용에 실패했을 경우에도 거래 내역을 기록 (락을 잡은 채로 기다리지 않도록 백그라운드에서 기록)
             log.error("Failed to use balance ", e);
 
-            transactionService.saveFailedUseTransaction(
-                    request.getAccountNumber(),
-                    request.getAmount()
-            );
+            failedTransactionRecorder.record(USE, request.getAccountNumber(), request.getAmount());
             throw e;
         }
     }
@@ -64,9 +81,11 @@ public class TransactionController {
      * 거래 금액과 거래 취소 금액이 다른 경우 (부분 취소 불가), 거래 기간이 1년을 넘은 경우
      * 해당 계좌에서 이미 다른 거래(사용/사용 취소)를 진행 중인 경우 (다른 거래 요청이 오는 경우, 해당 거래가 동시에 잘못 처리되는 것을 방지)
      * 성공: 걔좌 번호, 거래 결과 코드(성공/실패), 거래 아이디, 거래 금액, 거래 일시
+     * Idempotency-Key 헤더: 같은 키로 다시 요청하면 처리하지 않고 처음 요청의 결과를 그대로 반환
      */
     @PostMapping("/transaction/cancel")
-    @AccountLock
+    @Idempotent
+    @AccountLock(transactionType = CANCEL)
     public CancelBalance.Response cancelBalance(@RequestBody @Valid CancelBalance.Request request) {
         // 잔액 사용에 성공했을 경우
         try {
@@ -74,13 +93,40 @@ public class TransactionController {
                     transactionService.cancelBalance(request.getTransactionId(), request.getAccountNumber(), request.getAmount())
             );
         } catch (Exception e) {
-            // 잔액 사용에 실패했을 경우에도 거래 내역을 기록
+            // 잔액 사용에 실패했을 경우에도 거래 내역을 기록 (락을 잡은 채로 기다리지 않도록 백그라운드에서 기록)
             log.error("Failed to cancel balance ", e);
 
-            transactionService.saveFailedCancelTransaction(
-                    request.getAccountNumber(),
-                    request.getAmount()
+            failedTransactionRecorder.record(CANCEL, request.getAccountNumber(), request.getAmount());
+            throw e;
+        }
+    }
+
+
+    /**
+     * 계좌 이체 API
+     * POST /transaction/transfer
+     * 파라미터: 사용자 아이디, 보내는 계좌 번호, 받는 계좌 번호, 이체 금액
+     * 실패: 보내는 계좌와 받는 계좌가 같은 경우, 사용자 또는 계좌가 없는 경우, 사용자와 보내는 계좌의 소유주 정보가 일치하지 않는 경우,
+     * 계좌가 해지 상태인 경우, 이체 금액이 잔액보다 큰 경우, 이체 금액이 너무 작거나 큰 경우
+     * 두 계좌 중 하나라도 거래가 이미 진행 중인 경우 (두 계좌의 락을 계좌 번호 순서로 취득하여 교착 상태 방지)
+     * 성공: 보내는 계좌 번호, 받는 계좌 번호, 거래 결과 코드(성공/실패), 거래 아이디, 이체 금액, 거래 일시 반환
+     * Idempotency-Key 헤더: 같은 키로 다시 요청하면 처리하지 않고 처음 요청의 결과를 그대로 반환
+     */
+    @PostMapping("/transaction/transfer")
+    @Idempotent
+    @AccountLock(transactionType = TRANSFER)
+    public TransferBalance.Response transferBalance(@RequestBody @Valid TransferBalance.Request request) {
+        try {
+            return TransferBalance.Response.from(
+                    transactionService.transferBalance(request.getUserId(), request.getFromAccountNumber(),
+                            request.getToAccountNumber(), request.getAmount()),
+                    request.getToAccountNumber()
             );
+        } catch (Exception e) {
+            // 계좌 이체에 실패했을 경우에도 거래 내역을 기록 (락을 잡은 채로 기다리지 않도록 백그라운드에서 기록)
+            log.error("Failed to transfer balance ", e);
+
+            failedTransactionRecorder.record(TRANSFER, request.getFromAccountNumber(), request.getAmount());
             throw e;
         }
     }
@@ -97,4 +143,39 @@ public class TransactionController {
     public QueryTransactionResponse queryTransaction(@PathVariable String transactionId) {
         return QueryTransactionResponse.from(transactionService.queryTransaction(transactionId));
     }
+
+
+    /**
+     * 계좌 거래 내역 조회 API
+     * GET /account/{accountNumber}/transactions?transactionType=&transactionResultType=&from=&to=&cursor=&size=
+     * 파라미터: 계좌 번호, 거래 종류, 거래 결과 코드, 조회 기간(from 이상, to 미만, ISO 일시), 이전 페이지의 nextCursor, 페이지 크기(1 ~ 100, 기본 20)
+     * 실패: 계좌가 없는 경우, cursor 또는 페이지 크기가 올바르지 않은 경우
+     * 성공: 계좌 번호, 최근 거래부터 List<거래 아이디, 거래 종류, 거래 결과 코드, 거래 금액, 거래 후 잔액, 거래 일시>, 다음 페이지 cursor 반환
+     */
+    @GetMapping("/account/{accountNumber}/transactions")
+    public TransactionHistory.Response getTransactionHistory(@PathVariable String accountNumber,
+                                                             @Valid TransactionHistory.Request request) {
+        return transactionService.getTransactionHistory(accountNumber, request);
+    }
+
+
+    /**
+     * 거래 내역 내보내기 API
+     * GET /transaction/export?accountNumber=&from=&to=&format=&gzip=
+     * 파라미터: 계좌 번호(없으면 전체 계좌), 조회 기간(from 이상, to 미만, ISO 일시), 형식(NDJSON/CSV, 기본 NDJSON), gzip 압축 여부
+     * 실패: 계좌 번호가 주어졌는데 계좌가 없는 경우
+     * 성공: 오래된 거래부터 한 줄에 하나씩 <거래 아이디, 계좌 번호, 거래 종류, 거래 결과 코드, 거래 금액, 거래 후 잔액, 거래 일시>를 바로 응답에 씀
+     */
+    @GetMapping("/transaction/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(TransactionExport.Request request) {
+        StreamingResponseBody body = transactionExportService.export(request);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, request.getFormat().getContentType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"transactions."
+                        + request.getFormat().getExtension() + "\"");
+        if (request.isGzip())
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        return response.body(body);
+    }
 }
@@ -38,6 +38,9 @@ public class Account extends BaseEntity {
     private LocalDateTime accountCreatedAt; // 계좌 생성 일시
     private LocalDateTime accountCancelledAt; // 계좌 해지 일시
 
+    @Version
+    private Long version; // 낙관적 락 버전 (잔액 변경 충돌 감지)
+
 
     // 잔액 사용 시, 남은 잔액 계산
     public void useBalance(Long amount) {
@@ -54,4 +57,12 @@ public class Account extends BaseEntity {
 
         balance += amount;
     }
+
+    // 이체 입금 시, 남은 잔액 계산
+    public void depositBalance(Long amount) {
+        if (amount < 0)
+            throw new AccountException(INVALID_REQUEST);
+
+        balance += amount;
+    }
 }
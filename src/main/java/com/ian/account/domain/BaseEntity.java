@@ -1,8 +1,10 @@
 package com.ian.account.domain;
 
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.SequenceGenerator;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -21,8 +23,13 @@ import java.time.LocalDateTime;
 @MappedSuperclass
 @SuperBuilder
 public class BaseEntity {
+    // 시퀀스를 한 번 호출하면 아이디 ID_ALLOCATION_SIZE 개를 메모리에서 할당 (pooled-lo, application.yml)
+    // INSERT 전에 아이디를 알 수 있어야 JDBC 배치 INSERT 가 가능하다 (IDENTITY 는 배치 불가)
+    public static final int ID_ALLOCATION_SIZE = 1000;
+
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "id_generator")
+    @SequenceGenerator(name = "id_generator", sequenceName = "id_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id; // 테이블 아이디 (PK)
 
     @CreatedDate
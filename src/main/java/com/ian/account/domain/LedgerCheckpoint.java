@@ -0,0 +1,27 @@
+package com.ian.account.domain;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * LedgerCheckpoint: 잔액 스냅샷 기록 (JOURNAL 거래 방식)
+ * 같은 트랜잭션에서 변경된 계좌의 잔액(Account.balance)을 저장하고 이 행을 추가하므로,
+ * lastEventId 이하의 이벤트는 모두 계좌 테이블에 반영되어 있다.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@SuperBuilder
+@Entity
+@EntityListeners(AuditingEntityListener.class)
+public class LedgerCheckpoint extends BaseEntity {
+    private Long lastEventId; // 반영된 마지막 이벤트 아이디
+    private Integer accountCount; // 잔액을 저장한 계좌 수
+    private LocalDateTime checkpointedAt; // 스냅샷 일시
+}
@@ -0,0 +1,39 @@
+package com.ian.account.domain;
+
+import com.ian.account.type.TransactionType;
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * LedgerEvent: 잔액 변경 이벤트 (JOURNAL 거래 방식의 추가 전용 기록)
+ * 한 번 기록되면 변경/삭제하지 않으며, 아이디 순서가 기록 순서이다. (LedgerJournal 의 단일 기록 스레드만 추가)
+ * 서버 시작 시 마지막 체크포인트 이후의 이벤트를 아이디 순서대로 다시 적용하여 잔액을 복구한다.
+ * WAL 에 먼저 기록한 이벤트(durability: WAL)는 WAL 기록 번호를 함께 저장한다. (서버 시작 시 DB 에 저장되지 않은 WAL 기록 확인)
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@SuperBuilder
+@Entity
+@EntityListeners(AuditingEntityListener.class)
+@Table(indexes = @Index(name = "ix_ledger_event_wal_sequence", columnList = "wal_sequence"))
+public class LedgerEvent extends BaseEntity {
+    @ManyToOne(fetch = FetchType.LAZY)
+    private Account account; // 계좌 정보 (Join)
+
+    @Enumerated(EnumType.STRING)
+    private TransactionType transactionType; // 거래 종류 (사용/사용 취소/이체)
+
+    private Long delta; // 잔액 변화량 (출금은 음수)
+    private Long balance; // 이벤트 적용 후 계좌 잔액
+    @Column(name = "transaction_key")
+    @Convert(converter = TransactionIdConverter.class)
+    private String transactionId; // 거래 아이디 (거래 내역과 연결)
+    private LocalDateTime transactedAt; // 거래 일시
+    private Long walSequence; // WAL 기록 번호 (durability: WAL 일 때만)
+}
@@ -0,0 +1,34 @@
+package com.ian.account.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * OutboxEvent: 잔액 변경 알림 대기열 (트랜잭션 아웃박스)
+ * 성공한 거래 내역을 저장하는 트랜잭션에서 함께 추가하고, TransactionOutbox 의 전달 스레드가 아이디 순서대로 전달한 뒤 삭제한다.
+ * 아이디는 다른 엔티티와 달리 미리 할당하지 않고(allocationSize 1) INSERT 할 때마다 시퀀스에서 받는다.
+ * 같은 계좌의 거래는 계좌 락(또는 행 잠금)을 잡은 뒤 아이디를 받으므로, 서버가 여러 대여도 계좌별 아이디 순서가 거래 순서이다.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@EntityListeners(AuditingEntityListener.class)
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_generator")
+    @SequenceGenerator(name = "outbox_generator", sequenceName = "outbox_seq", allocationSize = 1)
+    private Long id; // 알림 아이디 (전달 순서)
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    private Transaction transaction; // 거래 내역 (Join, 알림 내용)
+
+    @CreatedDate
+    private LocalDateTime registeredAt; // 등록 일시
+}
@@ -0,0 +1,21 @@
+package com.ian.account.domain;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.*;
+
+/**
+ * ReplicaHeartbeat: 복제 지연 확인용 하트비트 (ReadReplicaRoutingDataSource)
+ * 원본에 현재 시각을 기록하고 복제본에서 읽어 복제 지연 시간을 계산한다. (행 1개, JDBC 로 직접 읽고 씀)
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+public class ReplicaHeartbeat {
+    @Id
+    private Long id; // 항상 1
+
+    private Long beatAtMillis; // 원본에 기록한 시각 (epoch 밀리초)
+}
@@ -15,6 +15,13 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @SuperBuilder
 @Entity
+@Table(indexes = {
+        @Index(name = "ux_transaction_key", columnList = "transaction_key", unique = true),
+        // 계좌 거래 내역 조회 (keyset 페이지)
+        @Index(name = "ix_transaction_account_transacted_at", columnList = "account_id, transacted_at, id"),
+        // 기간별 거래 내역 내보내기 (전체 계좌)
+        @Index(name = "ix_transaction_transacted_at", columnList = "transacted_at, id")
+})
 @EntityListeners(AuditingEntityListener.class)
 public class Transaction extends BaseEntity {
     @Enumerated(EnumType.STRING)
@@ -28,6 +35,8 @@ public class Transaction extends BaseEntity {
 
     private Long amount; // 거래 금액
     private Long balanceSnapshot; // 거래 후 계좌 잔액
-    private String transactionId; // 거래 아이디
+    @Convert(converter = TransactionIdConverter.class)
+    @Column(name = "transaction_key", nullable = false)
+    private String transactionId; // 거래 아이디 (TransactionIdGenerator, DB 에는 BIGINT 로 저장)
     private LocalDateTime transactedAt; // 거래 일시
 }
@@ -0,0 +1,22 @@
+package com.ian.account.domain;
+
+import com.ian.account.service.TransactionIdGenerator;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * 거래 아이디 변환 (16자리 16진수 문자열 <-> BIGINT)
+ * 형식이 맞지 않는 아이디는 null 로 변환되어 조회 결과가 없다. (거래 없음)
+ */
+@Converter
+public class TransactionIdConverter implements AttributeConverter<String, Long> {
+    @Override
+    public Long convertToDatabaseColumn(String transactionId) {
+        return TransactionIdGenerator.parse(transactionId);
+    }
+
+    @Override
+    public String convertToEntityAttribute(Long id) {
+        return id == null ? null : TransactionIdGenerator.format(id);
+    }
+}
@@ -0,0 +1,22 @@
+package com.ian.account.dto;
+
+import com.ian.account.type.TransactionType;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// 잔액 변경 알림 (아웃박스에서 외부로 전달하는 내용, eventId 로 중복 수신을 걸러낼 수 있다)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BalanceChangeEvent {
+    private Long eventId; // 알림 아이디 (계좌별로 증가)
+    private String accountNumber;
+    private TransactionType transactionType; // 거래 종류 (사용/사용 취소/이체)
+    private Long amount; // 거래 금액
+    private Long balance; // 거래 후 계좌 잔액
+    private String transactionId; // 거래 아이디
+    private LocalDateTime transactedAt; // 거래 일시
+}
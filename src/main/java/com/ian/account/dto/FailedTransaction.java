@@ -0,0 +1,22 @@
+package com.ian.account.dto;
+
+import com.ian.account.type.TransactionType;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * FailedTransaction: 기록 대기 중인 실패 거래 (FailedTransactionRecorder)
+ * 실패한 시점의 정보만 담고, 계좌 조회와 거래 내역 저장은 백그라운드에서 묶어서 처리한다.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FailedTransaction {
+    private TransactionType transactionType; // 거래 종류
+    private String accountNumber; // 계좌 번호 (계좌 이체는 보내는 계좌 번호)
+    private Long amount; // 거래 금액
+    private LocalDateTime failedAt; // 실패 일시
+}
@@ -0,0 +1,22 @@
+package com.ian.account.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * IdempotencyClaim: 멱등성 키를 선점하려는 요청 정보
+ * key: API 이름 + Idempotency-Key 헤더 값
+ * fingerprint: 요청 본문의 해시
+ * claimTtl: 처리 중 기록 보관 기간 (처리 도중 서버가 종료되거나 결과 기록에 실패해도 이 시간이 지나면 같은 키로 다시 처리 가능)
+ * ttl: 처리 결과 보관 기간 (결과를 기록할 때 적용)
+ */
+@Getter
+@AllArgsConstructor
+public class IdempotencyClaim {
+    private String key;
+    private String fingerprint;
+    private Duration claimTtl;
+    private Duration ttl;
+}
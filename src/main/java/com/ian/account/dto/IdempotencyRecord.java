@@ -0,0 +1,43 @@
+package com.ian.account.dto;
+
+import com.ian.account.type.ErrorCode;
+import lombok.*;
+
+/**
+ * IdempotencyRecord: 멱등성 키로 처리한 요청의 기록
+ * 처리 중에는 completed = false, 처리가 끝나면 성공 응답(JSON) 또는 실패 에러 코드를 기록한다.
+ * fingerprint: 요청 본문의 해시 (같은 키로 다른 요청을 보낸 경우를 구분)
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord {
+    private String fingerprint; // 요청 본문 해시
+    private boolean completed; // 처리 완료 여부
+    private String response; // 성공 응답 (JSON)
+    private ErrorCode errorCode; // 실패 에러 코드
+
+    public static IdempotencyRecord inProgress(String fingerprint) {
+        return IdempotencyRecord.builder()
+                .fingerprint(fingerprint)
+                .build();
+    }
+
+    public static IdempotencyRecord success(String fingerprint, String response) {
+        return IdempotencyRecord.builder()
+                .fingerprint(fingerprint)
+                .completed(true)
+                .response(response)
+                .build();
+    }
+
+    public static IdempotencyRecord failure(String fingerprint, ErrorCode errorCode) {
+        return IdempotencyRecord.builder()
+                .fingerprint(fingerprint)
+                .completed(true)
+                .errorCode(errorCode)
+                .build();
+    }
+}
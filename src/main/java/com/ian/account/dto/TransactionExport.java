@@ -0,0 +1,33 @@
+package com.ian.account.dto;
+
+import com.ian.account.type.ExportFormat;
+import lombok.*;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+
+/**
+ * TransactionExport: "거래 내역 내보내기"라는 하나의 기능을 담당
+ * 조건에 맞는 거래를 (거래 일시, 테이블 아이디) 순서로 응답에 바로 써서 내보낸다. (응답은 Request 의 형식)
+ * Request: 계좌 번호(없으면 전체 계좌), 조회 기간(from 이상, to 미만), 형식(NDJSON/CSV), gzip 압축 여부
+ */
+public class TransactionExport {
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Request {
+        private String accountNumber; // 계좌 번호 (없으면 전체 계좌)
+
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        private LocalDateTime from; // 조회 시작 일시 (포함)
+
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        private LocalDateTime to; // 조회 종료 일시 (미포함)
+
+        private ExportFormat format = ExportFormat.NDJSON; // 형식
+
+        private boolean gzip; // gzip 압축 여부
+    }
+}
@@ -0,0 +1,54 @@
+package com.ian.account.dto;
+
+import com.ian.account.type.TransactionResultType;
+import com.ian.account.type.TransactionType;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.*;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+
+/**
+ * TransactionHistory: "계좌 거래 내역 조회"라는 하나의 기능을 담당
+ * 최근 거래부터 (거래 일시, 테이블 아이디) 역순으로 size 건씩 반환하며,
+ * 다음 페이지는 응답의 nextCursor 를 cursor 로 전달하여 조회한다. (마지막 페이지면 nextCursor = null)
+ * Request: 거래 종류, 거래 결과 코드, 조회 기간(from 이상, to 미만), cursor, 페이지 크기
+ * Response: 계좌 번호, 거래 내역 목록, 다음 페이지 cursor
+ */
+public class TransactionHistory {
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Request {
+        private TransactionType transactionType; // 거래 종류 (없으면 전체)
+        private TransactionResultType transactionResultType; // 거래 결과 코드 (없으면 전체)
+
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        private LocalDateTime from; // 조회 시작 일시 (포함)
+
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+        private LocalDateTime to; // 조회 종료 일시 (미포함)
+
+        private String cursor; // 이전 페이지의 nextCursor (없으면 첫 페이지)
+
+        @Min(1)
+        @Max(100)
+        private int size = 20; // 페이지 크기
+    }
+
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Response {
+        private String accountNumber; // 계좌 번호
+        private List<TransactionHistoryItem> transactions; // 거래 내역 목록
+        private String nextCursor; // 다음 페이지 cursor
+    }
+}
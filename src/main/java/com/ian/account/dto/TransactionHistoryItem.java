@@ -0,0 +1,29 @@
+package com.ian.account.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.ian.account.type.TransactionResultType;
+import com.ian.account.type.TransactionType;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * TransactionHistoryItem: 거래 내역 목록의 한 건 (Transaction 조회 결과를 바로 담는 DTO)
+ * 엔티티(Account / AccountUser)를 불러오지 않고 필요한 컬럼만 조회한다.
+ * id: 다음 페이지 위치(cursor) 계산용 테이블 아이디 (응답에는 포함하지 않음)
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransactionHistoryItem {
+    @JsonIgnore
+    private Long id; // 테이블 아이디
+    private String transactionId; // 거래 아이디
+    private TransactionType transactionType; // 거래 종류
+    private TransactionResultType transactionResultType; // 거래 결과 코드
+    private Long amount; // 거래 금액
+    private Long balanceSnapshot; // 거래 후 계좌 잔액
+    private LocalDateTime transactedAt; // 거래 일시
+}
@@ -0,0 +1,72 @@
+package com.ian.account.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.ian.account.aop.AccountLockIdsInterface;
+import com.ian.account.type.TransactionResultType;
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * TransferBalance: "계좌 이체"라는 하나의 기능을 담당
+ * 보내는 계좌의 잔액 사용과 받는 계좌의 입금을 하나의 DB 트랜잭션으로 처리한다.
+ * Request: 사용자 아이디, 보내는 계좌 번호, 받는 계좌 번호, 이체 금액
+ * Response: 보내는 계좌 번호, 받는 계좌 번호, 거래 결과 코드(성공/실패), 거래 아이디, 이체 금액, 거래 일시
+ */
+public class TransferBalance {
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    public static class Request implements AccountLockIdsInterface {
+        @NotNull
+        @Min(1)
+        private Long userId; // 사용자 아이디 (보내는 계좌의 소유주)
+
+        @NotBlank
+        @Size(min = 10, max = 10)
+        private String fromAccountNumber; // 보내는 계좌 번호
+
+        @NotBlank
+        @Size(min = 10, max = 10)
+        private String toAccountNumber; // 받는 계좌 번호
+
+        @NotNull
+        @Min(10)
+        @Max(10_0000_0000)
+        private Long amount; // 이체 금액
+
+        @JsonIgnore
+        @Override
+        public List<String> getAccountNumbers() {
+            return List.of(fromAccountNumber, toAccountNumber);
+        }
+    }
+
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Response {
+        private String fromAccountNumber; // 보내는 계좌 번호
+        private String toAccountNumber; // 받는 계좌 번호
+        private TransactionResultType transactionResultType; // 거래 결과 코드
+        private String transactionId; // 거래 아이디 (보내는 계좌의 거래)
+        private Long amount; // 이체 금액
+        private LocalDateTime transactedAt; // 거래 일시
+
+        public static Response from(TransactionDTO transactionDTO, String toAccountNumber) {
+            return Response.builder()
+                    .fromAccountNumber(transactionDTO.getAccountNumber())
+                    .toAccountNumber(toAccountNumber)
+                    .transactionResultType(transactionDTO.getTransactionResultType())
+                    .transactionId(transactionDTO.getTransactionId())
+                    .amount(transactionDTO.getAmount())
+                    .transactedAt(transactionDTO.getTransactedAt())
+                    .build();
+        }
+    }
+}
@@ -2,20 +2,63 @@ package com.ian.account.repository;
 
 import com.ian.account.domain.Account;
 import com.ian.account.domain.AccountUser;
+import com.ian.account.dto.AccountDTO;
+import com.ian.account.type.AccountStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long> {
-    // 마지막으로 생성된 계좌 번호 조회
-    Optional<Account> findFirstByOrderByIdDesc();
+    // 가장 큰 계좌 번호 조회 (계좌 번호 발급기 초기화용)
+    Optional<Account> findFirstByOrderByAccountNumberDesc();
     // 특정 사람이 갖고 있는 계좌의 수 조회
     Integer countByAccountUser(AccountUser accountUser);
     // 계좌 번호 조회
     Optional<Account> findByAccountNumber(String accountNumber);
+    // 계좌 번호로 계좌 아이디만 조회 (계좌 / 사용자 엔티티를 불러오지 않음)
+    @Query("select a.id from Account a where a.accountNumber = :accountNumber")
+    Optional<Long> findIdByAccountNumber(@Param("accountNumber") String accountNumber);
+    // 여러 계좌 번호 조회
+    List<Account> findByAccountNumberIn(Collection<String> accountNumbers);
     //
     List<Account> findByAccountUser(AccountUser accountUser);
+    // 사용자 아이디로 계좌 목록을 DTO 로 바로 조회 (계좌 / 사용자 엔티티를 불러오지 않고 사용자 테이블과 Join 하지 않음)
+    @Query("select new com.ian.account.dto.AccountDTO(a.accountUser.id, a.accountNumber, a.balance, " +
+            "a.accountCreatedAt, a.accountCancelledAt) " +
+            "from Account a where a.accountUser.id = :userId order by a.id")
+    List<AccountDTO> findDTOsByAccountUserId(@Param("userId") Long userId);
+    // 잔액 사용 (조건부 UPDATE): 소유주, 계좌 상태, 잔액 조건을 만족할 때만 차감 -> 변경된 행 수 반환
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Account a set a.balance = a.balance - :amount, a.version = a.version + 1, a.updatedAt = :now " +
+            "where a.accountNumber = :accountNumber and a.accountUser.id = :userId " +
+            "and a.accountStatus = :accountStatus and a.balance >= :amount")
+    int useBalanceIfPossible(@Param("accountNumber") String accountNumber,
+                             @Param("userId") Long userId,
+                             @Param("amount") Long amount,
+                             @Param("accountStatus") AccountStatus accountStatus,
+                             @Param("now") LocalDateTime now);
+    // 잔액 변경 (버전 확인): 읽은 뒤 다른 곳에서 계좌가 변경되지 않았을 때만 잔액 반영 -> 변경된 행 수 반환
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Account a set a.balance = :balance, a.version = a.version + 1, a.updatedAt = :now " +
+            "where a.id = :id and a.version = :version")
+    int updateBalanceIfVersion(@Param("id") Long id,
+                               @Param("balance") Long balance,
+                               @Param("version") Long version,
+                               @Param("now") LocalDateTime now);
+    // 계좌 해지 (JOURNAL 거래 방식): 해지 상태와 메모리의 잔액을 함께 반영
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Account a set a.accountStatus = :accountStatus, a.accountCancelledAt = :now, a.balance = :balance, " +
+            "a.version = a.version + 1, a.updatedAt = :now where a.id = :id")
+    int closeAccount(@Param("id") Long id,
+                     @Param("accountStatus") AccountStatus accountStatus,
+                     @Param("balance") Long balance,
+                     @Param("now") LocalDateTime now);
 }
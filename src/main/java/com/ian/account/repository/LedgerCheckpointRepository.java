@@ -0,0 +1,13 @@
+package com.ian.account.repository;
+
+import com.ian.account.domain.LedgerCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface LedgerCheckpointRepository extends JpaRepository<LedgerCheckpoint, Long> {
+    // 가장 최근 스냅샷
+    Optional<LedgerCheckpoint> findTopByOrderByIdDesc();
+}
@@ -0,0 +1,13 @@
+package com.ian.account.repository;
+
+import com.ian.account.domain.LedgerEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LedgerEventRepository extends JpaRepository<LedgerEvent, Long> {
+    // DB 에 저장된 마지막 WAL 기록 번호 (없으면 null)
+    @Query("select max(e.walSequence) from LedgerEvent e")
+    Long findMaxWalSequence();
+}
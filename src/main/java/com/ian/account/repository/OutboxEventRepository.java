@@ -0,0 +1,19 @@
+package com.ian.account.repository;
+
+import com.ian.account.domain.OutboxEvent;
+import com.ian.account.dto.BalanceChangeEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    // 전달할 알림을 아이디 순서대로 조회 (거래 내역, 계좌와 Join 하여 알림 내용까지 한 번에 조회)
+    @Query("select new com.ian.account.dto.BalanceChangeEvent(o.id, a.accountNumber, t.transactionType, t.amount, " +
+            "t.balanceSnapshot, t.transactionId, t.transactedAt) " +
+            "from OutboxEvent o join o.transaction t join t.account a order by o.id")
+    List<BalanceChangeEvent> findBalanceChanges(Pageable pageable);
+}
@@ -0,0 +1,14 @@
+package com.ian.account.repository;
+
+import com.ian.account.domain.Transaction;
+
+import java.util.List;
+
+/**
+ * 거래 내역 일괄 저장 (TransactionRepository 확장)
+ * 묶음 처리(DebitBatcher, LedgerEngine), 계좌 이체 등 여러 건을 한 번에 저장하는 경로에서 사용
+ */
+public interface TransactionBulkRepository {
+    // 새 거래 내역들을 JDBC 배치 INSERT 로 저장 (저장된 거래 내역 반환)
+    List<Transaction> insertAll(List<Transaction> transactions);
+}
@@ -0,0 +1,37 @@
+package com.ian.account.repository;
+
+import com.ian.account.domain.Transaction;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * 거래 내역 일괄 저장 구현
+ * saveAll 과 달리 새 엔티티인지 확인(merge)하지 않고 바로 persist 하며,
+ * batch_size 건마다 flush 후 영속성 컨텍스트를 비워 대량 저장 시에도 메모리 사용량과 dirty checking 비용이 늘지 않는다.
+ * (batch_size 건을 넘으면 호출 전에 변경된 엔티티도 함께 flush 되고 영속성 컨텍스트에서 분리된다)
+ */
+@RequiredArgsConstructor
+public class TransactionBulkRepositoryImpl implements TransactionBulkRepository {
+    private final EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}")
+    private int batchSize = 100;
+
+
+    @Override
+    @Transactional
+    public List<Transaction> insertAll(List<Transaction> transactions) {
+        for (int i = 0; i < transactions.size(); i++) {
+            if (i > 0 && i % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+            entityManager.persist(transactions.get(i));
+        }
+        return transactions;
+    }
+}
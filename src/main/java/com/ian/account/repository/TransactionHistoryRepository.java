@@ -0,0 +1,24 @@
+package com.ian.account.repository;
+
+import com.ian.account.dto.TransactionHistoryItem;
+import com.ian.account.type.TransactionResultType;
+import com.ian.account.type.TransactionType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 계좌 거래 내역 조회 (TransactionRepository 확장)
+ */
+public interface TransactionHistoryRepository {
+    // 계좌의 거래 내역을 (거래 일시, 아이디) 역순으로 limit 건 조회
+    // null 인 조건은 적용하지 않으며, cursorTransactedAt / cursorId 가 있으면 그 위치 다음부터 조회 (keyset)
+    List<TransactionHistoryItem> findHistory(Long accountId,
+                                             TransactionType transactionType,
+                                             TransactionResultType transactionResultType,
+                                             LocalDateTime from,
+                                             LocalDateTime to,
+                                             LocalDateTime cursorTransactedAt,
+                                             Long cursorId,
+                                             int limit);
+}
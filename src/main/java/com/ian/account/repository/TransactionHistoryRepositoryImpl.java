@@ -0,0 +1,74 @@
+package com.ian.account.repository;
+
+import com.ian.account.domain.Transaction;
+import com.ian.account.dto.TransactionHistoryItem;
+import com.ian.account.type.TransactionResultType;
+import com.ian.account.type.TransactionType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 계좌 거래 내역 조회 구현
+ * 주어진 조건만 WHERE 절에 넣어 (account_id, transacted_at, id) 인덱스를 범위 조회로 사용하고,
+ * OFFSET 대신 마지막으로 본 (거래 일시, 아이디) 다음부터 읽으므로 몇 번째 페이지든 조회 비용이 같다.
+ * Account 와 조인하지 않고 외래 키(account_id)로만 조회하며, 필요한 컬럼만 DTO 로 받는다.
+ */
+@RequiredArgsConstructor
+public class TransactionHistoryRepositoryImpl implements TransactionHistoryRepository {
+    private final EntityManager entityManager;
+
+
+    @Override
+    public List<TransactionHistoryItem> findHistory(Long accountId,
+                                                    TransactionType transactionType,
+                                                    TransactionResultType transactionResultType,
+                                                    LocalDateTime from,
+                                                    LocalDateTime to,
+                                                    LocalDateTime cursorTransactedAt,
+                                                    Long cursorId,
+                                                    int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TransactionHistoryItem> query = cb.createQuery(TransactionHistoryItem.class);
+        Root<Transaction> transaction = query.from(Transaction.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(transaction.get("account").get("id"), accountId));
+        if (transactionType != null)
+            predicates.add(cb.equal(transaction.get("transactionType"), transactionType));
+        if (transactionResultType != null)
+            predicates.add(cb.equal(transaction.get("transactionResultType"), transactionResultType));
+        if (from != null)
+            predicates.add(cb.greaterThanOrEqualTo(transaction.get("transactedAt"), from));
+        if (to != null)
+            predicates.add(cb.lessThan(transaction.get("transactedAt"), to));
+        // (transacted_at, id) < (cursorTransactedAt, cursorId)
+        if (cursorTransactedAt != null && cursorId != null)
+            predicates.add(cb.or(
+                    cb.lessThan(transaction.get("transactedAt"), cursorTransactedAt),
+                    cb.and(cb.equal(transaction.get("transactedAt"), cursorTransactedAt),
+                            cb.lessThan(transaction.get("id"), cursorId))));
+
+        query.select(cb.construct(TransactionHistoryItem.class,
+                        transaction.get("id"),
+                        transaction.get("transactionId"),
+                        transaction.get("transactionType"),
+                        transaction.get("transactionResultType"),
+                        transaction.get("amount"),
+                        transaction.get("balanceSnapshot"),
+                        transaction.get("transactedAt")))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(cb.desc(transaction.get("transactedAt")), cb.desc(transaction.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
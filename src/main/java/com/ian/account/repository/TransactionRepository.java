@@ -1,12 +1,21 @@
 package com.ian.account.repository;
 
 import com.ian.account.domain.Transaction;
+import com.ian.account.dto.TransactionDTO;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+public interface TransactionRepository extends JpaRepository<Transaction, Long>,
+        TransactionBulkRepository, TransactionHistoryRepository {
     Optional<Transaction> findByTransactionId(String transactionId);
+    // 거래 아이디로 거래를 DTO 로 바로 조회 (거래 / 계좌 / 사용자 엔티티를 불러오지 않고 계좌 테이블과만 Join)
+    @Query("select new com.ian.account.dto.TransactionDTO(a.accountNumber, t.transactionType, t.transactionResultType, " +
+            "t.amount, t.balanceSnapshot, t.transactionId, t.transactedAt) " +
+            "from Transaction t join t.account a where t.transactionId = :transactionId")
+    Optional<TransactionDTO> findDTOByTransactionId(@Param("transactionId") String transactionId);
 }
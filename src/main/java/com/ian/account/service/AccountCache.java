@@ -0,0 +1,170 @@
+package com.ian.account.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ian.account.dto.AccountDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 계좌 확인 캐시 (사용자 아이디 -> 계좌 목록)
+ * 1. 서버 메모리: 최대 maximum-size 명, 저장 후 ttl-millis 가 지나면 제거
+ * 2. Redis (redis-enabled): 서버 메모리에 없으면 Redis 에서 찾고, 없으면 DB 에서 읽어 Redis 에도 저장 (redis-ttl-seconds)
+ * 계좌 생성/해지, 잔액 사용/사용 취소/이체가 커밋되면 그 계좌 사용자의 목록을 무효화한다. (evictAfterCommit)
+ * - 무효화는 응답 전에 끝나므로, 변경한 서버에서는 커밋 이후의 조회가 항상 변경된 목록을 반환한다.
+ * - Redis 의 목록은 사용자별 세대 번호와 함께 저장하며, 무효화할 때 세대 번호를 올리므로
+ *   무효화 이전에 DB 에서 읽은 목록이 늦게 저장되어도 사용되지 않는다.
+ * - 다른 서버에는 Redis 메시지로 무효화를 알리며, 메시지를 받지 못한 경우에도 ttl-millis 이상 이전 목록을 반환하지 않는다.
+ * - JOURNAL 거래 방식은 계좌 테이블의 잔액이 체크포인트에서만 바뀌므로 무효화로는 최신 잔액을 읽을 수 없다.
+ *   잔액은 AccountService 가 캐시된 목록 대신 원장(LedgerJournal)의 메모리 잔액으로 바꿔 반환한다.
+ * 지표: cache.gets{cache=account, result=hit|miss}, cache.size, cache.evictions
+ * 캐시된 목록은 여러 요청이 함께 사용하므로 변경하지 않는다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AccountCache {
+    private static final String CACHE_NAME = "account";
+    private static final String INVALIDATION_TOPIC = "ACCS:invalidation";
+
+    private final MeterRegistry meterRegistry;
+    private final RedissonClient redissonClient;
+    private final ObjectMapper objectMapper;
+    private AsyncCache<Long, List<AccountDTO>> cache;
+
+    @Value("${account.account-cache.maximum-size:100000}")
+    private long maximumSize = 100000L;
+
+    // 서버 메모리 보관 시간 (다른 서버에서 변경된 경우의 최대 지연)
+    @Value("${account.account-cache.ttl-millis:1000}")
+    private long ttlMillis = 1000L;
+
+    @Value("${account.account-cache.redis-enabled:false}")
+    private boolean redisEnabled;
+
+    @Value("${account.account-cache.redis-ttl-seconds:600}")
+    private long redisTtlSeconds = 600L;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), CACHE_NAME);
+
+        if (redisEnabled)
+            getTopic().addListener(String.class, (channel, userId) -> cache.synchronous().invalidate(Long.valueOf(userId)));
+    }
+
+
+    // 캐시에 없으면 loader 로 조회하여 저장 (loader 의 예외는 그대로 전달)
+    public List<AccountDTO> get(Long userId, Function<Long, List<AccountDTO>> loader) {
+        return AsyncCacheLoading.get(cache, userId, redisEnabled ? id -> loadThroughRedis(id, loader) : loader);
+    }
+
+    // 커밋된 뒤에 무효화 (롤백된 경우에는 무효화하지 않음, 트랜잭션 밖에서는 바로 무효화)
+    public void evictAfterCommit(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(userId);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(userId);
+            }
+        });
+    }
+
+    // Redis 세대 번호를 먼저 올린 뒤 서버 메모리에서 제거
+    // (진행 중인 조회도 함께 제거되므로, 이전 세대로 읽은 목록은 남지 않는다)
+    public void evict(Long userId) {
+        if (redisEnabled) {
+            try {
+                redissonClient.getAtomicLong(getGenerationKey(userId)).incrementAndGet();
+                getTopic().publish(String.valueOf(userId));
+            } catch (Exception e) {
+                log.error("Failed to invalidate account cache in redis for userId: {}", userId, e);
+            }
+        }
+        cache.synchronous().invalidate(userId);
+    }
+
+
+    private List<AccountDTO> loadThroughRedis(Long userId, Function<Long, List<AccountDTO>> loader) {
+        String generationKey = getGenerationKey(userId);
+        String valueKey = getValueKey(userId);
+
+        // 세대 번호는 DB 조회 전에 읽어야 한다
+        String generation;
+        try {
+            Map<String, String> values = redissonClient.getBuckets(StringCodec.INSTANCE)
+                    .get(generationKey, valueKey);
+            generation = values.getOrDefault(generationKey, "0");
+            String json = values.get(valueKey);
+            if (json != null) {
+                CachedAccounts cached = objectMapper.readValue(json, CachedAccounts.class);
+                if (generation.equals(cached.getGeneration()))
+                    return cached.getAccounts();
+            }
+        } catch (Exception e) {
+            log.error("Failed to read account cache from redis for userId: {}", userId, e);
+            return loader.apply(userId);
+        }
+
+        List<AccountDTO> accounts = loader.apply(userId);
+        try {
+            redissonClient.getBucket(valueKey, StringCodec.INSTANCE).set(
+                    objectMapper.writeValueAsString(new CachedAccounts(generation, accounts)),
+                    Duration.ofSeconds(redisTtlSeconds));
+        } catch (Exception e) {
+            log.error("Failed to write account cache to redis for userId: {}", userId, e);
+        }
+        return accounts;
+    }
+
+    private RTopic getTopic() {
+        return redissonClient.getTopic(INVALIDATION_TOPIC, StringCodec.INSTANCE);
+    }
+
+    // 같은 사용자의 키는 같은 슬롯에 두어 한 번에 조회
+    private static String getValueKey(Long userId) {
+        return "ACCS:{" + userId + "}:accounts";
+    }
+
+    private static String getGenerationKey(Long userId) {
+        return "ACCS:{" + userId + "}:generation";
+    }
+
+
+    // Redis 에 저장하는 계좌 목록 (저장할 때의 세대 번호)
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class CachedAccounts {
+        private String generation;
+        private List<AccountDTO> accounts;
+    }
+}
@@ -0,0 +1,82 @@
+package com.ian.account.service;
+
+import com.ian.account.exception.AccountException;
+import com.ian.account.type.ErrorCode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.ian.account.type.ErrorCode.INTERNAL_SERVER_ERROR;
+
+/**
+ * 계좌 거래 구간별 지표 (/actuator/prometheus)
+ * account.lock.wait: 락 대기 시간 (outcome: acquired, existing, queue_full, timeout, redis_timeout, interrupted, redis_error)
+ * account.lock.hold: 락 보유 시간 (락 취득 ~ 해제, outcome / error_code 는 락을 잡고 처리한 요청의 결과)
+ * account.transaction.request: 거래 요청 처리 시간 (type: 거래 종류)
+ * account.transaction.failure.record: 실패 거래 내역 기록 시간 (method: 기록 메서드)
+ * 모든 지표는 outcome 과 error_code(ErrorCode, 없으면 NONE) 태그를 가진다.
+ * DB 조회 시간은 Spring Data 의 spring.data.repository.invocations 지표 (repository, method 태그)
+ */
+@Component
+@RequiredArgsConstructor
+public class AccountMetrics {
+    private static final String NONE = "NONE";
+
+    private final MeterRegistry meterRegistry;
+
+    public void recordLockWait(long nanos, String outcome, ErrorCode errorCode) {
+        Timer.builder("account.lock.wait")
+                .tag("outcome", outcome)
+                .tag("error_code", errorCode == null ? NONE : errorCode.name())
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // failure: 락을 잡고 처리하는 중에 발생한 예외 (성공이면 null)
+    public void recordLockHold(long nanos, Throwable failure) {
+        Timer.builder("account.lock.hold")
+                .tag("outcome", getOutcome(failure))
+                .tag("error_code", getErrorCode(failure))
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // failure: 처리 중 발생한 예외 (성공이면 null)
+    public void recordRequest(String type, long nanos, Throwable failure) {
+        Timer.builder("account.transaction.request")
+                .tag("type", type)
+                .tag("outcome", getOutcome(failure))
+                .tag("error_code", getErrorCode(failure))
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // failure: 기록 중 발생한 예외 (성공이면 null)
+    public void recordFailureRecord(String method, long nanos, Throwable failure) {
+        Timer.builder("account.transaction.failure.record")
+                .tag("method", method)
+                .tag("outcome", getOutcome(failure))
+                .tag("error_code", getErrorCode(failure))
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+
+    private static String getOutcome(Throwable failure) {
+        if (failure == null)
+            return "success";
+        return failure instanceof AccountException ? "failure" : "error";
+    }
+
+    // GlobalExceptionHandler 가 응답하는 에러 코드와 같은 값
+    private static String getErrorCode(Throwable failure) {
+        if (failure == null)
+            return NONE;
+        if (failure instanceof AccountException e)
+            return e.getErrorCode().name();
+        return INTERNAL_SERVER_ERROR.name();
+    }
+}
@@ -0,0 +1,97 @@
+package com.ian.account.service;
+
+import com.ian.account.exception.AccountException;
+import com.ian.account.repository.AccountRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RAtomicLong;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.ian.account.type.ErrorCode.ACCOUNT_NUMBER_EXHAUSTED;
+
+/**
+ * 계좌 번호 발급기 (hi-lo 블록 할당)
+ * Redis 카운터(INCRBY)로 계좌 번호를 blockSize 개씩 예약하고, 예약한 블록 안에서는 메모리에서 하나씩 발급한다.
+ * 서버마다 서로 겹치지 않는 블록을 받으므로 동시에 계좌를 생성해도 계좌 번호가 충돌하지 않는다.
+ * 처음 블록을 예약할 때 DB 의 가장 큰 계좌 번호를 조회해, 카운터가 그보다 작으면 맞춰준다.
+ * 예약한 블록이 이미 발급된 것으로 아는 번호 이하이면 카운터가 초기화된 것(Redis 초기화, 장애 조치)이므로 다시 맞추고 예약한다.
+ * 계좌 번호는 long 으로 계산하므로 Integer 범위(2147483647)를 넘어 10자리 끝(9999999999)까지 발급 가능
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AccountNumberAllocator {
+    private static final long FIRST_ACCOUNT_NUMBER = 1_000_000_000L;
+    private static final long LAST_ACCOUNT_NUMBER = 9_999_999_999L;
+    private static final String COUNTER_KEY = "ACNO:LAST";
+
+    private final RedissonClient redissonClient;
+    private final AccountRepository accountRepository;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // 한 번에 예약할 계좌 번호 수
+    @Value("${account.number.block-size:100}")
+    private int blockSize = 100;
+
+    private long nextNumber; // 다음에 발급할 계좌 번호
+    private long lastNumber = -1L; // 예약한 블록의 마지막 계좌 번호
+    private boolean seeded; // DB 의 마지막 계좌 번호로 카운터를 맞췄는지 여부
+    private long issuedNumber = FIRST_ACCOUNT_NUMBER - 1; // 이미 발급된 것으로 아는 가장 큰 계좌 번호 (DB, 예약한 블록)
+
+
+    public String nextAccountNumber() {
+        lock.lock();
+        try {
+            if (nextNumber > lastNumber)
+                reserveBlock();
+
+            return String.valueOf(nextNumber++);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    // 새 블록 예약: 카운터는 지금까지 예약된 마지막 계좌 번호
+    private void reserveBlock() {
+        RAtomicLong counter = redissonClient.getAtomicLong(COUNTER_KEY);
+        if (!seeded) {
+            seedCounter(counter);
+            seeded = true;
+        }
+
+        long blockLast = counter.addAndGet(blockSize);
+        // 카운터가 초기화되어 이미 발급된 번호를 다시 예약한 경우: 카운터를 다시 맞추고 재예약 (예약한 블록은 버림)
+        while (blockLast - blockSize + 1 <= issuedNumber) {
+            log.warn("Account number counter reset (reserved up to {}, issued up to {}), reseeding",
+                    blockLast, issuedNumber);
+            seedCounter(counter);
+            blockLast = counter.addAndGet(blockSize);
+        }
+
+        long blockFirst = blockLast - blockSize + 1;
+        if (blockFirst > LAST_ACCOUNT_NUMBER)
+            throw new AccountException(ACCOUNT_NUMBER_EXHAUSTED);
+
+        nextNumber = blockFirst;
+        lastNumber = Math.min(blockLast, LAST_ACCOUNT_NUMBER);
+        issuedNumber = blockLast;
+        log.debug("Reserved account number block: {} ~ {}", nextNumber, lastNumber);
+    }
+
+    // 카운터가 비어 있거나(Redis 초기화) DB 의 마지막 계좌 번호보다 작으면 맞춰준다
+    private void seedCounter(RAtomicLong counter) {
+        issuedNumber = Math.max(issuedNumber, accountRepository.findFirstByOrderByAccountNumberDesc()
+                .map(account -> Long.parseLong(account.getAccountNumber()))
+                .orElse(FIRST_ACCOUNT_NUMBER - 1));
+
+        long floor = issuedNumber;
+        long current = counter.get();
+        while (current < floor && !counter.compareAndSet(current, floor))
+            current = counter.get();
+    }
+}
@@ -1,10 +1,13 @@
 package com.ian.account.service;
 
+import com.ian.account.aop.OptimisticRetry;
 import com.ian.account.domain.*;
 import com.ian.account.dto.AccountDTO;
 import com.ian.account.exception.AccountException;
 import com.ian.account.repository.*;
+import com.ian.account.type.TransactionMode;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,23 +23,35 @@ import static com.ian.account.type.ErrorCode.*;
 public class AccountService {
     private final AccountRepository accountRepository;
     private final AccountUserRepository accountUserRepository;
+    private final AccountNumberAllocator accountNumberAllocator;
+    private final AccountCache accountCache;
+    private final LedgerJournal ledgerJournal;
+
+    @Value("${account.transaction.mode:LOCKED}")
+    private TransactionMode transactionMode = TransactionMode.LOCKED;
 
 
     /**
      * 실패 케이스
      * 사용자가 없는 경우
      */
-    // 계좌 확인
-    @Transactional
+    // 계좌 확인 (캐시에 있으면 DB 커넥션 없이 반환)
+    // 무효화 직후 다시 읽은 목록이 캐시(Redis 포함)에 저장되므로, 복제 지연이 있는 복제본이 아닌 원본에서 읽는다.
+    // JOURNAL 거래 방식은 계좌 테이블의 잔액이 체크포인트에서만 바뀌므로(캐시 무효화로는 최신 잔액을 읽을 수 없음)
+    // 캐시 이후에 원장의 메모리 잔액으로 바꾼다. (원장을 기록하는 서버에서만 최신, 다른 서버는 마지막 스냅샷 기준)
     public List<AccountDTO> getAccountsByUserId(Long userId) {
-        // 사용자가 없는 경우 예외 발생
-        AccountUser accountUser = getAccountUser(userId);
+        List<AccountDTO> accounts = accountCache.get(userId, this::loadAccounts);
+        return transactionMode == TransactionMode.JOURNAL ? ledgerJournal.applyJournalBalances(accounts) : accounts;
+    }
+
+    private List<AccountDTO> loadAccounts(Long userId) {
+        List<AccountDTO> accounts = accountRepository.findDTOsByAccountUserId(userId);
 
-        List<Account> accounts = accountRepository.findByAccountUser(accountUser);
+        // 계좌가 없을 때만 사용자 확인 (사용자가 없는 경우 예외 발생)
+        if (accounts.isEmpty() && !accountUserRepository.existsById(userId))
+            throw new AccountException(USER_NOT_FOUND);
 
-        return accounts.stream()
-                .map(AccountDTO::fromEntity)
-                .toList();
+        return accounts;
     }
 
 
@@ -53,12 +68,11 @@ public class AccountService {
         // 2. 보유 계좌가 10개 이상인 경우 예외 발생
         validateCreateAccount(accountUser);
 
-        // 2. 계좌 번호 생성
-        String newAccountNumber = accountRepository.findFirstByOrderByIdDesc()
-                .map(account -> (Integer.parseInt(account.getAccountNumber())) + 1 + "")
-                .orElse("1000000000");
+        // 2. 계좌 번호 생성 (서버별로 예약한 블록에서 발급)
+        String newAccountNumber = accountNumberAllocator.nextAccountNumber();
 
-        // 3. 계좌 번호 저장 및 정보 반환
+        // 3. 계좌 번호 저장 및 정보 반환 (커밋되면 계좌 확인 캐시 무효화)
+        accountCache.evictAfterCommit(accountUser.getId());
         return AccountDTO.fromEntity(accountRepository.save(
                         Account.builder()
                                 .accountUser(accountUser)
@@ -86,7 +100,8 @@ public class AccountService {
      * 3. 계좌가 이미 해지 상태인 경우
      * 4. 잔액이 있는 경우
      */
-    // 계좌 해지
+    // 계좌 해지 (락 없이 처리되는 거래 방식에서 잔액 변경과 겹쳐 버전 충돌이 나면, 잔액을 다시 확인하도록 재시도)
+    @OptimisticRetry
     @Transactional
     public AccountDTO deleteAccount(Long userId, String accountNumber) {
         // 1-1. 사용자가 없는 경우 예외 발생
@@ -99,6 +114,7 @@ public class AccountService {
 
         account.setAccountStatus(CLOSED);
         account.setAccountCancelledAt(LocalDateTime.now());
+        accountCache.evictAfterCommit(accountUser.getId());
 
         return AccountDTO.fromEntity(account);
     }
@@ -0,0 +1,52 @@
+package com.ian.account.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Caffeine 캐시 조회 (가상 스레드 고정 방지)
+ * Cache.get(key, loader) 는 ConcurrentHashMap.compute 의 synchronized 안에서 loader(DB / Redis 조회)를 실행하므로,
+ * 가상 스레드가 조회를 마칠 때까지 캐리어 스레드를 점유한다. (JDK 21)
+ * AsyncCache 에는 완료되지 않은 future 만 넣고, loader 는 호출한 스레드가 synchronized 밖에서 실행한다.
+ * 같은 키를 동시에 조회하면 먼저 넣은 future 를 함께 기다린다. (DB 조회는 한 번)
+ * loader 의 예외는 그대로 전달하며, 실패한 future 는 캐시에서 제거된다.
+ * 조회 중에 무효화되면 future 가 캐시에서 제거되므로, 무효화 이전에 읽은 값은 캐시에 남지 않는다.
+ * 같은 이유로 Redis 호출이나 디스크 동기화를 기다리는 임계 구역은 synchronized 대신 ReentrantLock 으로 보호한다.
+ * (AccountNumberAllocator, WriteAheadLog, FailedTransactionRecorder)
+ */
+final class AsyncCacheLoading {
+    private AsyncCacheLoading() {
+    }
+
+    static <K, V> V get(AsyncCache<K, V> cache, K key, Function<K, V> loader) {
+        CompletableFuture<V> loading = new CompletableFuture<>();
+        CompletableFuture<V> cached = cache.get(key, (k, executor) -> loading);
+        if (cached != loading)
+            return join(cached);
+
+        try {
+            V value = loader.apply(key);
+            loading.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            loading.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            if (e.getCause() instanceof Error cause)
+                throw cause;
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.ian.account.service;
+
+import com.ian.account.domain.Account;
+import com.ian.account.domain.AccountUser;
+import com.ian.account.domain.Transaction;
+import com.ian.account.dto.TransactionDTO;
+import com.ian.account.exception.AccountException;
+import com.ian.account.repository.AccountRepository;
+import com.ian.account.repository.AccountUserRepository;
+import com.ian.account.repository.TransactionRepository;
+import com.ian.account.type.AccountStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.ian.account.type.ErrorCode.*;
+import static com.ian.account.type.TransactionResultType.S;
+import static com.ian.account.type.TransactionType.USE;
+
+/**
+ * 잔액 사용 묶음 처리 (COALESCED 거래 방식)
+ * 같은 계좌에 window-micros 안에 들어온 잔액 사용 요청을 하나로 모아,
+ * 계좌 락 1회 + DB 트랜잭션 1회로 요청 순서대로 검증/반영한다.
+ * 묶음을 처음 연 요청(리더)이 창이 끝날 때까지(또는 max-batch-size 가 찰 때까지) 기다린 뒤 묶음 전체를 처리하고,
+ * 나머지 요청은 각자의 결과(거래 정보 또는 AccountException)를 기다린다.
+ * 결과는 커밋된 뒤에 전달된다. 커밋에 실패하면 묶음의 모든 요청이 같은 예외로 실패한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DebitBatcher {
+    private final LockService lockService;
+    private final AccountRepository accountRepository;
+    private final AccountUserRepository accountUserRepository;
+    private final TransactionRepository transactionRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final TransactionIdGenerator transactionIdGenerator;
+    private final AccountCache accountCache;
+    private final TransactionOutbox transactionOutbox;
+
+    private final ConcurrentHashMap<String, Batch> openBatches = new ConcurrentHashMap<>();
+
+    // 요청을 모으는 시간
+    @Value("${account.transaction.coalesce.window-micros:2000}")
+    private long windowMicros = 2000L;
+
+    // 한 묶음의 최대 요청 수 (차면 창이 끝나기 전에 바로 처리)
+    @Value("${account.transaction.coalesce.max-batch-size:64}")
+    private int maxBatchSize = 64;
+
+    // 묶음 처리 시 계좌 락 대기 시간
+    @Value("${account.transaction.coalesce.lock-wait-millis:5000}")
+    private long lockWaitMillis = 5000L;
+
+
+    public TransactionDTO useBalance(Long userId, String accountNumber, Long amount) {
+        Debit debit = new Debit(userId, amount);
+        Batch batch = join(accountNumber, debit);
+
+        // 리더: 창이 끝날 때까지 기다린 뒤 묶음을 닫고 처리
+        if (batch.leader == debit) {
+            try {
+                batch.full.await(windowMicros, TimeUnit.MICROSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            process(accountNumber, close(accountNumber, batch));
+        }
+
+        try {
+            return debit.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            throw e;
+        }
+    }
+
+
+    // 열려 있는 묶음에 추가 (없으면 새 묶음을 열고, 가득 차면 닫음)
+    private Batch join(String accountNumber, Debit debit) {
+        Batch[] joined = new Batch[1];
+        openBatches.compute(accountNumber, (k, batch) -> {
+            Batch open = batch == null ? new Batch(debit) : batch;
+            open.debits.add(debit);
+            joined[0] = open;
+            if (open.debits.size() < maxBatchSize)
+                return open;
+
+            open.full.countDown();
+            return null;
+        });
+        return joined[0];
+    }
+
+    // 묶음을 닫고 요청 목록 복사 (추가와 같은 compute 안에서 복사하므로, 닫힌 뒤 추가되는 요청 없이 모두 보임)
+    private List<Debit> close(String accountNumber, Batch batch) {
+        List<List<Debit>> closed = new ArrayList<>(1);
+        openBatches.compute(accountNumber, (k, open) -> {
+            closed.add(List.copyOf(batch.debits));
+            return open == batch ? null : open;
+        });
+        return closed.get(0);
+    }
+
+    // 묶음 처리 (닫힌 묶음의 복사본)
+    private void process(String accountNumber, List<Debit> debits) {
+        try {
+            lockService.lock(accountNumber, lockWaitMillis);
+        } catch (RuntimeException e) {
+            debits.forEach(debit -> debit.result.completeExceptionally(e));
+            return;
+        }
+
+        RuntimeException failure = null;
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> apply(accountNumber, debits));
+        } catch (RuntimeException e) {
+            failure = e;
+            if (!(e instanceof AccountException))
+                log.error("Failed to use balance in batch for accountNumber: {}", accountNumber, e);
+            debits.forEach(debit -> debit.result.completeExceptionally(e));
+            return;
+        } finally {
+            lockService.unlock(accountNumber, failure);
+        }
+
+        // 커밋된 뒤에 응답
+        debits.forEach(Debit::complete);
+    }
+
+    // 요청 순서대로 검증하고 남은 잔액에 반영 (유효성 검사 순서는 TransactionService.useBalance 와 같다)
+    private void apply(String accountNumber, List<Debit> debits) {
+        Map<Long, Optional<AccountUser>> accountUsers = new HashMap<>();
+        Optional<Account> foundAccount = accountRepository.findByAccountNumber(accountNumber);
+        List<Transaction> transactions = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (Debit debit : debits) {
+            try {
+                // 1-1. 사용자가 없는 경우 예외 발생
+                AccountUser accountUser = accountUsers.computeIfAbsent(debit.userId, accountUserRepository::findById)
+                        .orElseThrow(() -> new AccountException(USER_NOT_FOUND));
+                // 1-2. 계좌가 없는 경우 예외 발생
+                Account account = foundAccount.orElseThrow(() -> new AccountException(ACCOUNT_NOT_FOUND));
+                validateUseBalance(accountUser, account, debit.amount);
+
+                account.useBalance(debit.amount);
+                debit.transaction = Transaction.builder()
+                        .account(account)
+                        .amount(debit.amount)
+                        .balanceSnapshot(account.getBalance())
+                        .transactionType(USE)
+                        .transactionResultType(S)
+                        .transactionId(transactionIdGenerator.nextTransactionId())
+                        .transactedAt(now)
+                        .build();
+                transactions.add(debit.transaction);
+            } catch (AccountException e) {
+                debit.error = e;
+            }
+        }
+
+        transactionRepository.insertAll(transactions);
+        transactionOutbox.add(transactions);
+        if (!transactions.isEmpty())
+            accountCache.evictAfterCommit(foundAccount.get().getAccountUser().getId());
+    }
+
+    private static void validateUseBalance(AccountUser accountUser, Account account, Long amount) {
+        // 2. 사용자와 계좌 소유주의 정보가 일치하지 않을 경우 예외 발생
+        if (!Objects.equals(accountUser.getId(), account.getAccountUser().getId()))
+            throw new AccountException(USER_ACCOUNT_UNMATCH);
+        // 3. 계좌가 해지 상태인 경우 예외 발생
+        if (account.getAccountStatus() != AccountStatus.ACTIVE)
+            throw new AccountException(ACCOUNT_ALREADY_CLOSED);
+        // 4. 거래 금액이 잔액보다 큰 경우 예외 발생
+        if (account.getBalance() < amount)
+            throw new AccountException(BALANCE_EXCEEDED);
+    }
+
+
+    // 같은 계좌에 대한 잔액 사용 묶음
+    private static class Batch {
+        private final Debit leader; // 묶음을 연 요청 (창이 끝나면 묶음을 닫고 처리)
+        // ConcurrentHashMap.compute 안에서만 접근
+        private final List<Debit> debits = new ArrayList<>();
+        private final CountDownLatch full = new CountDownLatch(1);
+
+        private Batch(Debit leader) {
+            this.leader = leader;
+        }
+    }
+
+    // 잔액 사용 요청 한 건
+    private static class Debit {
+        private final Long userId;
+        private final Long amount;
+        private final CompletableFuture<TransactionDTO> result = new CompletableFuture<>();
+        private Transaction transaction; // 성공한 경우 거래 내역
+        private AccountException error; // 실패한 경우 예외
+
+        private Debit(Long userId, Long amount) {
+            this.userId = userId;
+            this.amount = amount;
+        }
+
+        private void complete() {
+            if (error != null)
+                result.completeExceptionally(error);
+            else
+                result.complete(TransactionDTO.fromEntity(transaction));
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.ian.account.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ian.account.dto.FailedTransaction;
+import com.ian.account.type.TransactionType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 실패 거래 내역 비동기 기록
+ * 거래에 실패한 요청은 계좌 락을 잡은 채로 DB 에 기록하지 않고, 메모리 대기열(queue-capacity)에 넣고 바로 반환한다.
+ * 백그라운드 스레드가 대기열에서 최대 batch-size 건씩 꺼내 한 번의 DB 트랜잭션으로 기록한다.
+ * 대기열이 가득 찼거나 DB 기록에 실패한 경우에는 로컬 파일(spill-file)에 한 줄씩(JSON) 추가하고 디스크에 동기화하며,
+ * 대기열이 비어 있을 때 파일의 내역을 다시 기록한다. (기록 도중 서버가 중단되면 일부가 중복 기록될 수 있다)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FailedTransactionRecorder {
+    private final TransactionService transactionService;
+    private final ObjectMapper objectMapper;
+
+    private final ReentrantLock spillLock = new ReentrantLock();
+    private BlockingQueue<FailedTransaction> queue;
+    private Thread writer;
+    private volatile boolean running;
+
+    // 메모리 대기열 최대 길이 (넘으면 파일에 기록)
+    @Value("${account.failure-record.queue-capacity:10000}")
+    private int queueCapacity = 10000;
+
+    // 한 번에 기록하는 최대 건수
+    @Value("${account.failure-record.batch-size:256}")
+    private int batchSize = 256;
+
+    // 대기열이 비어 있을 때 기다리는 시간 (이 간격으로 파일의 내역을 확인)
+    @Value("${account.failure-record.poll-millis:1000}")
+    private long pollMillis = 1000L;
+
+    @Value("${account.failure-record.spill-file:failed-transactions.spill}")
+    private String spillFile = "failed-transactions.spill";
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        writer = Thread.ofPlatform().name("failed-transaction-writer").daemon(true).start(this::run);
+    }
+
+    // 남은 대기열은 기록을 마칠 때까지 기다리고, 시간 안에 끝나지 않으면 파일에 기록
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+
+        List<FailedTransaction> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty())
+            spill(remaining);
+    }
+
+
+    // 실패 거래 기록 요청 (DB 에 접근하지 않고 바로 반환)
+    public void record(TransactionType transactionType, String accountNumber, Long amount) {
+        FailedTransaction failedTransaction = FailedTransaction.builder()
+                .transactionType(transactionType)
+                .accountNumber(accountNumber)
+                .amount(amount)
+                .failedAt(LocalDateTime.now())
+                .build();
+
+        if (!queue.offer(failedTransaction)) {
+            log.warn("Failed transaction queue is full, spill to file: {}", spillFile);
+            spill(List.of(failedTransaction));
+        }
+    }
+
+
+    private void run() {
+        List<FailedTransaction> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                FailedTransaction first = queue.poll(pollMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    replaySpill();
+                    continue;
+                }
+
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Failed transaction writer error", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // DB 에 기록 (실패하면 파일에 기록하여 나중에 다시 시도)
+    private boolean write(List<FailedTransaction> batch) {
+        try {
+            transactionService.saveFailedTransactions(batch);
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Failed to save {} failed transactions, spill to file: {}", batch.size(), spillFile, e);
+            spill(batch);
+            return false;
+        }
+    }
+
+    // 파일 끝에 추가하고 디스크에 동기화
+    private void spill(List<FailedTransaction> failedTransactions) {
+        StringBuilder lines = new StringBuilder();
+        for (FailedTransaction failedTransaction : failedTransactions) {
+            try {
+                lines.append(objectMapper.writeValueAsString(failedTransaction)).append('\n');
+            } catch (JsonProcessingException e) {
+                log.error("Failed to serialize failed transaction for accountNumber: {}",
+                        failedTransaction.getAccountNumber(), e);
+            }
+        }
+
+        spillLock.lock();
+        try (FileChannel channel = FileChannel.open(getSpillPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+            channel.force(false);
+        } catch (IOException e) {
+            log.error("Failed to spill {} failed transactions: {}", failedTransactions.size(), lines, e);
+        } finally {
+            spillLock.unlock();
+        }
+    }
+
+    // 파일의 내역을 다시 기록 (새로 추가되는 내역과 섞이지 않도록 파일을 옮긴 뒤 읽음)
+    private void replaySpill() {
+        Path spillPath = getSpillPath();
+        Path replayPath = spillPath.resolveSibling(spillPath.getFileName() + ".replay");
+        try {
+            spillLock.lock();
+            try {
+                // 이전에 다시 기록하던 파일이 남아 있으면 그 파일부터 기록
+                if (!Files.exists(replayPath)) {
+                    if (!Files.exists(spillPath))
+                        return;
+                    Files.move(spillPath, replayPath, StandardCopyOption.ATOMIC_MOVE);
+                }
+            } finally {
+                spillLock.unlock();
+            }
+
+            List<FailedTransaction> failedTransactions = new ArrayList<>();
+            for (String line : Files.readAllLines(replayPath, StandardCharsets.UTF_8)) {
+                if (line.isBlank())
+                    continue;
+                try {
+                    failedTransactions.add(objectMapper.readValue(line, FailedTransaction.class));
+                } catch (JsonProcessingException e) {
+                    log.error("Skip malformed failed transaction: {}", line, e);
+                }
+            }
+
+            // 실패한 묶음부터 남은 내역은 다시 파일에 기록
+            for (int from = 0; from < failedTransactions.size(); from += batchSize) {
+                List<FailedTransaction> batch = failedTransactions.subList(
+                        from, Math.min(from + batchSize, failedTransactions.size()));
+                if (!write(batch)) {
+                    int next = from + batch.size();
+                    if (next < failedTransactions.size())
+                        spill(failedTransactions.subList(next, failedTransactions.size()));
+                    break;
+                }
+            }
+            Files.delete(replayPath);
+        } catch (IOException e) {
+            log.error("Failed to replay failed transactions: {}", replayPath, e);
+        }
+    }
+
+    private Path getSpillPath() {
+        return Paths.get(spillFile);
+    }
+}
@@ -0,0 +1,53 @@
+package com.ian.account.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ian.account.dto.BalanceChangeEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// 로컬 파일 알림 전달 (한 줄에 알림 하나(JSON)를 추가하고 디스크에 동기화, 파일 경로가 비어 있으면 로그로 출력)
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "account.outbox.sink", havingValue = "file", matchIfMissing = true)
+@RequiredArgsConstructor
+public class FileOutboxSink implements OutboxSink {
+    private final ObjectMapper objectMapper;
+
+    @Value("${account.outbox.file:balance-changes.ndjson}")
+    private String file = "balance-changes.ndjson";
+
+    @Override
+    public void publish(List<BalanceChangeEvent> events) {
+        try {
+            StringBuilder lines = new StringBuilder();
+            for (BalanceChangeEvent event : events)
+                lines.append(objectMapper.writeValueAsString(event)).append('\n');
+
+            if (file.isBlank()) {
+                log.info("Balance changes:\n{}", lines);
+                return;
+            }
+            try (FileChannel channel = FileChannel.open(Paths.get(file),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining())
+                    channel.write(buffer);
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.ian.account.service;
+
+import com.ian.account.aop.AccountLock;
+import com.ian.account.dto.IdempotencyClaim;
+import com.ian.account.dto.IdempotencyRecord;
+import com.ian.account.type.LockProtocol;
+import com.ian.account.type.TransactionMode;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * 멱등성 키 AOP
+ * Idempotency-Key 헤더가 있는 요청은 처리 결과를 저장소에 기록하고,
+ * 같은 키로 다시 들어온 요청은 계좌 락과 DB 를 거치지 않고 기록된 결과로 응답한다.
+ * 계좌 락 AOP 보다 바깥에서 실행되어야 재요청이 락을 기다리지 않는다. (지표 AOP 바로 안쪽)
+ * SCRIPT 락 프로토콜에서 락이 필요한 요청은 계좌 락 AOP 가 락과 함께 멱등성 키를 처리한다. (Redis 호출 1회)
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@RequiredArgsConstructor
+public class IdempotencyAspect {
+    private final IdempotencyService idempotencyService;
+
+    @Value("${account.lock.protocol:REDISSON}")
+    private LockProtocol lockProtocol = LockProtocol.REDISSON;
+
+    @Value("${account.transaction.mode:LOCKED}")
+    private TransactionMode transactionMode = TransactionMode.LOCKED;
+
+    @Around("@annotation(com.ian.account.aop.Idempotent) && args(request)")
+    public Object around(ProceedingJoinPoint joinPoint, Object request) throws Throwable {
+        if (isClaimedWithLock(joinPoint))
+            return joinPoint.proceed();
+
+        IdempotencyClaim claim = idempotencyService.getClaim(joinPoint, request);
+        if (claim == null)
+            return joinPoint.proceed();
+
+        IdempotencyRecord record = idempotencyService.claim(claim);
+        if (record != null)
+            return idempotencyService.replay(joinPoint, claim, record);
+
+        IdempotencyRecord result = null;
+        try {
+            Object response = joinPoint.proceed();
+            result = idempotencyService.getSuccess(claim, response);
+            return response;
+        } catch (Throwable e) {
+            result = idempotencyService.getFailure(claim, e);
+            throw e;
+        } finally {
+            idempotencyService.record(claim, result);
+        }
+    }
+
+
+    // 계좌 락 AOP 가 락과 함께 멱등성 키를 처리하는 경우
+    private boolean isClaimedWithLock(ProceedingJoinPoint joinPoint) {
+        if (lockProtocol != LockProtocol.SCRIPT)
+            return false;
+
+        AccountLock accountLock = ((MethodSignature) joinPoint.getSignature()).getMethod()
+                .getAnnotation(AccountLock.class);
+        return accountLock != null && transactionMode.requiresLock(accountLock.transactionType());
+    }
+}
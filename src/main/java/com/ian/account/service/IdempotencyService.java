@@ -0,0 +1,134 @@
+package com.ian.account.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ian.account.dto.IdempotencyClaim;
+import com.ian.account.dto.IdempotencyRecord;
+import com.ian.account.exception.AccountException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.Objects;
+
+import static com.ian.account.type.ErrorCode.*;
+
+/**
+ * 멱등성 키 처리
+ * 1. 선점 정보 생성: Idempotency-Key 헤더와 요청 본문 해시
+ * 2. 처리 결과 기록: 성공 응답(JSON) 또는 실패 에러 코드
+ * (락 취득 실패와 예상하지 못한 오류는 기록하지 않으므로 같은 키로 다시 처리할 수 있다)
+ * 처리 중 기록은 락 대기 + 락 임대 시간보다 조금 길게(claim-ttl-seconds)만 보관하고, 처리 결과를 기록할 때 ttl-seconds 로 연장한다.
+ * 결과 기록에 실패해도 이미 처리된 요청의 응답은 그대로 반환한다. (처리 중 기록이 만료되면 같은 키로 다시 처리 가능)
+ * 3. 기록된 결과로 응답
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IdempotencyService {
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectMapper objectMapper;
+
+    // 처리 결과 보관 기간
+    @Value("${account.idempotency.ttl-seconds:86400}")
+    private long ttlSeconds = 86400L;
+
+    // 처리 중 기록 보관 기간
+    // 선점 후 락 대기(최대 5초)와 락 보유(임대 15초로 제한)가 끝나기 전에 만료되면 같은 키의 재시도가 중복 처리되므로 여유를 두어 60초
+    @Value("${account.idempotency.claim-ttl-seconds:60}")
+    private long claimTtlSeconds = 60L;
+
+    // Idempotency-Key 헤더가 없으면 null
+    public IdempotencyClaim getClaim(ProceedingJoinPoint joinPoint, Object request)
+            throws JsonProcessingException {
+        String idempotencyKey = getIdempotencyKey();
+        if (idempotencyKey == null)
+            return null;
+
+        // 같은 키라도 API 가 다르면 다른 요청
+        return new IdempotencyClaim(
+                joinPoint.getSignature().getName() + ":" + idempotencyKey,
+                DigestUtils.md5DigestAsHex(objectMapper.writeValueAsBytes(request)),
+                Duration.ofSeconds(claimTtlSeconds),
+                Duration.ofSeconds(ttlSeconds)
+        );
+    }
+
+
+    // 멱등성 키 선점 (선점에 성공하면 null, 이미 기록이 있으면 그 기록을 반환)
+    public IdempotencyRecord claim(IdempotencyClaim claim) {
+        return idempotencyStore.claim(claim.getKey(), claim.getFingerprint(), claim.getClaimTtl());
+    }
+
+
+    // 처리 결과 기록 (result 가 null 이면 선점 해제)
+    // 저장소 오류는 기록만 하고 전달하지 않는다 (처리 결과 대신 저장소 오류로 응답하지 않도록)
+    public void record(IdempotencyClaim claim, IdempotencyRecord result) {
+        try {
+            if (result == null)
+                idempotencyStore.release(claim.getKey());
+            else
+                idempotencyStore.complete(claim.getKey(), result, claim.getTtl());
+        } catch (RuntimeException e) {
+            log.error("Failed to record idempotency result for {}", claim.getKey(), e);
+        }
+    }
+
+
+    // 성공 응답 기록
+    public IdempotencyRecord getSuccess(IdempotencyClaim claim, Object response) throws JsonProcessingException {
+        if (claim == null)
+            return null;
+        return IdempotencyRecord.success(claim.getFingerprint(), objectMapper.writeValueAsString(response));
+    }
+
+
+    // 실패 기록 (다시 처리할 수 있어야 하는 실패는 null)
+    public IdempotencyRecord getFailure(IdempotencyClaim claim, Throwable throwable) {
+        if (claim == null || !(throwable instanceof AccountException e)
+                || e.getErrorCode() == ACCOUNT_TRANSACTION_LOCK)
+            return null;
+        return IdempotencyRecord.failure(claim.getFingerprint(), e.getErrorCode());
+    }
+
+
+    // 기록된 결과로 응답
+    public Object replay(ProceedingJoinPoint joinPoint, IdempotencyClaim claim, IdempotencyRecord record)
+            throws JsonProcessingException {
+        if (!Objects.equals(record.getFingerprint(), claim.getFingerprint()))
+            throw new AccountException(IDEMPOTENCY_KEY_REUSED);
+        if (!record.isCompleted())
+            throw new AccountException(IDEMPOTENCY_KEY_IN_PROGRESS);
+
+        log.debug("Replay idempotent response for {}", claim.getKey());
+        if (record.getErrorCode() != null)
+            throw new AccountException(record.getErrorCode());
+
+        Class<?> returnType = ((MethodSignature) joinPoint.getSignature()).getReturnType();
+        return objectMapper.readValue(record.getResponse(), returnType);
+    }
+
+
+    private static String getIdempotencyKey() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes))
+            return null;
+
+        String idempotencyKey = attributes.getRequest().getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (!StringUtils.hasText(idempotencyKey))
+            return null;
+        if (idempotencyKey.length() > MAX_KEY_LENGTH)
+            throw new AccountException(INVALID_REQUEST);
+        return idempotencyKey;
+    }
+}
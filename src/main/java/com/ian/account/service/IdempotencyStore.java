@@ -0,0 +1,20 @@
+package com.ian.account.service;
+
+import com.ian.account.dto.IdempotencyRecord;
+
+import java.time.Duration;
+
+/**
+ * 멱등성 키 저장소
+ * account.idempotency.store 설정으로 구현체 선택 (redis: 서버 간 공유 / local: 서버 메모리)
+ */
+public interface IdempotencyStore {
+    // 키 선점 (처리 중으로 기록). 선점에 성공하면 null, 이미 기록이 있으면 그 기록을 반환
+    IdempotencyRecord claim(String key, String fingerprint, Duration ttl);
+
+    // 처리 결과 기록
+    void complete(String key, IdempotencyRecord record, Duration ttl);
+
+    // 선점 해제 (결과를 기록하지 않고 같은 키로 다시 처리할 수 있게 함)
+    void release(String key);
+}
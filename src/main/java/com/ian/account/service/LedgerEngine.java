@@ -0,0 +1,378 @@
+package com.ian.account.service;
+
+import com.ian.account.domain.Account;
+import com.ian.account.domain.Transaction;
+import com.ian.account.dto.TransactionDTO;
+import com.ian.account.exception.AccountException;
+import com.ian.account.repository.AccountRepository;
+import com.ian.account.repository.AccountUserRepository;
+import com.ian.account.repository.TransactionRepository;
+import com.ian.account.type.AccountStatus;
+import com.ian.account.type.TransactionType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.ian.account.type.ErrorCode.*;
+import static com.ian.account.type.TransactionResultType.S;
+import static com.ian.account.type.TransactionType.CANCEL;
+import static com.ian.account.type.TransactionType.USE;
+
+/**
+ * 계좌별 단일 소유자 원장 (SINGLE_WRITER 거래 방식)
+ * 같은 계좌의 잔액 사용/사용 취소는 모두 그 계좌의 소유자(메일박스)로 보내지고,
+ * 소유자는 메모리에 올린 잔액으로 요청을 순서대로 검증/반영한 뒤 묶음(최대 max-batch-size) 단위로
+ * 계좌 잔액 UPDATE 1회 + 거래 내역 INSERT 를 하나의 DB 트랜잭션으로 커밋한다. (락 없음)
+ * 요청자에게는 묶음이 커밋된 뒤에 응답하므로, 서버가 중단되어도 응답한 거래는 사라지지 않는다.
+ * 소유자는 요청이 오면 활성화되고, idle-evict-millis 동안 요청이 없으면 제거된다.
+ * 다른 곳(이체, 다른 서버, 계좌 해지)에서 계좌가 변경된 경우 버전 확인 UPDATE 가 실패하므로,
+ * 계좌를 다시 읽어 묶음을 다시 검증/반영한다. (max-conflict-retries 회를 넘기면 ACCOUNT_TRANSACTION_LOCK)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LedgerEngine {
+    private final AccountRepository accountRepository;
+    private final AccountUserRepository accountUserRepository;
+    private final TransactionRepository transactionRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final TransactionIdGenerator transactionIdGenerator;
+    private final AccountCache accountCache;
+    private final TransactionOutbox transactionOutbox;
+
+    private final ConcurrentHashMap<String, AccountOwner> owners = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+    private ScheduledExecutorService evictor;
+
+    // 소유자를 실행하는 스레드 수 (동시에 커밋하는 계좌 수의 상한)
+    @Value("${account.ledger.threads:8}")
+    private int threads = 8;
+
+    // 한 번에 커밋하는 최대 요청 수
+    @Value("${account.ledger.max-batch-size:256}")
+    private int maxBatchSize = 256;
+
+    // 요청이 없는 소유자를 제거하기까지의 시간
+    @Value("${account.ledger.idle-evict-millis:60000}")
+    private long idleEvictMillis = 60000L;
+
+    @Value("${account.ledger.max-conflict-retries:3}")
+    private int maxConflictRetries = 3;
+
+    @PostConstruct
+    public void start() {
+        executor = Executors.newFixedThreadPool(threads,
+                Thread.ofPlatform().name("ledger-", 0).daemon(true).factory());
+        evictor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("ledger-evictor").daemon(true).factory());
+        evictor.scheduleWithFixedDelay(this::evictIdleOwners,
+                idleEvictMillis, Math.max(1L, idleEvictMillis / 2), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        evictor.shutdownNow();
+        // 이미 받은 요청은 커밋까지 처리
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+
+    // 잔액 사용 (유효성 검사 순서는 TransactionService.useBalance 와 같다)
+    public TransactionDTO useBalance(Long userId, String accountNumber, Long amount) {
+        // 1-1. 사용자가 없는 경우 예외 발생
+        if (!accountUserRepository.existsById(userId))
+            throw new AccountException(USER_NOT_FOUND);
+
+        return submit(accountNumber, new Command(USE, amount, userId, null));
+    }
+
+    // 잔액 사용 취소 (유효성 검사 순서는 TransactionService.cancelBalance 와 같다)
+    public TransactionDTO cancelBalance(String transactionId, String accountNumber, Long amount) {
+        // 1. 거래 아이디에 해당하는 거래가 없는 경우 예외 발생
+        Transaction transaction = transactionRepository.findByTransactionId(transactionId)
+                .orElseThrow(() -> new AccountException(TRANSACTION_NOT_FOUND));
+
+        return submit(accountNumber, new Command(CANCEL, amount, null, transaction));
+    }
+
+
+    // 현재 활성화된 소유자 수
+    int size() {
+        return owners.size();
+    }
+
+    // 요청이 없는 소유자 제거 (처리 중이거나 메일박스가 비어 있지 않으면 유지)
+    void evictIdleOwners() {
+        long idleSince = System.currentTimeMillis() - idleEvictMillis;
+        owners.forEach((accountNumber, owner) ->
+                owners.computeIfPresent(accountNumber, (k, o) -> o.isIdle(idleSince) ? null : o));
+    }
+
+
+    private TransactionDTO submit(String accountNumber, Command command) {
+        // 메일박스 추가와 소유자 제거가 겹치지 않도록 compute 안에서 추가
+        AccountOwner owner = owners.compute(accountNumber, (k, o) -> {
+            AccountOwner active = o == null ? new AccountOwner(accountNumber) : o;
+            active.mailbox.add(command);
+            active.lastActiveAt = System.currentTimeMillis();
+            return active;
+        });
+        schedule(owner);
+
+        try {
+            return command.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            throw e;
+        }
+    }
+
+    private void schedule(AccountOwner owner) {
+        if (owner.scheduled.compareAndSet(false, true))
+            executor.execute(() -> run(owner));
+    }
+
+    // 소유자 실행: 한 번에 한 스레드만 실행 (scheduled), 한 묶음을 처리한 뒤 남은 요청이 있으면 다시 예약
+    private void run(AccountOwner owner) {
+        try {
+            List<Command> batch = new ArrayList<>();
+            Command command;
+            while (batch.size() < maxBatchSize && (command = owner.mailbox.poll()) != null)
+                batch.add(command);
+
+            if (!batch.isEmpty())
+                process(owner, batch);
+        } finally {
+            owner.scheduled.set(false);
+            if (!owner.mailbox.isEmpty())
+                schedule(owner);
+        }
+    }
+
+    private void process(AccountOwner owner, List<Command> batch) {
+        boolean isLoaded = false;
+        int conflicts = 0;
+        while (true) {
+            try {
+                if (owner.account == null) {
+                    owner.account = load(owner.accountNumber);
+                    isLoaded = true;
+                }
+
+                Batch applied = apply(owner.account, batch);
+                // 실패한 요청이 있으면, 메모리의 계좌 상태가 오래된 것일 수 있으므로 다시 읽어서 확인
+                if (!applied.failures.isEmpty() && !isLoaded) {
+                    owner.account = null;
+                    continue;
+                }
+                if (!applied.transactions.isEmpty()) {
+                    commit(owner.account, applied);
+                    owner.account.balance = applied.balance;
+                    owner.account.version++;
+                }
+
+                // 커밋된 뒤에 응답
+                applied.complete(owner.accountNumber);
+                return;
+            } catch (OptimisticLockingFailureException e) {
+                // 다른 곳에서 계좌가 변경됨 -> 다시 읽고 재시도
+                owner.account = null;
+                if (++conflicts >= maxConflictRetries) {
+                    log.error("Ledger conflict for accountNumber: {}, give up after {} attempts",
+                            owner.accountNumber, conflicts);
+                    batch.forEach(c -> c.result.completeExceptionally(new AccountException(ACCOUNT_TRANSACTION_LOCK)));
+                    return;
+                }
+            } catch (RuntimeException e) {
+                owner.account = null;
+                if (!(e instanceof AccountException))
+                    log.error("Ledger error for accountNumber: {}", owner.accountNumber, e);
+                batch.forEach(c -> c.result.completeExceptionally(e));
+                return;
+            }
+        }
+    }
+
+    private AccountState load(String accountNumber) {
+        Account account = new TransactionTemplate(transactionManager).execute(status ->
+                accountRepository.findByAccountNumber(accountNumber)
+                        .orElseThrow(() -> new AccountException(ACCOUNT_NOT_FOUND)));
+        return new AccountState(account);
+    }
+
+    // 메모리의 잔액으로 요청을 순서대로 검증/반영
+    private Batch apply(AccountState account, List<Command> batch) {
+        Batch applied = new Batch(account.balance);
+        LocalDateTime now = LocalDateTime.now();
+
+        for (Command command : batch) {
+            try {
+                if (command.transactionType == USE)
+                    validateUseBalance(account, applied.balance, command);
+                else
+                    validateCancelBalance(account, command, now);
+            } catch (AccountException e) {
+                applied.failures.add(command);
+                applied.errors.add(e);
+                continue;
+            }
+
+            applied.balance += command.transactionType == USE ? -command.amount : command.amount;
+            applied.commands.add(command);
+            applied.transactions.add(Transaction.builder()
+                    .amount(command.amount)
+                    .balanceSnapshot(applied.balance)
+                    .transactionType(command.transactionType)
+                    .transactionResultType(S)
+                    .transactionId(transactionIdGenerator.nextTransactionId())
+                    .transactedAt(now)
+                    .build());
+        }
+        return applied;
+    }
+
+    private static void validateUseBalance(AccountState account, long balance, Command command) {
+        // 2. 사용자와 계좌 소유주의 정보가 일치하지 않을 경우 예외 발생
+        if (!Objects.equals(command.userId, account.userId))
+            throw new AccountException(USER_ACCOUNT_UNMATCH);
+        // 3. 계좌가 해지 상태인 경우 예외 발생
+        if (account.accountStatus != AccountStatus.ACTIVE)
+            throw new AccountException(ACCOUNT_ALREADY_CLOSED);
+        // 4. 거래 금액이 잔액보다 큰 경우 예외 발생
+        if (balance < command.amount)
+            throw new AccountException(BALANCE_EXCEEDED);
+    }
+
+    private static void validateCancelBalance(AccountState account, Command command, LocalDateTime now) {
+        Transaction transaction = command.transaction;
+        // 3. 거래와 계좌가 일치하지 않는 경우
+        if (!Objects.equals(transaction.getAccount().getAccountNumber(), account.accountNumber))
+            throw new AccountException(TRANSACTION_ACCOUNT_UNMATCH);
+        // 4. 거래 금액과 거래 취소 금액이 다른 경우
+        if (!Objects.equals(transaction.getAmount(), command.amount))
+            throw new AccountException(AMOUNT_MISMATCH);
+        // 5. 거래 기간이 1년을 넘은 경우
+        if (transaction.getTransactedAt().isBefore(now.minusYears(1)))
+            throw new AccountException(TRANSACTION_CANCELLATION_EXPIRED);
+        // 6. 성공한 잔액 사용 거래가 아닌 경우 (계좌 이체, 사용 취소, 실패한 거래는 취소할 수 없음)
+        if (transaction.getTransactionType() != USE || transaction.getTransactionResultType() != S)
+            throw new AccountException(TRANSACTION_NOT_CANCELLABLE);
+    }
+
+    // 계좌 잔액 UPDATE 1회 + 거래 내역 INSERT 를 하나의 트랜잭션으로 커밋
+    private void commit(AccountState account, Batch applied) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            int updatedCount = accountRepository.updateBalanceIfVersion(
+                    account.id, applied.balance, account.version, LocalDateTime.now());
+            if (updatedCount == 0)
+                throw new OptimisticLockingFailureException(
+                        "Account is modified outside ledger: " + account.accountNumber);
+
+            Account reference = accountRepository.getReferenceById(account.id);
+            applied.transactions.forEach(transaction -> transaction.setAccount(reference));
+            transactionRepository.insertAll(applied.transactions);
+            transactionOutbox.add(applied.transactions);
+            accountCache.evictAfterCommit(account.userId);
+        });
+    }
+
+
+    // 요청 한 건
+    private static class Command {
+        private final TransactionType transactionType;
+        private final Long amount;
+        private final Long userId; // 잔액 사용: 사용자 아이디
+        private final Transaction transaction; // 잔액 사용 취소: 취소할 거래
+        private final CompletableFuture<TransactionDTO> result = new CompletableFuture<>();
+
+        private Command(TransactionType transactionType, Long amount, Long userId, Transaction transaction) {
+            this.transactionType = transactionType;
+            this.amount = amount;
+            this.userId = userId;
+            this.transaction = transaction;
+        }
+    }
+
+    // 계좌 소유자 (메일박스 + 메모리에 올린 계좌 상태)
+    private static class AccountOwner {
+        private final String accountNumber;
+        private final ConcurrentLinkedQueue<Command> mailbox = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile long lastActiveAt = System.currentTimeMillis();
+        // 소유자 실행 스레드에서만 접근 (null 이면 다음 실행 때 DB 에서 읽음)
+        private AccountState account;
+
+        private AccountOwner(String accountNumber) {
+            this.accountNumber = accountNumber;
+        }
+
+        private boolean isIdle(long idleSince) {
+            return !scheduled.get() && mailbox.isEmpty() && lastActiveAt < idleSince;
+        }
+    }
+
+    // 메모리에 올린 계좌 상태
+    private static class AccountState {
+        private final Long id;
+        private final String accountNumber;
+        private final Long userId;
+        private final AccountStatus accountStatus;
+        private long balance;
+        private long version;
+
+        private AccountState(Account account) {
+            this.id = account.getId();
+            this.accountNumber = account.getAccountNumber();
+            this.userId = account.getAccountUser().getId();
+            this.accountStatus = account.getAccountStatus();
+            this.balance = account.getBalance();
+            this.version = account.getVersion() == null ? 0L : account.getVersion();
+        }
+    }
+
+    // 한 묶음의 처리 결과
+    private static class Batch {
+        private long balance;
+        private final List<Command> commands = new ArrayList<>();
+        private final List<Transaction> transactions = new ArrayList<>();
+        private final List<Command> failures = new ArrayList<>();
+        private final List<AccountException> errors = new ArrayList<>();
+
+        private Batch(long balance) {
+            this.balance = balance;
+        }
+
+        // 거래 내역의 계좌는 트랜잭션 밖에서 초기화할 수 없는 참조이므로 계좌 번호를 따로 받는다
+        private void complete(String accountNumber) {
+            for (int i = 0; i < commands.size(); i++) {
+                Transaction transaction = transactions.get(i);
+                commands.get(i).result.complete(TransactionDTO.builder()
+                        .accountNumber(accountNumber)
+                        .transactionType(transaction.getTransactionType())
+                        .transactionResultType(transaction.getTransactionResultType())
+                        .amount(transaction.getAmount())
+                        .balanceSnapshot(transaction.getBalanceSnapshot())
+                        .transactionId(transaction.getTransactionId())
+                        .transactedAt(transaction.getTransactedAt())
+                        .build());
+            }
+            for (int i = 0; i < failures.size(); i++)
+                failures.get(i).result.completeExceptionally(errors.get(i));
+        }
+    }
+}
@@ -0,0 +1,803 @@
+package com.ian.account.service;
+
+import com.ian.account.domain.Account;
+import com.ian.account.domain.LedgerCheckpoint;
+import com.ian.account.domain.LedgerEvent;
+import com.ian.account.domain.Transaction;
+import com.ian.account.dto.AccountDTO;
+import com.ian.account.dto.TransactionDTO;
+import com.ian.account.exception.AccountException;
+import com.ian.account.repository.AccountRepository;
+import com.ian.account.repository.AccountUserRepository;
+import com.ian.account.repository.LedgerCheckpointRepository;
+import com.ian.account.repository.LedgerEventRepository;
+import com.ian.account.repository.TransactionRepository;
+import com.ian.account.type.AccountStatus;
+import com.ian.account.type.JournalDurability;
+import com.ian.account.type.TransactionMode;
+import com.ian.account.type.TransactionType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static com.ian.account.type.ErrorCode.*;
+import static com.ian.account.type.TransactionResultType.S;
+import static com.ian.account.type.TransactionType.CANCEL;
+import static com.ian.account.type.TransactionType.TRANSFER;
+import static com.ian.account.type.TransactionType.USE;
+
+/**
+ * 추가 전용 원장 기록 (JOURNAL 거래 방식)
+ * 잔액 사용/사용 취소/이체, 계좌 해지는 모두 하나의 기록 스레드로 보내지고,
+ * 기록 스레드는 메모리의 잔액으로 요청을 순서대로 검증/반영한 뒤 묶음(최대 max-batch-size) 단위로
+ * 잔액 변경 이벤트(LedgerEvent)와 거래 내역을 INSERT 만으로 커밋한다. (계좌 행 UPDATE, 락 없음)
+ * 요청자에게는 묶음이 커밋된 뒤에 응답한다.
+ * 계좌 잔액은 메모리의 상태이며, checkpoint-events 건 또는 checkpoint-interval-millis 마다
+ * 변경된 계좌의 잔액을 계좌 테이블에 저장하고 체크포인트(LedgerCheckpoint)를 남긴다. (스냅샷)
+ * 서버 시작 시 계좌 테이블의 잔액(스냅샷)을 읽고, 마지막 체크포인트 이후의 이벤트를 순서대로 다시 적용한다.
+ * 이벤트 아이디가 기록 순서이려면 기록 스레드가 하나여야 하므로, 한 서버만 원장을 기록한다고 가정한다.
+ * 계좌 테이블의 잔액은 마지막 스냅샷이므로, 계좌 확인(GET /account)은 응답한 거래의 잔액(journalBalances)으로 바꿔 반환한다.
+ * durability 가 WAL 이면 묶음의 이벤트를 로컬 WAL(WriteAheadLog)에 기록하고 디스크에 동기화(force)한 뒤에 응답하며,
+ * DB 저장(이벤트, 거래 내역 INSERT)은 저장 스레드가 최대 wal.persist-batch-size 건씩 묶어 처리한다.
+ * DB 에 저장된 기록만 담은 WAL 세그먼트는 삭제하고, 서버 시작 시에는 DB 에 저장되지 않은 WAL 기록을 먼저 저장한 뒤 복구한다.
+ * 저장 전의 거래는 거래 확인 캐시와 메모리(unpersisted)로 확인/취소할 수 있다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LedgerJournal {
+    private static final long POLL_MILLIS = 100L;
+    private static final int CHECKPOINT_CHUNK_SIZE = 1000;
+
+    private final EntityManager entityManager;
+    private final AccountRepository accountRepository;
+    private final AccountUserRepository accountUserRepository;
+    private final TransactionRepository transactionRepository;
+    private final LedgerEventRepository ledgerEventRepository;
+    private final LedgerCheckpointRepository ledgerCheckpointRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final TransactionIdGenerator transactionIdGenerator;
+    private final AccountCache accountCache;
+    private final TransactionCache transactionCache;
+    private final TransactionOutbox transactionOutbox;
+
+    private final BlockingQueue<Command> queue = new LinkedBlockingQueue<>();
+    // 아래 상태는 기록 스레드만 접근 (recover 는 기록 스레드가 실행 중이지 않을 때만 호출)
+    private final Map<String, AccountState> accounts = new HashMap<>();
+    private final Map<Long, AccountState> accountsById = new HashMap<>();
+    private final Set<AccountState> dirtyAccounts = new HashSet<>();
+    private long eventsSinceCheckpoint;
+    private long lastCheckpointAt;
+    // 커밋(WAL 동기화)된 잔액 (계좌 번호 -> 잔액), 기록 스레드가 응답 전에 갱신하고 계좌 확인이 읽는다
+    private final Map<String, Long> journalBalances = new ConcurrentHashMap<>();
+    // DB 에 저장된 마지막 이벤트 아이디 (WAL 이면 저장 스레드가 갱신)
+    private volatile long lastEventId;
+
+    // durability: WAL - 응답했지만 DB 에 저장되지 않은 기록 (거래 아이디 -> 거래)
+    private final BlockingQueue<List<WriteAheadLog.Record>> persistQueue = new LinkedBlockingQueue<>();
+    private final Map<String, TransactionDTO> unpersisted = new ConcurrentHashMap<>();
+    private WriteAheadLog wal;
+
+    private Thread writer;
+    private Thread persister;
+    private volatile boolean running;
+    private volatile boolean persisting;
+
+    @Value("${account.transaction.mode:LOCKED}")
+    private TransactionMode transactionMode = TransactionMode.LOCKED;
+
+    // 한 번에 커밋하는 최대 요청 수
+    @Value("${account.journal.max-batch-size:256}")
+    private int maxBatchSize = 256;
+
+    // 스냅샷 주기 (이벤트 수 / 시간 중 먼저 도달한 기준)
+    @Value("${account.journal.checkpoint-events:100000}")
+    private long checkpointEvents = 100000L;
+
+    @Value("${account.journal.checkpoint-interval-millis:10000}")
+    private long checkpointIntervalMillis = 10000L;
+
+    // 복구 시 DB 에서 한 번에 가져오는 행 수
+    @Value("${account.journal.fetch-size:10000}")
+    private int fetchSize = 10000;
+
+    // 응답 시점 (DB: DB 커밋 후 / WAL: WAL 동기화 후)
+    @Value("${account.journal.durability:DB}")
+    private JournalDurability durability = JournalDurability.DB;
+
+    @Value("${account.journal.wal.directory:journal-wal}")
+    private String walDirectory = "journal-wal";
+
+    // WAL 세그먼트 크기 (WriteAheadLog.RECORD_SIZE 의 배수)
+    @Value("${account.journal.wal.segment-bytes:67108864}")
+    private int walSegmentBytes = 67108864;
+
+    // 저장 스레드가 한 번에 DB 에 저장하는 최대 기록 수 / 저장에 실패한 경우 다시 시도하기까지의 시간
+    @Value("${account.journal.wal.persist-batch-size:4096}")
+    private int walPersistBatchSize = 4096;
+
+    @Value("${account.journal.wal.retry-millis:1000}")
+    private long walRetryMillis = 1000L;
+
+    @PostConstruct
+    public void start() {
+        if (transactionMode != TransactionMode.JOURNAL)
+            return;
+
+        if (durability == JournalDurability.WAL)
+            openWal();
+        recover();
+        running = true;
+        writer = Thread.ofPlatform().name("ledger-journal").daemon(true).start(this::run);
+        if (wal != null) {
+            persisting = true;
+            persister = Thread.ofPlatform().name("ledger-journal-persister").daemon(true).start(this::runPersister);
+        }
+    }
+
+    // 이미 받은 요청은 커밋(WAL 이면 DB 저장)까지 처리하고, 마지막으로 스냅샷 저장
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writer == null)
+            return;
+
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+
+    // 잔액 사용 (유효성 검사 순서는 TransactionService.useBalance 와 같다)
+    public TransactionDTO useBalance(Long userId, String accountNumber, Long amount) {
+        // 1-1. 사용자가 없는 경우 예외 발생
+        if (!accountUserRepository.existsById(userId))
+            throw new AccountException(USER_NOT_FOUND);
+
+        return (TransactionDTO) submit(new Command(USE, userId, accountNumber, null, amount, null));
+    }
+
+    // 잔액 사용 취소 (유효성 검사 순서는 TransactionService.cancelBalance 와 같다)
+    public TransactionDTO cancelBalance(String transactionId, String accountNumber, Long amount) {
+        // 1. 거래 아이디에 해당하는 거래가 없는 경우 예외 발생 (WAL 에만 기록된 거래 포함)
+        TransactionDTO transaction = Optional.ofNullable(unpersisted.get(transactionId))
+                .or(() -> transactionRepository.findDTOByTransactionId(transactionId))
+                .orElseThrow(() -> new AccountException(TRANSACTION_NOT_FOUND));
+
+        return (TransactionDTO) submit(new Command(CANCEL, null, accountNumber, null, amount, transaction));
+    }
+
+    // 계좌 이체 (유효성 검사 순서는 TransactionService.transferBalance 와 같다)
+    public TransactionDTO transferBalance(Long userId, String fromAccountNumber, String toAccountNumber, Long amount) {
+        // 1. 보내는 계좌와 받는 계좌가 같은 경우 예외 발생
+        if (Objects.equals(fromAccountNumber, toAccountNumber))
+            throw new AccountException(SAME_ACCOUNT_TRANSFER);
+        // 2. 사용자가 없는 경우 예외 발생
+        if (!accountUserRepository.existsById(userId))
+            throw new AccountException(USER_NOT_FOUND);
+
+        return (TransactionDTO) submit(
+                new Command(TRANSFER, userId, fromAccountNumber, toAccountNumber, amount, null));
+    }
+
+    // 계좌 해지 (유효성 검사 순서는 AccountService.deleteAccount 와 같다, 잔액은 메모리의 잔액으로 확인)
+    public AccountDTO deleteAccount(Long userId, String accountNumber) {
+        // 1-1. 사용자가 없는 경우 예외 발생
+        if (!accountUserRepository.existsById(userId))
+            throw new AccountException(USER_NOT_FOUND);
+
+        return (AccountDTO) submit(new Command(null, userId, accountNumber, null, null, null));
+    }
+
+
+    /**
+     * 복구: 계좌 테이블의 잔액(마지막 스냅샷)을 읽고, 마지막 체크포인트 이후의 이벤트를 아이디 순서대로 다시 적용
+     * 이벤트에는 적용 후 잔액이 기록되어 있으므로, 이벤트를 다시 적용하는 것은 잔액을 덮어쓰는 것과 같다.
+     * 계좌와 이벤트는 앞으로만 읽는 커서로 fetch-size 건씩 읽는다. (이벤트 수와 관계없이 메모리 사용량은 계좌 수에 비례)
+     * 기록 스레드가 실행 중이지 않을 때만 호출 (다시 적용한 이벤트 수 반환)
+     */
+    public long recover() {
+        long startedAt = System.nanoTime();
+        accounts.clear();
+        accountsById.clear();
+        dirtyAccounts.clear();
+        journalBalances.clear();
+        lastEventId = ledgerCheckpointRepository.findTopByOrderByIdDesc()
+                .map(LedgerCheckpoint::getLastEventId)
+                .orElse(0L);
+        long checkpoint = lastEventId;
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        Long replayed = transactionTemplate.execute(status -> {
+            Session session = entityManager.unwrap(Session.class);
+            try (ScrollableResults<Object[]> results = session.createSelectionQuery(
+                            "select a.id, a.accountNumber, a.accountUser.id, a.accountStatus, a.balance, " +
+                                    "a.accountCreatedAt from Account a", Object[].class)
+                    .setFetchSize(fetchSize)
+                    .setReadOnly(true)
+                    .setCacheMode(CacheMode.IGNORE)
+                    .scroll(ScrollMode.FORWARD_ONLY)) {
+                while (results.next())
+                    put(new AccountState(results.get()));
+            }
+
+            long count = 0L;
+            try (ScrollableResults<Object[]> results = session.createSelectionQuery(
+                            "select e.id, e.account.id, e.balance from LedgerEvent e " +
+                                    "where e.id > :checkpoint order by e.id", Object[].class)
+                    .setParameter("checkpoint", checkpoint)
+                    .setFetchSize(fetchSize)
+                    .setReadOnly(true)
+                    .setCacheMode(CacheMode.IGNORE)
+                    .scroll(ScrollMode.FORWARD_ONLY)) {
+                while (results.next()) {
+                    Object[] row = results.get();
+                    AccountState account = accountsById.get((Long) row[1]);
+                    account.balance = (Long) row[2];
+                    dirtyAccounts.add(account);
+                    journalBalances.put(account.accountNumber, account.balance);
+                    lastEventId = (Long) row[0];
+                    count++;
+                }
+            }
+            return count;
+        });
+
+        eventsSinceCheckpoint = replayed == null ? 0L : replayed;
+        lastCheckpointAt = System.currentTimeMillis();
+        log.info("Ledger journal recovered {} accounts, replayed {} events after checkpoint {} in {} ms",
+                accounts.size(), eventsSinceCheckpoint, checkpoint,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+        return eventsSinceCheckpoint;
+    }
+
+
+    /**
+     * 계좌 확인: 계좌 목록(계좌 테이블의 마지막 스냅샷)의 잔액을 커밋된 잔액으로 바꾼 목록
+     * 응답한 거래의 잔액은 응답 전에 반영되므로, 기록하는 서버에서는 거래 직후의 조회도 변경된 잔액을 반환한다.
+     * 목록은 캐시된 목록일 수 있으므로 바꾸지 않고, 잔액이 다른 계좌만 새로 만든다.
+     */
+    public List<AccountDTO> applyJournalBalances(List<AccountDTO> accounts) {
+        if (journalBalances.isEmpty())
+            return accounts;
+
+        List<AccountDTO> applied = new ArrayList<>(accounts.size());
+        for (AccountDTO account : accounts) {
+            Long balance = journalBalances.get(account.getAccountNumber());
+            applied.add(balance == null || balance.equals(account.getBalance()) ? account : AccountDTO.builder()
+                    .id(account.getId())
+                    .accountNumber(account.getAccountNumber())
+                    .balance(balance)
+                    .accountCreatedAt(account.getAccountCreatedAt())
+                    .accountCancelledAt(account.getAccountCancelledAt())
+                    .build());
+        }
+        return applied;
+    }
+
+
+    private Object submit(Command command) {
+        if (!running)
+            throw new IllegalStateException("Ledger journal is not running (account.transaction.mode: JOURNAL)");
+
+        queue.add(command);
+        try {
+            return command.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            throw e;
+        }
+    }
+
+    private void run() {
+        List<Command> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Command first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, maxBatchSize - 1);
+                    process(batch);
+                }
+                checkpoint(false);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                log.error("Ledger journal error", e);
+            } finally {
+                batch.clear();
+            }
+        }
+
+        try {
+            stopPersister();
+            checkpoint(true);
+        } catch (RuntimeException e) {
+            log.error("Failed to checkpoint ledger journal on shutdown", e);
+        }
+    }
+
+    private void process(List<Command> batch) {
+        Batch applied = new Batch();
+        try {
+            loadNewAccounts(batch);
+            LocalDateTime now = LocalDateTime.now();
+            for (Command command : batch) {
+                try {
+                    applied.results.add(apply(applied, command, now));
+                    applied.commands.add(command);
+                } catch (AccountException e) {
+                    command.result.completeExceptionally(e);
+                }
+            }
+
+            if (!applied.commands.isEmpty()) {
+                if (wal == null)
+                    commit(applied);
+                else
+                    append(applied);
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to commit ledger journal batch of {} requests", batch.size(), e);
+            batch.forEach(command -> command.result.completeExceptionally(e));
+            return;
+        }
+
+        // 커밋(WAL 동기화)된 뒤에 메모리 상태 반영 후 응답
+        applied.balances.forEach((account, balance) -> {
+            account.balance = balance;
+            journalBalances.put(account.accountNumber, balance);
+        });
+        applied.closed.keySet().forEach(account -> account.accountStatus = AccountStatus.CLOSED);
+        dirtyAccounts.addAll(applied.balances.keySet());
+        if (!applied.events.isEmpty()) {
+            if (wal == null)
+                lastEventId = applied.events.get(applied.events.size() - 1).getId();
+            eventsSinceCheckpoint += applied.events.size();
+        }
+        for (int i = 0; i < applied.commands.size(); i++)
+            applied.commands.get(i).result.complete(applied.results.get(i));
+    }
+
+    // 복구 이후에 생성된 계좌를 읽어 메모리에 추가
+    private void loadNewAccounts(List<Command> batch) {
+        Set<String> accountNumbers = new HashSet<>();
+        for (Command command : batch) {
+            if (!accounts.containsKey(command.accountNumber))
+                accountNumbers.add(command.accountNumber);
+            if (command.toAccountNumber != null && !accounts.containsKey(command.toAccountNumber))
+                accountNumbers.add(command.toAccountNumber);
+        }
+        if (accountNumbers.isEmpty())
+            return;
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                accountRepository.findByAccountNumberIn(accountNumbers).forEach(account -> put(new AccountState(
+                        account.getId(), account.getAccountNumber(), account.getAccountUser().getId(),
+                        account.getAccountStatus(), account.getBalance(), account.getAccountCreatedAt()))));
+    }
+
+    // 메모리의 잔액(이 묶음에서 반영된 잔액 포함)으로 요청을 검증/반영
+    private Object apply(Batch applied, Command command, LocalDateTime now) {
+        AccountState account = Optional.ofNullable(accounts.get(command.accountNumber))
+                .orElseThrow(() -> new AccountException(ACCOUNT_NOT_FOUND));
+
+        if (command.transactionType == null) {
+            validateDeleteAccount(applied, account, command);
+            applied.closed.put(account, now);
+            return AccountDTO.builder()
+                    .id(account.userId)
+                    .accountNumber(account.accountNumber)
+                    .balance(applied.balanceOf(account))
+                    .accountCreatedAt(account.accountCreatedAt)
+                    .accountCancelledAt(now)
+                    .build();
+        }
+        if (command.transactionType == USE) {
+            validateUseBalance(applied, account, command);
+            return record(applied, account, USE, -command.amount, command.amount, now);
+        }
+        if (command.transactionType == CANCEL) {
+            validateCancelBalance(account, command, now);
+            return record(applied, account, CANCEL, command.amount, command.amount, now);
+        }
+
+        AccountState toAccount = Optional.ofNullable(accounts.get(command.toAccountNumber))
+                .orElseThrow(() -> new AccountException(ACCOUNT_NOT_FOUND));
+        validateUseBalance(applied, account, command);
+        if (applied.statusOf(toAccount) != AccountStatus.ACTIVE)
+            throw new AccountException(ACCOUNT_ALREADY_CLOSED);
+        record(applied, toAccount, TRANSFER, command.amount, command.amount, now);
+        return record(applied, account, TRANSFER, -command.amount, command.amount, now);
+    }
+
+    private static void validateUseBalance(Batch applied, AccountState account, Command command) {
+        // 2. 사용자와 계좌 소유주의 정보가 일치하지 않을 경우 예외 발생
+        if (!Objects.equals(command.userId, account.userId))
+            throw new AccountException(USER_ACCOUNT_UNMATCH);
+        // 3. 계좌가 해지 상태인 경우 예외 발생
+        if (applied.statusOf(account) != AccountStatus.ACTIVE)
+            throw new AccountException(ACCOUNT_ALREADY_CLOSED);
+        // 4. 거래 금액이 잔액보다 큰 경우 예외 발생
+        if (applied.balanceOf(account) < command.amount)
+            throw new AccountException(BALANCE_EXCEEDED);
+    }
+
+    private static void validateCancelBalance(AccountState account, Command command, LocalDateTime now) {
+        TransactionDTO transaction = command.transaction;
+        // 3. 거래와 계좌가 일치하지 않는 경우
+        if (!Objects.equals(transaction.getAccountNumber(), account.accountNumber))
+            throw new AccountException(TRANSACTION_ACCOUNT_UNMATCH);
+        // 4. 거래 금액과 거래 취소 금액이 다른 경우
+        if (!Objects.equals(transaction.getAmount(), command.amount))
+            throw new AccountException(AMOUNT_MISMATCH);
+        // 5. 거래 기간이 1년을 넘은 경우
+        if (transaction.getTransactedAt().isBefore(now.minusYears(1)))
+            throw new AccountException(TRANSACTION_CANCELLATION_EXPIRED);
+        // 6. 성공한 잔액 사용 거래가 아닌 경우 (계좌 이체, 사용 취소, 실패한 거래는 취소할 수 없음)
+        if (transaction.getTransactionType() != USE || transaction.getTransactionResultType() != S)
+            throw new AccountException(TRANSACTION_NOT_CANCELLABLE);
+    }
+
+    private static void validateDeleteAccount(Batch applied, AccountState account, Command command) {
+        // 2. 사용자와 계좌 소유주의 정보가 일치하지 않을 경우 예외 발생
+        if (!Objects.equals(command.userId, account.userId))
+            throw new AccountException(USER_ACCOUNT_UNMATCH);
+        // 3. 계좌가 이미 해지된 상태일 경우 예외 발생
+        if (applied.statusOf(account) == AccountStatus.CLOSED)
+            throw new AccountException(ACCOUNT_ALREADY_CLOSED);
+        // 4. 계좌에 잔액이 남아있는 경우 예외 발생
+        if (applied.balanceOf(account) > 0)
+            throw new AccountException(ACCOUNT_HAS_BALANCE);
+    }
+
+    // 잔액 변경 이벤트 + 거래 내역 추가
+    private TransactionDTO record(Batch applied, AccountState account, TransactionType transactionType,
+                                  long delta, long amount, LocalDateTime now) {
+        long balance = applied.balanceOf(account) + delta;
+        applied.balances.put(account, balance);
+
+        String transactionId = transactionIdGenerator.nextTransactionId();
+        applied.eventAccounts.add(account);
+        applied.events.add(LedgerEvent.builder()
+                .transactionType(transactionType)
+                .delta(delta)
+                .balance(balance)
+                .transactionId(transactionId)
+                .transactedAt(now)
+                .build());
+        applied.transactions.add(Transaction.builder()
+                .amount(amount)
+                .balanceSnapshot(balance)
+                .transactionType(transactionType)
+                .transactionResultType(S)
+                .transactionId(transactionId)
+                .transactedAt(now)
+                .build());
+
+        // 거래 내역의 계좌는 트랜잭션 안에서 참조로 채우므로 계좌 번호를 따로 넣는다
+        return TransactionDTO.builder()
+                .accountNumber(account.accountNumber)
+                .transactionType(transactionType)
+                .transactionResultType(S)
+                .amount(amount)
+                .balanceSnapshot(balance)
+                .transactionId(transactionId)
+                .transactedAt(now)
+                .build();
+    }
+
+    // 계좌 해지 UPDATE + 이벤트, 거래 내역 INSERT 를 하나의 트랜잭션으로 커밋
+    private void commit(Batch applied) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            applied.closed.forEach((account, closedAt) -> {
+                accountRepository.closeAccount(account.id, AccountStatus.CLOSED, applied.balanceOf(account), closedAt);
+                accountCache.evictAfterCommit(account.userId);
+            });
+
+            for (int i = 0; i < applied.events.size(); i++) {
+                Account reference = accountRepository.getReferenceById(applied.eventAccounts.get(i).id);
+                applied.events.get(i).setAccount(reference);
+                applied.transactions.get(i).setAccount(reference);
+            }
+            ledgerEventRepository.saveAll(applied.events);
+            transactionRepository.insertAll(applied.transactions);
+            transactionOutbox.add(applied.transactions);
+        });
+    }
+
+    // WAL 에 이벤트를 추가하고 한 번에 동기화, 계좌 해지는 바로 DB 에 커밋 (WAL 이 동기화된 뒤)
+    // 응답한 거래는 DB 에 저장되기 전까지 거래 확인 캐시와 unpersisted 로 확인할 수 있다
+    private void append(Batch applied) {
+        if (!applied.events.isEmpty()) {
+            List<WriteAheadLog.Record> records = new ArrayList<>(applied.events.size());
+            for (int i = 0; i < applied.events.size(); i++) {
+                LedgerEvent event = applied.events.get(i);
+                records.add(WriteAheadLog.Record.builder()
+                        .accountId(applied.eventAccounts.get(i).id)
+                        .transactionType(event.getTransactionType())
+                        .delta(event.getDelta())
+                        .balance(event.getBalance())
+                        .transactionKey(TransactionIdGenerator.parse(event.getTransactionId()))
+                        .transactedAt(event.getTransactedAt())
+                        .build());
+            }
+            try {
+                wal.append(records);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            wal.force();
+
+            for (Object result : applied.results) {
+                if (result instanceof TransactionDTO transactionDTO) {
+                    unpersisted.put(transactionDTO.getTransactionId(), transactionDTO);
+                    transactionCache.put(transactionDTO);
+                }
+            }
+            persistQueue.add(records);
+        }
+
+        if (applied.closed.isEmpty())
+            return;
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                    applied.closed.forEach((account, closedAt) -> {
+                        accountRepository.closeAccount(account.id, AccountStatus.CLOSED, applied.balanceOf(account),
+                                closedAt);
+                        accountCache.evictAfterCommit(account.userId);
+                    }));
+        } catch (RuntimeException e) {
+            // 이벤트는 이미 WAL 에 기록되었으므로 계좌 해지 요청만 실패 처리
+            log.error("Failed to close {} accounts in ledger journal", applied.closed.size(), e);
+            applied.closed.clear();
+            for (int i = applied.commands.size() - 1; i >= 0; i--) {
+                if (applied.commands.get(i).transactionType == null) {
+                    applied.commands.remove(i).result.completeExceptionally(e);
+                    applied.results.remove(i);
+                }
+            }
+        }
+    }
+
+    // 저장 스레드: WAL 에 기록된 이벤트를 순서대로 DB 에 저장하고, 저장된 기록만 담은 세그먼트 삭제
+    // 저장에 실패하면 같은 기록을 retry-millis 뒤에 다시 저장 (종료 중이면 WAL 에 남겨 다음 시작 시 저장)
+    private void runPersister() {
+        List<WriteAheadLog.Record> records = new ArrayList<>(walPersistBatchSize);
+        while (persisting || !persistQueue.isEmpty() || !records.isEmpty()) {
+            try {
+                if (records.isEmpty()) {
+                    List<WriteAheadLog.Record> first = persistQueue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (first == null)
+                        continue;
+                    records.addAll(first);
+                    List<WriteAheadLog.Record> next;
+                    while (records.size() < walPersistBatchSize && (next = persistQueue.poll()) != null)
+                        records.addAll(next);
+                }
+
+                persist(records);
+                records.forEach(record -> unpersisted.remove(TransactionIdGenerator.format(record.getTransactionKey())));
+                wal.truncate(records.get(records.size() - 1).getSequence());
+                records.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException | IOException e) {
+                log.error("Failed to persist {} ledger journal WAL records", records.size(), e);
+                if (!persisting)
+                    return;
+                try {
+                    Thread.sleep(walRetryMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // WAL 기록 -> 잔액 변경 이벤트 + 거래 내역 INSERT (하나의 트랜잭션)
+    private void persist(List<WriteAheadLog.Record> records) {
+        List<LedgerEvent> events = new ArrayList<>(records.size());
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            List<Transaction> transactions = new ArrayList<>(records.size());
+            for (WriteAheadLog.Record record : records) {
+                Account reference = accountRepository.getReferenceById(record.getAccountId());
+                String transactionId = TransactionIdGenerator.format(record.getTransactionKey());
+                events.add(LedgerEvent.builder()
+                        .account(reference)
+                        .transactionType(record.getTransactionType())
+                        .delta(record.getDelta())
+                        .balance(record.getBalance())
+                        .transactionId(transactionId)
+                        .transactedAt(record.getTransactedAt())
+                        .walSequence(record.getSequence())
+                        .build());
+                transactions.add(Transaction.builder()
+                        .account(reference)
+                        .amount(Math.abs(record.getDelta()))
+                        .balanceSnapshot(record.getBalance())
+                        .transactionType(record.getTransactionType())
+                        .transactionResultType(S)
+                        .transactionId(transactionId)
+                        .transactedAt(record.getTransactedAt())
+                        .build());
+            }
+            ledgerEventRepository.saveAll(events);
+            transactionRepository.insertAll(transactions);
+            transactionOutbox.add(transactions);
+        });
+        lastEventId = events.get(events.size() - 1).getId();
+    }
+
+    // WAL 을 열고, DB 에 저장되지 않은 기록(마지막으로 저장된 WAL 기록 번호 이후)을 먼저 저장
+    private void openWal() {
+        Long maxWalSequence = ledgerEventRepository.findMaxWalSequence();
+        long persistedSequence = maxWalSequence == null ? 0L : maxWalSequence;
+        wal = new WriteAheadLog(Paths.get(walDirectory), walSegmentBytes);
+        try {
+            List<WriteAheadLog.Record> records = wal.open(persistedSequence + 1).stream()
+                    .filter(record -> record.getSequence() > persistedSequence)
+                    .toList();
+            for (int from = 0; from < records.size(); from += walPersistBatchSize)
+                persist(records.subList(from, Math.min(from + walPersistBatchSize, records.size())));
+            if (!records.isEmpty())
+                wal.truncate(records.get(records.size() - 1).getSequence());
+            else
+                wal.truncate(persistedSequence);
+            log.info("Ledger journal WAL replayed {} records after sequence {}", records.size(), persistedSequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // 남은 WAL 기록을 DB 에 저장할 때까지 기다린 뒤 WAL 을 닫음
+    private void stopPersister() {
+        if (persister == null)
+            return;
+
+        persisting = false;
+        try {
+            persister.join();
+            wal.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.error("Failed to close ledger journal WAL", e);
+        }
+    }
+
+    // 스냅샷: 마지막 스냅샷 이후 변경된 계좌의 잔액 저장 + 체크포인트 기록 (하나의 트랜잭션)
+    // WAL 이면 메모리의 잔액이 저장된 이벤트보다 앞설 수 있으나, 이벤트에는 적용 후 잔액이 있으므로
+    // 이후 저장되는 이벤트를 복구 시 다시 적용하면 같은 잔액이 된다
+    private void checkpoint(boolean force) {
+        if (dirtyAccounts.isEmpty())
+            return;
+        if (!force && eventsSinceCheckpoint < checkpointEvents
+                && System.currentTimeMillis() - lastCheckpointAt < checkpointIntervalMillis)
+            return;
+
+        long startedAt = System.nanoTime();
+        List<AccountState> dirty = new ArrayList<>(dirtyAccounts);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (int from = 0; from < dirty.size(); from += CHECKPOINT_CHUNK_SIZE) {
+                List<AccountState> chunk = dirty.subList(from, Math.min(from + CHECKPOINT_CHUNK_SIZE, dirty.size()));
+                Map<Long, AccountState> chunkById = new HashMap<>();
+                chunk.forEach(account -> chunkById.put(account.id, account));
+                // 변경 감지로 UPDATE (JDBC 배치), 묶음마다 영속성 컨텍스트를 비움
+                accountRepository.findAllById(chunkById.keySet())
+                        .forEach(account -> account.setBalance(chunkById.get(account.getId()).balance));
+                entityManager.flush();
+                entityManager.clear();
+                chunk.forEach(account -> accountCache.evictAfterCommit(account.userId));
+            }
+            ledgerCheckpointRepository.save(LedgerCheckpoint.builder()
+                    .lastEventId(lastEventId)
+                    .accountCount(dirty.size())
+                    .checkpointedAt(LocalDateTime.now())
+                    .build());
+        });
+
+        log.info("Ledger journal checkpoint at event {}, {} accounts in {} ms", lastEventId, dirty.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+        dirtyAccounts.clear();
+        eventsSinceCheckpoint = 0L;
+        lastCheckpointAt = System.currentTimeMillis();
+    }
+
+    private void put(AccountState account) {
+        accounts.put(account.accountNumber, account);
+        accountsById.put(account.id, account);
+    }
+
+
+    // 요청 한 건 (transactionType 이 null 이면 계좌 해지)
+    private static class Command {
+        private final TransactionType transactionType;
+        private final Long userId;
+        private final String accountNumber; // 이체: 보내는 계좌 번호
+        private final String toAccountNumber; // 이체: 받는 계좌 번호
+        private final Long amount;
+        private final TransactionDTO transaction; // 잔액 사용 취소: 취소할 거래
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        private Command(TransactionType transactionType, Long userId, String accountNumber, String toAccountNumber,
+                        Long amount, TransactionDTO transaction) {
+            this.transactionType = transactionType;
+            this.userId = userId;
+            this.accountNumber = accountNumber;
+            this.toAccountNumber = toAccountNumber;
+            this.amount = amount;
+            this.transaction = transaction;
+        }
+    }
+
+    // 메모리에 올린 계좌 상태
+    private static class AccountState {
+        private final Long id;
+        private final String accountNumber;
+        private final Long userId;
+        private final LocalDateTime accountCreatedAt;
+        private AccountStatus accountStatus;
+        private long balance;
+
+        private AccountState(Long id, String accountNumber, Long userId, AccountStatus accountStatus, Long balance,
+                             LocalDateTime accountCreatedAt) {
+            this.id = id;
+            this.accountNumber = accountNumber;
+            this.userId = userId;
+            this.accountStatus = accountStatus;
+            this.balance = balance == null ? 0L : balance;
+            this.accountCreatedAt = accountCreatedAt;
+        }
+
+        // 복구 쿼리의 한 행 (아이디, 계좌 번호, 사용자 아이디, 계좌 상태, 잔액, 계좌 생성 일시)
+        private AccountState(Object[] row) {
+            this((Long) row[0], (String) row[1], (Long) row[2], (AccountStatus) row[3], (Long) row[4],
+                    (LocalDateTime) row[5]);
+        }
+    }
+
+    // 한 묶음의 처리 결과 (커밋되기 전까지 메모리의 계좌 상태는 바꾸지 않음)
+    private static class Batch {
+        private final Map<AccountState, Long> balances = new HashMap<>();
+        private final Map<AccountState, LocalDateTime> closed = new HashMap<>();
+        private final List<AccountState> eventAccounts = new ArrayList<>();
+        private final List<LedgerEvent> events = new ArrayList<>();
+        private final List<Transaction> transactions = new ArrayList<>();
+        private final List<Command> commands = new ArrayList<>();
+        private final List<Object> results = new ArrayList<>();
+
+        private long balanceOf(AccountState account) {
+            return balances.getOrDefault(account, account.balance);
+        }
+
+        private AccountStatus statusOf(AccountState account) {
+            return closed.containsKey(account) ? AccountStatus.CLOSED : account.accountStatus;
+        }
+    }
+}
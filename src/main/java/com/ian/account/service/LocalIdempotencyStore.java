@@ -0,0 +1,61 @@
+package com.ian.account.service;
+
+import com.ian.account.dto.IdempotencyRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 서버 메모리 멱등성 키 저장소 (서버 한 대로 운영하거나 테스트할 때 사용, 만료된 기록은 주기적으로 정리)
+@Component
+@ConditionalOnProperty(name = "account.idempotency.store", havingValue = "local")
+public class LocalIdempotencyStore implements IdempotencyStore {
+    private static final int PURGE_INTERVAL = 1024;
+
+    private final ConcurrentHashMap<String, Entry> records = new ConcurrentHashMap<>();
+    private final AtomicInteger claimCount = new AtomicInteger();
+
+    @Override
+    public IdempotencyRecord claim(String key, String fingerprint, Duration ttl) {
+        long now = System.currentTimeMillis();
+        if (claimCount.incrementAndGet() % PURGE_INTERVAL == 0)
+            records.values().removeIf(entry -> entry.isExpired(now));
+
+        IdempotencyRecord[] existing = new IdempotencyRecord[1];
+        records.compute(key, (k, entry) -> {
+            if (entry != null && !entry.isExpired(now)) {
+                existing[0] = entry.record;
+                return entry;
+            }
+            return new Entry(IdempotencyRecord.inProgress(fingerprint), now + ttl.toMillis());
+        });
+        return existing[0];
+    }
+
+    @Override
+    public void complete(String key, IdempotencyRecord record, Duration ttl) {
+        records.put(key, new Entry(record, System.currentTimeMillis() + ttl.toMillis()));
+    }
+
+    @Override
+    public void release(String key) {
+        records.remove(key);
+    }
+
+
+    private static class Entry {
+        private final IdempotencyRecord record;
+        private final long expiresAt;
+
+        private Entry(IdempotencyRecord record, long expiresAt) {
+            this.record = record;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return expiresAt <= now;
+        }
+    }
+}
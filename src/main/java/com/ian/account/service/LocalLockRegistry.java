@@ -0,0 +1,124 @@
+package com.ian.account.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 계좌 번호별 로컬(JVM) 락
+ * 같은 서버 안에서 같은 계좌에 대한 요청이 동시에 들어오면 여기서 먼저 순서를 기다리고,
+ * 로컬 락을 얻은 스레드만 Redis 분산 락을 시도한다. (Redis 에는 계좌당 한 스레드만 접근)
+ * 대기자는 먼저 온 순서(FIFO)대로 락을 얻고, 대기열이 너무 길면 기다리지 않고 바로 실패한다.
+ * 락을 사용하거나 기다리는 스레드가 없어지면 해당 계좌의 락은 맵에서 제거된다.
+ */
+public class LocalLockRegistry {
+    private final ConcurrentHashMap<String, Entry> locks = new ConcurrentHashMap<>();
+
+    public enum Acquisition {
+        ACQUIRED, // 락 취득
+        QUEUE_FULL, // 대기열이 가득 찼거나, 대기 시간 안에 차례가 오지 않을 것으로 예상되어 바로 실패
+        TIMEOUT // 대기 시간 초과
+    }
+
+
+    // 로컬 락 취득 시도 (대기 시간 내에 취득하지 못하면 false)
+    public boolean tryLock(String key, long timeout, TimeUnit unit) throws InterruptedException {
+        return tryLock(key, timeout, unit, Integer.MAX_VALUE) == Acquisition.ACQUIRED;
+    }
+
+    // 로컬 락 취득 시도 (대기열 길이 제한)
+    // 대기자 수가 maxQueueDepth 이상이거나, 예상 대기 시간(대기자 수 x 평균 락 보유 시간)이
+    // 대기 시간을 넘으면 기다리지 않고 QUEUE_FULL 반환
+    public Acquisition tryLock(String key, long timeout, TimeUnit unit, int maxQueueDepth)
+            throws InterruptedException {
+        Entry entry = retain(key);
+        Acquisition acquisition = Acquisition.TIMEOUT;
+        try {
+            if (isQueueFull(entry, unit.toNanos(timeout), maxQueueDepth)) {
+                acquisition = Acquisition.QUEUE_FULL;
+                return acquisition;
+            }
+
+            if (entry.lock.tryLock(timeout, unit)) {
+                if (entry.lock.getHoldCount() == 1)
+                    entry.lockedAt = System.nanoTime();
+                acquisition = Acquisition.ACQUIRED;
+            }
+            return acquisition;
+        } finally {
+            if (acquisition != Acquisition.ACQUIRED)
+                release(key);
+        }
+    }
+
+
+    // 로컬 락 해제 (락을 보유한 스레드만 해제 가능)
+    // 락 보유 시간(ns) 반환 (재진입한 락을 해제한 경우에는 0)
+    public long unlock(String key) {
+        Entry entry = locks.get(key);
+        if (entry == null || !entry.lock.isHeldByCurrentThread())
+            throw new IllegalMonitorStateException("Local lock is not held for key: " + key);
+
+        long holdNanos = 0L;
+        if (entry.lock.getHoldCount() == 1) {
+            holdNanos = System.nanoTime() - entry.lockedAt;
+            entry.recordHoldTime(holdNanos);
+        }
+        entry.lock.unlock();
+        release(key);
+        return holdNanos;
+    }
+
+
+    // 현재 보관 중인 계좌 락의 수
+    int size() {
+        return locks.size();
+    }
+
+
+    private static boolean isQueueFull(Entry entry, long timeoutNanos, int maxQueueDepth) {
+        // 아무도 락을 갖고 있지 않으면 바로 취득 가능
+        if (!entry.lock.isLocked())
+            return false;
+
+        int queueLength = entry.lock.getQueueLength();
+        if (queueLength >= maxQueueDepth)
+            return true;
+
+        // 아직 평균 보유 시간을 모르는 경우에는 일단 대기
+        long averageHoldNanos = entry.averageHoldNanos;
+        return averageHoldNanos > 0 && queueLength * averageHoldNanos > timeoutNanos;
+    }
+
+    // 락 사용자 수 증가 (없으면 생성)
+    private Entry retain(String key) {
+        return locks.compute(key, (k, entry) -> {
+            Entry retained = entry == null ? new Entry() : entry;
+            retained.users++;
+            return retained;
+        });
+    }
+
+    // 락 사용자 수 감소 (더 이상 사용자가 없으면 제거)
+    private void release(String key) {
+        locks.computeIfPresent(key, (k, entry) -> --entry.users == 0 ? null : entry);
+    }
+
+
+    private static class Entry {
+        // 공정(fair) 락: 먼저 기다린 스레드가 먼저 락을 얻는다
+        private final ReentrantLock lock = new ReentrantLock(true);
+        // 락을 보유 중이거나 기다리는 스레드 수 (ConcurrentHashMap.compute 안에서만 변경)
+        private int users;
+        // 락을 취득한 시각 (락 보유 스레드만 접근)
+        private long lockedAt;
+        // 락 보유 시간의 지수 이동 평균 (대기열 예상 대기 시간 계산용)
+        private volatile long averageHoldNanos;
+
+        // 락 보유 스레드만 호출
+        private void recordHoldTime(long holdNanos) {
+            long average = averageHoldNanos;
+            averageHoldNanos = average == 0 ? holdNanos : average + (holdNanos - average) / 8;
+        }
+    }
+}
@@ -1,29 +1,112 @@
 package com.ian.account.service;
 
+import com.ian.account.aop.AccountLock;
 import com.ian.account.aop.AccountLockIdInterface;
+import com.ian.account.aop.AccountLockIdsInterface;
+import com.ian.account.aop.Idempotent;
+import com.ian.account.dto.IdempotencyClaim;
+import com.ian.account.dto.IdempotencyRecord;
+import com.ian.account.type.LockProtocol;
+import com.ian.account.type.TransactionMode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
+import java.util.List;
+
 @Aspect
 @Component
 @Slf4j
 @RequiredArgsConstructor
 public class LockAOPAspect {
     private final LockService lockService;
+    private final IdempotencyService idempotencyService;
+
+    @Value("${account.transaction.mode:LOCKED}")
+    private TransactionMode transactionMode = TransactionMode.LOCKED;
+
+    @Value("${account.lock.protocol:REDISSON}")
+    private LockProtocol lockProtocol = LockProtocol.REDISSON;
+
+    @Around("@annotation(accountLock) && args(request)")
+    public Object around(ProceedingJoinPoint joinPoint, AccountLock accountLock, AccountLockIdInterface request)
+            throws Throwable {
+        // 락 없이 처리하는 거래 방식인 경우 바로 진행
+        if (!transactionMode.requiresLock(accountLock.transactionType()))
+            return joinPoint.proceed();
+
+        if (lockProtocol == LockProtocol.SCRIPT)
+            return proceedWithScriptLock(joinPoint, accountLock, request, List.of(request.getAccountNumber()));
 
-    @Around("@annotation(com.ian.account.aop.AccountLock) && args(request)")
-    public Object around(ProceedingJoinPoint joinPoint, AccountLockIdInterface request) throws Throwable {
         // lock 취득 시도
-        lockService.lock(request.getAccountNumber());
+        lockService.lock(request.getAccountNumber(), accountLock.tryLockTime());
+        Throwable failure = null;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            // lock 해제 (처리 결과는 락 보유 시간 지표에 기록)
+            lockService.unlock(request.getAccountNumber(), failure);
+        }
+    }
+
+
+    // 여러 계좌의 락이 필요한 요청 (계좌 번호 순서로 모두 취득한 뒤 진행)
+    @Around("@annotation(accountLock) && args(request)")
+    public Object aroundAll(ProceedingJoinPoint joinPoint, AccountLock accountLock, AccountLockIdsInterface request)
+            throws Throwable {
+        if (!transactionMode.requiresLock(accountLock.transactionType()))
+            return joinPoint.proceed();
+
+        if (lockProtocol == LockProtocol.SCRIPT)
+            return proceedWithScriptLock(joinPoint, accountLock, request, request.getAccountNumbers());
+
+        lockService.lockAll(request.getAccountNumbers(), accountLock.tryLockTime());
+        Throwable failure = null;
         try {
             return joinPoint.proceed();
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
         } finally {
-            // lock 해제
-            lockService.unlock(request.getAccountNumber());
+            lockService.unlockAll(request.getAccountNumbers(), failure);
         }
     }
+
+
+    // SCRIPT 락 프로토콜: 락 취득과 멱등성 키 선점, 락 해제와 처리 결과 기록을 각각 Redis 호출 1회로 처리
+    private Object proceedWithScriptLock(ProceedingJoinPoint joinPoint, AccountLock accountLock, Object request,
+                                         Collection<String> accountNumbers) throws Throwable {
+        IdempotencyClaim claim = isIdempotent(joinPoint) ? idempotencyService.getClaim(joinPoint, request) : null;
+
+        RedisLockScript.Result lock = lockService.lockAndClaim(accountNumbers, accountLock.tryLockTime(), claim);
+        if (lock.getStatus() == RedisLockScript.Status.EXISTING)
+            return idempotencyService.replay(joinPoint, claim, lock.getRecord());
+
+        IdempotencyRecord result = null;
+        Throwable failure = null;
+        try {
+            Object response = joinPoint.proceed();
+            result = idempotencyService.getSuccess(claim, response);
+            return response;
+        } catch (Throwable e) {
+            failure = e;
+            result = idempotencyService.getFailure(claim, e);
+            throw e;
+        } finally {
+            lockService.unlockAndRecord(accountNumbers, claim, result, failure);
+        }
+    }
+
+    private static boolean isIdempotent(ProceedingJoinPoint joinPoint) {
+        return ((MethodSignature) joinPoint.getSignature()).getMethod().isAnnotationPresent(Idempotent.class);
+    }
 }
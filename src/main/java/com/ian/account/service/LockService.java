@@ -1,46 +1,314 @@
 package com.ian.account.service;
 
+import com.ian.account.dto.IdempotencyClaim;
+import com.ian.account.dto.IdempotencyRecord;
 import com.ian.account.exception.AccountException;
+import com.ian.account.type.ErrorCode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RFuture;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static com.ian.account.type.ErrorCode.ACCOUNT_TRANSACTION_LOCK;
 
+/**
+ * 계좌 락 (2단계)
+ * 1. 로컬 락: 같은 서버(JVM) 안의 경쟁자들은 계좌 번호별 로컬 락에서 먼저 대기
+ * 2. Redis 락: 로컬 락을 얻은 스레드만 Redisson 분산 락을 시도 (서버 간 동시성 제어)
+ * 같은 서버에서 N개의 요청이 경쟁해도 Redis 락을 기다리며 재시도하는 스레드는 최대 1개
+ * 대기 시간은 @AccountLock.tryLockTime 이며, 로컬 대기열이 길면 기다리지 않고 바로 실패
+ * account.lock.local-tier.enabled 가 false 이면 로컬 락 없이 모든 스레드가 Redis 락을 직접 기다린다. (비교 측정용, 락 보유 시간은 기록하지 않음)
+ * SCRIPT 락 프로토콜: lockAndClaim / unlockAndRecord 로 Redis 락과 멱등성 키를 Lua 스크립트 1회 호출로 함께 처리
+ * Redisson 락은 비동기 API(현재 스레드 아이디를 소유자로 지정)로 요청하고 CompletableFuture 로 기다리므로,
+ * 가상 스레드 모드(spring.threads.virtual.enabled)에서는 Redis 락을 기다리는 동안 캐리어 스레드를 점유하지 않는다.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class LockService {
+    private static final long LOCK_LEASE_MILLIS = 15000L;
+    private static final long SCRIPT_RETRY_MILLIS = 10L;
+
     private final RedissonClient redissonClient;
+    private final RedisLockScript redisLockScript;
+    private final AccountMetrics accountMetrics;
+    private final LocalLockRegistry localLockRegistry = new LocalLockRegistry();
+
+    // 계좌별 로컬 대기열 최대 길이 (넘으면 대기 없이 바로 실패)
+    @Value("${account.lock.max-queue-depth:32}")
+    private int maxQueueDepth = 32;
+
+    // 로컬 락 사용 여부 (false 이면 Redis 락만 사용)
+    @Value("${account.lock.local-tier.enabled:true}")
+    private boolean localTierEnabled = true;
 
-    public void lock(String accountNumber) {
-        RLock lock = redissonClient.getLock(getLockKey(accountNumber));
+    // waitMillis: 락 취득까지 기다릴 수 있는 최대 시간 (@AccountLock.tryLockTime)
+    public void lock(String accountNumber, long waitMillis) {
         log.debug("Trying lock for accountNumber: {}", accountNumber);
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + TimeUnit.MILLISECONDS.toNanos(waitMillis);
+        boolean isLocalLock = false;
+        boolean isLock = false;
 
         try {
-            boolean isLock = lock.tryLock(1, 15, TimeUnit.SECONDS);
-            if (!isLock) {
+            // 1. 로컬 락 취득 (같은 서버의 대기자는 먼저 온 순서대로)
+            localLock(accountNumber, waitMillis, startedAt);
+            isLocalLock = true;
+
+            // 2. 남은 대기 시간 동안 Redis 락 취득
+            RLock lock = redissonClient.getLock(getLockKey(accountNumber));
+            if (!tryLock(lock, remainingMillis(deadline))) {
                 log.error("Failed to lock for accountNumber: {}", accountNumber);
+                recordLockWait(startedAt, "redis_timeout", ACCOUNT_TRANSACTION_LOCK);
                 throw new AccountException(ACCOUNT_TRANSACTION_LOCK);
             }
+            recordLockWait(startedAt, "acquired", null);
+            isLock = true;
         } catch (AccountException e) {
             throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while waiting lock for accountNumber: {}", accountNumber);
+            recordLockWait(startedAt, "interrupted", ACCOUNT_TRANSACTION_LOCK);
+            throw new AccountException(ACCOUNT_TRANSACTION_LOCK);
         } catch (Exception e) {
+            // Redis 오류 시에는 로컬 락만으로 진행
             log.error("Redis lock error", e);
+            recordLockWait(startedAt, "redis_error", null);
+            isLock = true;
+        } finally {
+            // Redis 락을 취득하지 못한 경우(시간 초과, 인터럽트), 로컬 락 해제
+            if (isLocalLock && !isLock)
+                localUnlock(accountNumber);
         }
     }
 
 
-    public void unlock(String accountNumber) {
+    // failure: 락을 잡고 처리하는 중에 발생한 예외 (성공이면 null, 락 보유 시간 지표의 outcome / error_code)
+    public void unlock(String accountNumber, Throwable failure) {
         log.debug("Unlock for accountNumber: {}", accountNumber);
-        redissonClient.getLock(getLockKey(accountNumber)).unlock();
+        try {
+            await(redissonClient.getLock(getLockKey(accountNumber)).unlockAsync(Thread.currentThread().threadId()));
+        } finally {
+            releaseLocalLock(accountNumber, failure);
+        }
+    }
+
+
+    // 여러 계좌 락 (계좌 이체)
+    // 항상 계좌 번호 순서로 취득하므로, 반대 방향의 이체가 동시에 들어와도 서로를 기다리는 교착 상태가 생기지 않는다
+    public void lockAll(Collection<String> accountNumbers, long waitMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMillis);
+        List<String> lockedAccountNumbers = new ArrayList<>();
+
+        try {
+            for (String accountNumber : getLockOrder(accountNumbers)) {
+                lock(accountNumber, remainingMillis(deadline));
+                lockedAccountNumbers.add(accountNumber);
+            }
+        } catch (RuntimeException e) {
+            // 일부 계좌만 취득한 경우, 취득한 락 해제
+            unlockAll(lockedAccountNumbers, e);
+            throw e;
+        }
     }
 
 
+    // 여러 계좌 락 해제 (취득 순서의 역순)
+    public void unlockAll(Collection<String> accountNumbers, Throwable failure) {
+        List<String> unlockOrder = getLockOrder(accountNumbers);
+        Collections.reverse(unlockOrder);
+
+        RuntimeException unlockFailure = null;
+        for (String accountNumber : unlockOrder) {
+            try {
+                unlock(accountNumber, failure);
+            } catch (RuntimeException e) {
+                // 하나가 실패해도 나머지 락은 해제
+                if (unlockFailure == null)
+                    unlockFailure = e;
+                else
+                    unlockFailure.addSuppressed(e);
+            }
+        }
+        if (unlockFailure != null)
+            throw unlockFailure;
+    }
+
+
+    // 계좌 락 + 멱등성 키 선점 (SCRIPT 락 프로토콜, claim 이 null 이면 락만 취득)
+    // 멱등성 키에 이미 기록이 있으면 락을 잡지 않고 EXISTING 반환
+    // Redis 락은 한 번의 스크립트 호출로 모든 계좌를 취득하거나 하나도 취득하지 않으며, 다른 요청이 보유 중이면 짧게 쉬고 재시도
+    public RedisLockScript.Result lockAndClaim(Collection<String> accountNumbers, long waitMillis,
+                                               IdempotencyClaim claim) {
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + TimeUnit.MILLISECONDS.toNanos(waitMillis);
+        List<String> lockOrder = getLockOrder(accountNumbers);
+        List<String> localLockedAccountNumbers = new ArrayList<>();
+        boolean isLock = false;
+
+        try {
+            // 1. 로컬 락 취득 (계좌 번호 순서)
+            for (String accountNumber : lockOrder) {
+                localLock(accountNumber, remainingMillis(deadline), startedAt);
+                localLockedAccountNumbers.add(accountNumber);
+            }
+
+            // 2. 남은 대기 시간 동안 Redis 락 취득 + 멱등성 키 선점
+            while (true) {
+                RedisLockScript.Result result = redisLockScript.acquire(
+                        getLockKeys(lockOrder), getLockOwner(), LOCK_LEASE_MILLIS, claim);
+                if (result.getStatus() == RedisLockScript.Status.ACQUIRED) {
+                    log.debug("Locked accountNumbers: {}, fencingToken: {}", lockOrder, result.getFencingToken());
+                    recordLockWait(startedAt, "acquired", null);
+                    isLock = true;
+                    return result;
+                }
+                if (result.getStatus() == RedisLockScript.Status.EXISTING) {
+                    recordLockWait(startedAt, "existing", null);
+                    return result;
+                }
+
+                long remainingMillis = remainingMillis(deadline);
+                if (remainingMillis == 0) {
+                    log.error("Failed to lock for accountNumbers: {}", lockOrder);
+                    recordLockWait(startedAt, "redis_timeout", ACCOUNT_TRANSACTION_LOCK);
+                    throw new AccountException(ACCOUNT_TRANSACTION_LOCK);
+                }
+                Thread.sleep(Math.min(remainingMillis, SCRIPT_RETRY_MILLIS));
+            }
+        } catch (AccountException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while waiting lock for accountNumbers: {}", lockOrder);
+            recordLockWait(startedAt, "interrupted", ACCOUNT_TRANSACTION_LOCK);
+            throw new AccountException(ACCOUNT_TRANSACTION_LOCK);
+        } catch (Exception e) {
+            // Redisson 락과 마찬가지로 Redis 오류 시에는 로컬 락만으로 진행
+            log.error("Redis lock error", e);
+            recordLockWait(startedAt, "redis_error", null);
+            isLock = true;
+            return new RedisLockScript.Result(RedisLockScript.Status.ACQUIRED, 0L, null);
+        } finally {
+            if (!isLock)
+                localUnlockAll(localLockedAccountNumbers);
+        }
+    }
+
+
+    // 처리 결과 기록 + 계좌 락 해제 (SCRIPT 락 프로토콜, result 가 null 이면 멱등성 키 선점 해제)
+    public void unlockAndRecord(Collection<String> accountNumbers, IdempotencyClaim claim, IdempotencyRecord result,
+                                Throwable failure) {
+        List<String> lockOrder = getLockOrder(accountNumbers);
+        log.debug("Unlock for accountNumbers: {}", lockOrder);
+        try {
+            redisLockScript.release(getLockKeys(lockOrder), getLockOwner(), LOCK_LEASE_MILLIS, claim, result);
+        } finally {
+            for (int i = lockOrder.size() - 1; i >= 0; i--)
+                releaseLocalLock(lockOrder.get(i), failure);
+        }
+    }
+
+
+    // Redisson 락 취득 시도 (동기 API 와 같이 현재 스레드 아이디가 소유자)
+    private static boolean tryLock(RLock lock, long waitMillis) throws InterruptedException, ExecutionException {
+        long threadId = Thread.currentThread().threadId();
+        CompletableFuture<Boolean> future = lock.tryLockAsync(
+                waitMillis, LOCK_LEASE_MILLIS, TimeUnit.MILLISECONDS, threadId).toCompletableFuture();
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            // 기다리는 중에 인터럽트된 경우, 뒤늦게 취득한 락은 바로 해제
+            future.thenAccept(locked -> {
+                if (locked)
+                    lock.unlockAsync(threadId);
+            });
+            throw e;
+        }
+    }
+
+    // Redisson 비동기 호출 대기 (실패 시 동기 API 와 같은 예외 전달)
+    private static void await(RFuture<Void> future) {
+        try {
+            future.toCompletableFuture().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            throw e;
+        }
+    }
+
+    // startedAt: 락 대기 시작 시각 (실패 시 대기 시간 기록)
+    private void localLock(String accountNumber, long waitMillis, long startedAt) throws InterruptedException {
+        if (!localTierEnabled)
+            return;
+
+        LocalLockRegistry.Acquisition acquisition = localLockRegistry.tryLock(
+                accountNumber, waitMillis, TimeUnit.MILLISECONDS, maxQueueDepth);
+        if (acquisition != LocalLockRegistry.Acquisition.ACQUIRED) {
+            log.error("Failed to local lock for accountNumber: {}, {}", accountNumber, acquisition);
+            recordLockWait(startedAt, acquisition.name().toLowerCase(), ACCOUNT_TRANSACTION_LOCK);
+            throw new AccountException(ACCOUNT_TRANSACTION_LOCK);
+        }
+    }
+
+    private void recordLockWait(long startedAt, String outcome, ErrorCode errorCode) {
+        accountMetrics.recordLockWait(System.nanoTime() - startedAt, outcome, errorCode);
+    }
+
+    // 락 취득 실패 시 로컬 락 해제 (취득 순서의 역순)
+    private void localUnlockAll(List<String> accountNumbers) {
+        for (int i = accountNumbers.size() - 1; i >= 0; i--)
+            localUnlock(accountNumbers.get(i));
+    }
+
+    private void localUnlock(String accountNumber) {
+        if (localTierEnabled)
+            localLockRegistry.unlock(accountNumber);
+    }
+
+    // 처리 완료 후 로컬 락 해제 + 락 보유 시간 기록
+    private void releaseLocalLock(String accountNumber, Throwable failure) {
+        if (localTierEnabled)
+            accountMetrics.recordLockHold(localLockRegistry.unlock(accountNumber), failure);
+    }
+
+    // Redisson 락과 같은 소유자 형식 (클라이언트 아이디:스레드 아이디)
+    private String getLockOwner() {
+        return redissonClient.getId() + ":" + Thread.currentThread().threadId();
+    }
+
+    private static List<String> getLockKeys(List<String> accountNumbers) {
+        return accountNumbers.stream()
+                .map(LockService::getLockKey)
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> getLockOrder(Collection<String> accountNumbers) {
+        return accountNumbers.stream()
+                .distinct()
+                .sorted()
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    private static long remainingMillis(long deadline) {
+        return Math.max(0L, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+    }
+
     private static String getLockKey(String accountNumber) {
         return "ACLK:" + accountNumber;
     }
@@ -0,0 +1,67 @@
+package com.ian.account.service;
+
+import com.ian.account.exception.AccountException;
+import com.ian.account.type.TransactionMode;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.ian.account.type.ErrorCode.ACCOUNT_TRANSACTION_LOCK;
+
+/**
+ * 낙관적 락 충돌 재시도
+ * 버전 충돌은 트랜잭션 커밋 시점에 발생하므로, 트랜잭션 AOP 보다 바깥에서 실행되어야
+ * 매 시도마다 새 트랜잭션(새 영속성 컨텍스트)에서 계좌를 다시 읽는다.
+ * 최대 시도 횟수를 넘기면 락 취득 실패와 같은 ACCOUNT_TRANSACTION_LOCK 예외 발생
+ * LOCKED 가 아닌 거래 방식에서는 락 없이 처리되는 거래와 락을 잡는 거래(이체 등)가 같은 계좌를 동시에 변경할 수 있으므로,
+ * 락을 잡는 거래도 버전 충돌 시 재시도한다.
+ */
+@Aspect
+@Component
+@Slf4j
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class OptimisticRetryAspect {
+    @Value("${account.transaction.mode:LOCKED}")
+    private TransactionMode transactionMode = TransactionMode.LOCKED;
+
+    @Value("${account.transaction.optimistic.max-attempts:5}")
+    private int maxAttempts = 5;
+
+    @Value("${account.transaction.optimistic.backoff-millis:10}")
+    private long backoffMillis = 10L;
+
+    @Around("@annotation(com.ian.account.aop.OptimisticRetry)")
+    public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (transactionMode == TransactionMode.LOCKED)
+            return joinPoint.proceed();
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    log.error("Optimistic lock conflict, give up after {} attempts", attempt);
+                    throw new AccountException(ACCOUNT_TRANSACTION_LOCK);
+                }
+
+                log.debug("Optimistic lock conflict, retry attempt: {}", attempt);
+                Thread.sleep(getBackoffMillis(attempt));
+            }
+        }
+    }
+
+
+    // 지수 백오프 + 지터 (함께 충돌한 요청들이 같은 시점에 다시 충돌하지 않도록)
+    private long getBackoffMillis(int attempt) {
+        long maxBackoff = backoffMillis << Math.min(attempt - 1, 6);
+        return ThreadLocalRandom.current().nextLong(maxBackoff / 2, maxBackoff + 1);
+    }
+}
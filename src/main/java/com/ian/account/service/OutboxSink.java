@@ -0,0 +1,14 @@
+package com.ian.account.service;
+
+import com.ian.account.dto.BalanceChangeEvent;
+
+import java.util.List;
+
+/**
+ * 잔액 변경 알림 전달 대상 (TransactionOutbox 의 전달 스레드가 사용)
+ * account.outbox.sink 설정으로 구현체 선택 (file: 로컬 파일 또는 로그 / redis-stream: Redis Stream)
+ */
+public interface OutboxSink {
+    // 아이디 순서대로 전달 (모두 전달한 뒤에 반환하고, 실패하면 예외 발생 -> 같은 알림을 다시 전달)
+    void publish(List<BalanceChangeEvent> events);
+}
@@ -0,0 +1,43 @@
+package com.ian.account.service;
+
+import com.ian.account.aop.ReadReplica;
+import com.ian.account.config.ReadReplicaRoutingDataSource;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 복제본 읽기 표시
+ * 서비스의 @Transactional(readOnly = true) 메서드와 @ReadReplica 메서드를 실행하는 동안,
+ * 읽기 전용 트랜잭션의 커넥션을 복제본에서 가져오도록 표시한다. (ReadReplicaRoutingDataSource)
+ * 표시가 없는 곳의 읽기 전용 트랜잭션(Repository 기본 트랜잭션 등)은 방금 쓴 데이터를 읽어야 할 수 있으므로 원본을 사용한다.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(name = "account.datasource.replica.enabled", havingValue = "true")
+public class ReadReplicaAspect {
+    @Around("execution(* com.ian.account.service..*(..)) && @annotation(readReplica)")
+    public Object aroundReadReplica(ProceedingJoinPoint joinPoint, ReadReplica readReplica) throws Throwable {
+        return proceedOnReplica(joinPoint);
+    }
+
+    @Around("execution(* com.ian.account.service..*(..)) && @annotation(transactional)")
+    public Object aroundReadOnly(ProceedingJoinPoint joinPoint, Transactional transactional) throws Throwable {
+        if (!transactional.readOnly())
+            return joinPoint.proceed();
+
+        return proceedOnReplica(joinPoint);
+    }
+
+    private Object proceedOnReplica(ProceedingJoinPoint joinPoint) throws Throwable {
+        boolean previous = ReadReplicaRoutingDataSource.preferReplica();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ReadReplicaRoutingDataSource.restore(previous);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.ian.account.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ian.account.dto.IdempotencyRecord;
+import lombok.RequiredArgsConstructor;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Redis 멱등성 키 저장소 (SET NX 로 선점, 기록은 TTL 이 지나면 만료)
+@Component
+@ConditionalOnProperty(name = "account.idempotency.store", havingValue = "redis", matchIfMissing = true)
+@RequiredArgsConstructor
+public class RedisIdempotencyStore implements IdempotencyStore {
+    private final RedissonClient redissonClient;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public IdempotencyRecord claim(String key, String fingerprint, Duration ttl) {
+        RBucket<String> bucket = getBucket(key);
+        String claimed = toJson(IdempotencyRecord.inProgress(fingerprint));
+
+        // 선점에 실패했는데 그 사이 기록이 만료된 경우 한 번 더 선점 시도
+        for (int attempt = 0; attempt < 2; attempt++) {
+            if (bucket.setIfAbsent(claimed, ttl))
+                return null;
+
+            String existing = bucket.get();
+            if (existing != null)
+                return fromJson(existing);
+        }
+        return IdempotencyRecord.inProgress(fingerprint);
+    }
+
+    @Override
+    public void complete(String key, IdempotencyRecord record, Duration ttl) {
+        getBucket(key).set(toJson(record), ttl);
+    }
+
+    @Override
+    public void release(String key) {
+        getBucket(key).delete();
+    }
+
+
+    // Redis 키 (SCRIPT 락 프로토콜의 스크립트도 같은 키를 사용)
+    static String getKey(String key) {
+        return "IDEM:" + key;
+    }
+
+    private RBucket<String> getBucket(String key) {
+        return redissonClient.getBucket(getKey(key), StringCodec.INSTANCE);
+    }
+
+    private String toJson(IdempotencyRecord record) {
+        try {
+            return objectMapper.writeValueAsString(record);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to write idempotency record", e);
+        }
+    }
+
+    private IdempotencyRecord fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, IdempotencyRecord.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to read idempotency record", e);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.ian.account.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ian.account.dto.IdempotencyClaim;
+import com.ian.account.dto.IdempotencyRecord;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 계좌 락 Lua 스크립트 (SCRIPT 락 프로토콜)
+ * 1. 취득: 멱등성 키 확인 + 모든 계좌 락 취득 + 펜싱 토큰 발급 + 멱등성 키 선점 (Redis 호출 1회)
+ * 2. 해제: 처리 결과 기록 + 계좌 락 해제 (Redis 호출 1회)
+ * 계좌 락은 Redisson 락과 같은 키와 형식(hash: 소유자 -> 보유 횟수)을 사용하므로 REDISSON 프로토콜과 서로 배타적이고,
+ * 여러 계좌의 락은 스크립트 안에서 전부 취득하거나 하나도 취득하지 않는다.
+ * RedissonLock 과 같이 재진입 가능: 같은 소유자가 다시 취득하면 보유 횟수를 늘리고, 해제할 때 줄여서 0 이 되면 삭제한다.
+ * (배포 중 두 프로토콜이 섞이거나 @AccountLock 이 중첩되어도 한쪽의 해제가 다른 쪽의 락을 지우지 않음)
+ * 펜싱 토큰: 락을 취득할 때마다 증가하는 번호 (락 임대 시간이 지난 뒤 늦게 도착한 쓰기를 구분하는 데 사용)
+ * 스크립트가 여러 키를 함께 다루므로 Redis 클러스터에서는 키들이 같은 슬롯에 있어야 한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class RedisLockScript {
+    private static final String FENCING_TOKEN_KEY = "ACLK:FENCE";
+
+    // KEYS[1]: 펜싱 토큰, KEYS[2]: 멱등성 키 (ARGV[1] == '1' 인 경우), 나머지: 계좌 락
+    // ARGV[2]: 락 소유자, ARGV[3]: 락 임대 시간(ms), ARGV[4]: 처리 중 기록, ARGV[5]: 처리 중 기록 보관 시간(ms)
+    private static final String ACQUIRE_SCRIPT = """
+            local first = 2
+            if ARGV[1] == '1' then
+                local record = redis.call('get', KEYS[2])
+                if record then
+                    return {'EXISTING', record}
+                end
+                first = 3
+            end
+            for i = first, #KEYS do
+                if redis.call('exists', KEYS[i]) == 1 and redis.call('hexists', KEYS[i], ARGV[2]) == 0 then
+                    return {'LOCKED'}
+                end
+            end
+            local token = redis.call('incr', KEYS[1])
+            for i = first, #KEYS do
+                redis.call('hincrby', KEYS[i], ARGV[2], 1)
+                redis.call('pexpire', KEYS[i], ARGV[3])
+            end
+            if ARGV[1] == '1' then
+                redis.call('set', KEYS[2], ARGV[4], 'px', ARGV[5])
+            end
+            return {'ACQUIRED', tostring(token)}
+            """;
+
+    // KEYS[1]: 멱등성 키 (ARGV[1] == '1' 인 경우), 나머지: 계좌 락
+    // ARGV[2]: 락 소유자, ARGV[3]: 처리 결과 기록 (빈 문자열이면 선점 해제), ARGV[4]: 기록 보관 시간(ms), ARGV[5]: 락 임대 시간(ms)
+    // 보유 횟수가 남으면 임대 시간만 연장하고, 0 이 되면 삭제 후 Redisson 락 채널에 알려 Redisson 락을 기다리는 다른 서버가 바로 재시도하게 한다
+    private static final String RELEASE_SCRIPT = """
+            local first = 1
+            if ARGV[1] == '1' then
+                if ARGV[3] == '' then
+                    redis.call('del', KEYS[1])
+                else
+                    redis.call('set', KEYS[1], ARGV[3], 'px', ARGV[4])
+                end
+                first = 2
+            end
+            for i = first, #KEYS do
+                if redis.call('hexists', KEYS[i], ARGV[2]) == 1 then
+                    if redis.call('hincrby', KEYS[i], ARGV[2], -1) > 0 then
+                        redis.call('pexpire', KEYS[i], ARGV[5])
+                    else
+                        redis.call('del', KEYS[i])
+                        redis.call('publish', 'redisson_lock__channel:{' .. KEYS[i] .. '}', 0)
+                    end
+                end
+            end
+            return 1
+            """;
+
+    private final RedissonClient redissonClient;
+    private final ObjectMapper objectMapper;
+
+    public enum Status {
+        ACQUIRED, // 락 취득 (멱등성 키 선점)
+        LOCKED, // 다른 요청이 락을 보유 중
+        EXISTING // 멱등성 키에 이미 기록이 있음 (락은 취득하지 않음)
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Result {
+        private Status status;
+        private long fencingToken; // ACQUIRED 인 경우 펜싱 토큰
+        private IdempotencyRecord record; // EXISTING 인 경우 기록
+    }
+
+
+    // 계좌 락 취득 + 멱등성 키 선점 (claim 이 null 이면 락만 취득)
+    public Result acquire(List<String> lockKeys, String owner, long leaseMillis, IdempotencyClaim claim) {
+        List<Object> keys = new ArrayList<>();
+        keys.add(FENCING_TOKEN_KEY);
+        if (claim != null)
+            keys.add(RedisIdempotencyStore.getKey(claim.getKey()));
+        keys.addAll(lockKeys);
+
+        List<String> result = getScript().eval(RScript.Mode.READ_WRITE, ACQUIRE_SCRIPT, RScript.ReturnType.MULTI,
+                keys, claim != null ? "1" : "0", owner, String.valueOf(leaseMillis),
+                claim != null ? toJson(IdempotencyRecord.inProgress(claim.getFingerprint())) : "",
+                claim != null ? String.valueOf(claim.getClaimTtl().toMillis()) : "0");
+
+        Status status = Status.valueOf(result.get(0));
+        return switch (status) {
+            case ACQUIRED -> new Result(status, Long.parseLong(result.get(1)), null);
+            case LOCKED -> new Result(status, 0L, null);
+            case EXISTING -> new Result(status, 0L, fromJson(result.get(1)));
+        };
+    }
+
+
+    // 처리 결과 기록 + 계좌 락 해제 (result 가 null 이면 멱등성 키 선점 해제)
+    public void release(List<String> lockKeys, String owner, long leaseMillis, IdempotencyClaim claim,
+                        IdempotencyRecord result) {
+        List<Object> keys = new ArrayList<>();
+        if (claim != null)
+            keys.add(RedisIdempotencyStore.getKey(claim.getKey()));
+        keys.addAll(lockKeys);
+
+        getScript().eval(RScript.Mode.READ_WRITE, RELEASE_SCRIPT, RScript.ReturnType.INTEGER,
+                keys, claim != null ? "1" : "0", owner,
+                result != null ? toJson(result) : "",
+                claim != null ? String.valueOf(claim.getTtl().toMillis()) : "0",
+                String.valueOf(leaseMillis));
+    }
+
+
+    private RScript getScript() {
+        return redissonClient.getScript(StringCodec.INSTANCE);
+    }
+
+    private String toJson(IdempotencyRecord record) {
+        try {
+            return objectMapper.writeValueAsString(record);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to write idempotency record", e);
+        }
+    }
+
+    private IdempotencyRecord fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, IdempotencyRecord.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to read idempotency record", e);
+        }
+    }
+}
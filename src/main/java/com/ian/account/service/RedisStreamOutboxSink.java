@@ -0,0 +1,52 @@
+package com.ian.account.service;
+
+import com.ian.account.dto.BalanceChangeEvent;
+import lombok.RequiredArgsConstructor;
+import org.redisson.api.BatchOptions;
+import org.redisson.api.RBatch;
+import org.redisson.api.RStreamAsync;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.stream.StreamAddArgs;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Redis Stream 알림 전달 (한 묶음을 파이프라인 1회로 XADD, 스트림 길이는 stream-max-length 근처로 유지)
+@Component
+@ConditionalOnProperty(name = "account.outbox.sink", havingValue = "redis-stream")
+@RequiredArgsConstructor
+public class RedisStreamOutboxSink implements OutboxSink {
+    private final RedissonClient redissonClient;
+
+    @Value("${account.outbox.stream-key:balance-changes}")
+    private String streamKey = "balance-changes";
+
+    @Value("${account.outbox.stream-max-length:1000000}")
+    private int streamMaxLength = 1000000;
+
+    @Override
+    public void publish(List<BalanceChangeEvent> events) {
+        RBatch batch = redissonClient.createBatch(BatchOptions.defaults());
+        RStreamAsync<String, String> stream = batch.getStream(streamKey, StringCodec.INSTANCE);
+        for (BalanceChangeEvent event : events)
+            stream.addAsync(StreamAddArgs.entries(toFields(event)).trimNonStrict().maxLen(streamMaxLength).noLimit());
+        batch.execute();
+    }
+
+    private static Map<String, String> toFields(BalanceChangeEvent event) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("eventId", String.valueOf(event.getEventId()));
+        fields.put("accountNumber", event.getAccountNumber());
+        fields.put("transactionType", event.getTransactionType().name());
+        fields.put("amount", String.valueOf(event.getAmount()));
+        fields.put("balance", String.valueOf(event.getBalance()));
+        fields.put("transactionId", event.getTransactionId());
+        fields.put("transactedAt", event.getTransactedAt().toString());
+        return fields;
+    }
+}
@@ -0,0 +1,74 @@
+package com.ian.account.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ian.account.dto.TransactionDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * 거래 확인 캐시 (서버 메모리, 거래 아이디 -> TransactionDTO)
+ * 거래 내역은 한 번 기록되면 바뀌지 않으므로, 저장한 거래를 커밋 직후 캐시에 넣고 조회 시 DB 커넥션 없이 반환한다.
+ * 캐시에 없는 거래를 여러 요청이 동시에 조회하면 DB 조회는 한 번만 하고 결과를 함께 사용한다. (AsyncCacheLoading)
+ * 최대 maximum-size 건, 저장 후 ttl-seconds 가 지나면 제거된다. (없는 거래는 캐시하지 않음)
+ * 지표: cache.gets{cache=transaction, result=hit|miss}, cache.size, cache.evictions
+ * 캐시된 DTO 는 여러 요청이 함께 사용하므로 변경하지 않는다.
+ */
+@Component
+@RequiredArgsConstructor
+public class TransactionCache {
+    private static final String CACHE_NAME = "transaction";
+
+    private final MeterRegistry meterRegistry;
+    private AsyncCache<String, TransactionDTO> cache;
+
+    @Value("${account.transaction.cache.maximum-size:100000}")
+    private long maximumSize = 100000L;
+
+    @Value("${account.transaction.cache.ttl-seconds:600}")
+    private long ttlSeconds = 600L;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), CACHE_NAME);
+    }
+
+
+    // 캐시에 없으면 loader 로 조회하여 저장 (loader 의 예외는 그대로 전달)
+    public TransactionDTO get(String transactionId, Function<String, TransactionDTO> loader) {
+        return AsyncCacheLoading.get(cache, transactionId, loader);
+    }
+
+    // 커밋된 뒤에 저장 (롤백된 거래는 저장하지 않음, 트랜잭션 밖에서는 바로 저장)
+    public void putAfterCommit(TransactionDTO transactionDTO) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(transactionDTO);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                put(transactionDTO);
+            }
+        });
+    }
+
+    public void put(TransactionDTO transactionDTO) {
+        cache.synchronous().put(transactionDTO.getTransactionId(), transactionDTO);
+    }
+}
@@ -0,0 +1,178 @@
+package com.ian.account.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ian.account.dto.TransactionExport;
+import com.ian.account.exception.AccountException;
+import com.ian.account.repository.AccountRepository;
+import com.ian.account.type.ExportFormat;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.SelectionQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static com.ian.account.type.ErrorCode.ACCOUNT_NOT_FOUND;
+
+/**
+ * 거래 내역 내보내기 (정산용 전체 거래 내역)
+ * 조건에 맞는 거래를 읽기 전용 트랜잭션에서 앞으로만 읽는 커서(ScrollableResults)로 한 건씩 읽어 응답에 바로 쓴다.
+ * 엔티티가 아닌 컬럼 값만 조회하므로 영속성 컨텍스트에 쌓이거나 dirty checking 되는 객체가 없고,
+ * 목록으로 모으지 않으므로 거래 수(수천만 건)와 관계없이 메모리 사용량이 일정하다.
+ * 한 번에 가져오는 행 수는 fetch-size 이며, 드라이버가 이를 지원해야 DB 결과도 나누어 받는다.
+ * (H2 메모리 DB 는 결과를 모두 만든 뒤 돌려주며, 큰 결과는 임시 파일을 사용한다)
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransactionExportService {
+    private static final String CSV_HEADER =
+            "transactionId,accountNumber,transactionType,transactionResultType,amount,balanceSnapshot,transactedAt\n";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final EntityManager entityManager;
+    private final AccountRepository accountRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    // DB 에서 한 번에 가져오는 행 수
+    @Value("${account.export.fetch-size:1000}")
+    private int fetchSize = 1000;
+
+
+    /**
+     * 실패 케이스
+     * 계좌 번호가 주어졌는데 계좌가 없는 경우 (응답을 쓰기 전에 실패)
+     */
+    public StreamingResponseBody export(TransactionExport.Request request) {
+        Long accountId = request.getAccountNumber() == null ? null
+                : accountRepository.findIdByAccountNumber(request.getAccountNumber())
+                .orElseThrow(() -> new AccountException(ACCOUNT_NOT_FOUND));
+
+        return outputStream -> {
+            OutputStream out = request.isGzip() ? new GZIPOutputStream(outputStream, BUFFER_SIZE) : outputStream;
+            long rows = write(request, accountId, new BufferedOutputStream(out, BUFFER_SIZE));
+            log.info("Exported {} transactions for accountNumber: {}, from: {}, to: {}",
+                    rows, request.getAccountNumber(), request.getFrom(), request.getTo());
+        };
+    }
+
+
+    // 내보낸 행 수 반환
+    long write(TransactionExport.Request request, Long accountId, OutputStream out) throws IOException {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+
+        try {
+            Long rows = transactionTemplate.execute(status -> {
+                try (ScrollableResults<Object[]> results = createQuery(request, accountId)
+                        .scroll(ScrollMode.FORWARD_ONLY)) {
+                    return request.getFormat() == ExportFormat.CSV
+                            ? writeCsv(results, out) : writeNdjson(results, out);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return rows == null ? 0L : rows;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            out.close();
+        }
+    }
+
+    private SelectionQuery<Object[]> createQuery(TransactionExport.Request request, Long accountId) {
+        StringBuilder hql = new StringBuilder("select t.transactionId, a.accountNumber, t.transactionType, " +
+                "t.transactionResultType, t.amount, t.balanceSnapshot, t.transactedAt " +
+                "from Transaction t join t.account a where 1 = 1");
+        List<Object[]> parameters = new ArrayList<>();
+        if (accountId != null) {
+            hql.append(" and t.account.id = :accountId");
+            parameters.add(new Object[]{"accountId", accountId});
+        }
+        if (request.getFrom() != null) {
+            hql.append(" and t.transactedAt >= :from");
+            parameters.add(new Object[]{"from", request.getFrom()});
+        }
+        if (request.getTo() != null) {
+            hql.append(" and t.transactedAt < :to");
+            parameters.add(new Object[]{"to", request.getTo()});
+        }
+        hql.append(" order by t.transactedAt, t.id");
+
+        SelectionQuery<Object[]> query = entityManager.unwrap(Session.class)
+                .createSelectionQuery(hql.toString(), Object[].class)
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE);
+        for (Object[] parameter : parameters)
+            query.setParameter((String) parameter[0], parameter[1]);
+        return query;
+    }
+
+    private long writeNdjson(ScrollableResults<Object[]> results, OutputStream out) throws IOException {
+        long rows = 0L;
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // 객체 사이의 기본 구분자(공백) 대신 줄바꿈만 사용
+        generator.setRootValueSeparator(null);
+        while (results.next()) {
+            Object[] row = results.get();
+            generator.writeStartObject();
+            generator.writeStringField("transactionId", (String) row[0]);
+            generator.writeStringField("accountNumber", (String) row[1]);
+            generator.writeStringField("transactionType", String.valueOf(row[2]));
+            generator.writeStringField("transactionResultType", String.valueOf(row[3]));
+            writeNumberField(generator, "amount", (Long) row[4]);
+            writeNumberField(generator, "balanceSnapshot", (Long) row[5]);
+            generator.writeStringField("transactedAt", row[6] == null ? null : row[6].toString());
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            rows++;
+        }
+        generator.flush();
+        return rows;
+    }
+
+    private static long writeCsv(ScrollableResults<Object[]> results, OutputStream out) throws IOException {
+        // 모든 값이 16진수 / 숫자 / 영문 대문자 / ISO 일시이므로 따옴표 처리가 필요 없다
+        long rows = 0L;
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        writer.write(CSV_HEADER);
+        while (results.next()) {
+            Object[] row = results.get();
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0)
+                    writer.write(',');
+                if (row[i] != null)
+                    writer.write(row[i] instanceof LocalDateTime ? row[i].toString() : String.valueOf(row[i]));
+            }
+            writer.write('\n');
+            rows++;
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private static void writeNumberField(JsonGenerator generator, String name, Long value) throws IOException {
+        if (value == null)
+            generator.writeNullField(name);
+        else
+            generator.writeNumberField(name, value);
+    }
+}
@@ -0,0 +1,82 @@
+package com.ian.account.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 거래 아이디 발급기 (시간순 64비트, Snowflake 방식)
+ * [41비트: EPOCH 이후 밀리초][10비트: 서버 번호][12비트: 같은 밀리초 안의 순번]
+ * 발급 순서대로 값이 커지므로 거래 아이디 인덱스에 항상 오른쪽 끝에 추가되고, 8바이트 정수(BIGINT)로 저장한다.
+ * 외부에는 고정 길이(16자리) 16진수 문자열로 노출한다. (format / parse)
+ * 락과 객체 생성 없이 CAS 한 번으로 발급하며, 한 밀리초에 4096개를 넘거나 시계가 뒤로 가면
+ * 기다리지 않고 다음 밀리초 값을 미리 사용한다. (값은 항상 증가)
+ */
+@Component
+public class TransactionIdGenerator {
+    private static final long EPOCH = 1735689600000L; // 2025-01-01T00:00:00Z
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE = (1L << NODE_BITS) - 1;
+    private static final int ID_LENGTH = 16;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    // 마지막으로 발급한 [밀리초][순번]
+    private final AtomicLong lastState = new AtomicLong();
+
+    // 서버 번호 (0 ~ 1023, 서버마다 다르게 설정)
+    @Value("${account.transaction.id.node:0}")
+    private long node = 0L;
+
+    @PostConstruct
+    public void validate() {
+        if (node < 0 || node > MAX_NODE)
+            throw new IllegalStateException("account.transaction.id.node must be between 0 and " + MAX_NODE);
+    }
+
+
+    public long nextId() {
+        while (true) {
+            long now = System.currentTimeMillis() - EPOCH;
+            long last = lastState.get();
+            // 새 밀리초면 순번 0 부터, 아니면 마지막 값 + 1 (순번이 넘치면 밀리초로 올림)
+            long next = now > (last >>> SEQUENCE_BITS) ? now << SEQUENCE_BITS : last + 1;
+            if (lastState.compareAndSet(last, next))
+                return (next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS)
+                        | node << SEQUENCE_BITS
+                        | (next & ((1L << SEQUENCE_BITS) - 1));
+        }
+    }
+
+    public String nextTransactionId() {
+        return format(nextId());
+    }
+
+
+    // 거래 아이디 -> 16자리 16진수 문자열
+    public static String format(long id) {
+        char[] chars = new char[ID_LENGTH];
+        for (int i = ID_LENGTH - 1; i >= 0; i--) {
+            chars[i] = HEX[(int) (id & 0xF)];
+            id >>>= 4;
+        }
+        return new String(chars);
+    }
+
+    // 16자리 16진수 문자열 -> 거래 아이디 (형식이 맞지 않으면 null)
+    public static Long parse(String transactionId) {
+        if (transactionId == null || transactionId.length() != ID_LENGTH)
+            return null;
+
+        long id = 0L;
+        for (int i = 0; i < ID_LENGTH; i++) {
+            int digit = Character.digit(transactionId.charAt(i), 16);
+            if (digit < 0)
+                return null;
+            id = id << 4 | digit;
+        }
+        return id;
+    }
+}
@@ -0,0 +1,53 @@
+package com.ian.account.service;
+
+import com.ian.account.aop.AccountLock;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * 거래 요청 / 실패 거래 내역 기록 시간 측정
+ * 멱등성 키, 계좌 락 AOP 보다 바깥에서 실행되어 요청 전체 시간을 측정한다.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class TransactionMetricsAspect {
+    private final AccountMetrics accountMetrics;
+
+    @Around("@annotation(accountLock)")
+    public Object aroundRequest(ProceedingJoinPoint joinPoint, AccountLock accountLock) throws Throwable {
+        long startedAt = System.nanoTime();
+        Throwable failure = null;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            accountMetrics.recordRequest(String.valueOf(accountLock.transactionType()),
+                    System.nanoTime() - startedAt, failure);
+        }
+    }
+
+
+    @Around("execution(* com.ian.account.service.TransactionService.saveFailed*Transaction*(..))")
+    public Object aroundFailureRecord(ProceedingJoinPoint joinPoint) throws Throwable {
+        long startedAt = System.nanoTime();
+        Throwable failure = null;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            accountMetrics.recordFailureRecord(joinPoint.getSignature().getName(),
+                    System.nanoTime() - startedAt, failure);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.ian.account.service;
+
+import com.ian.account.domain.OutboxEvent;
+import com.ian.account.domain.Transaction;
+import com.ian.account.dto.BalanceChangeEvent;
+import com.ian.account.repository.OutboxEventRepository;
+import com.ian.account.repository.TransactionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.ian.account.type.TransactionResultType.S;
+
+/**
+ * 잔액 변경 알림 (트랜잭션 아웃박스)
+ * 성공한 거래 내역을 저장하는 트랜잭션에서 알림(OutboxEvent)을 함께 추가하므로, 커밋된 거래만 알림이 남는다.
+ * 전달 스레드는 알림을 아이디 순서대로 최대 batch-size 건씩 읽어 OutboxSink 로 전달하고, 전달한 알림을 삭제한다.
+ * 전달 후 삭제 전에 중단되면 같은 알림을 다시 전달한다. (최소 한 번 전달, 수신 측은 eventId 로 중복을 걸러낸다)
+ * 여러 서버 중 Redis 락(OUTBOX:relay)을 잡은 한 서버만 전달하므로, 같은 계좌의 알림은 거래 순서대로 전달된다.
+ * enabled 가 false 이면 알림을 추가하지 않고 전달 스레드도 시작하지 않는다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TransactionOutbox {
+    private static final String RELAY_LOCK_KEY = "OUTBOX:relay";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final TransactionRepository transactionRepository;
+    private final OutboxSink outboxSink;
+    private final PlatformTransactionManager transactionManager;
+    private final RedissonClient redissonClient;
+
+    private Thread relay;
+    private volatile boolean running;
+
+    @Value("${account.outbox.enabled:false}")
+    private boolean enabled = false;
+
+    // 한 번에 전달하는 최대 알림 수
+    @Value("${account.outbox.batch-size:500}")
+    private int batchSize = 500;
+
+    // 전달할 알림이 없을 때(또는 전달에 실패했을 때) 기다리는 시간
+    @Value("${account.outbox.poll-millis:200}")
+    private long pollMillis = 200L;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled)
+            return;
+
+        running = true;
+        relay = Thread.ofPlatform().name("outbox-relay").daemon(true).start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (relay == null)
+            return;
+
+        running = false;
+        relay.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+
+    // 성공한 거래 내역의 알림 추가 (거래 내역을 저장하는 트랜잭션 안에서 호출)
+    public void add(List<Transaction> transactions) {
+        if (!enabled)
+            return;
+
+        List<OutboxEvent> events = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            if (transaction.getTransactionResultType() != S)
+                continue;
+            // 일괄 저장 후 영속성 컨텍스트에서 분리된 거래 내역도 조회 없이 참조
+            events.add(OutboxEvent.builder()
+                    .transaction(transactionRepository.getReferenceById(transaction.getId()))
+                    .build());
+        }
+        outboxEventRepository.saveAll(events);
+    }
+
+    // 알림 한 묶음 전달 -> 전달한 알림 수 반환 (다른 서버가 전달 중이면 0)
+    public int relay() {
+        RLock lock = redissonClient.getLock(RELAY_LOCK_KEY);
+        if (!lock.tryLock())
+            return 0;
+
+        try {
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            List<BalanceChangeEvent> events = readOnly.execute(status ->
+                    outboxEventRepository.findBalanceChanges(PageRequest.of(0, batchSize)));
+            if (events == null || events.isEmpty())
+                return 0;
+
+            outboxSink.publish(events);
+            new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                    outboxEventRepository.deleteAllByIdInBatch(
+                            events.stream().map(BalanceChangeEvent::getEventId).toList()));
+            return events.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    // 한 묶음을 가득 채워 전달했으면 바로 다음 묶음을 전달
+    private void run() {
+        while (running) {
+            try {
+                if (relay() < batchSize)
+                    Thread.sleep(pollMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Failed to relay outbox events", e);
+                try {
+                    Thread.sleep(pollMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
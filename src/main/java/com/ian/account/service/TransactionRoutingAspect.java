@@ -0,0 +1,81 @@
+package com.ian.account.service;
+
+import com.ian.account.type.TransactionMode;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * 거래 방식에 따라 잔액 사용/사용 취소를 다른 처리기로 보낸다.
+ * SINGLE_WRITER: 계좌별 단일 소유자(LedgerEngine) - 잔액 사용, 사용 취소
+ * COALESCED: 같은 계좌의 동시 잔액 사용을 묶어서 처리(DebitBatcher) - 잔액 사용
+ * JOURNAL: 단일 기록 스레드의 추가 전용 원장(LedgerJournal) - 잔액 사용, 사용 취소, 이체, 계좌 해지
+ * 처리 결과를 기다리는 동안 DB 커넥션을 잡고 있지 않도록 트랜잭션 AOP, 낙관적 락 재시도 AOP 보다 바깥에서 실행된다.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 2)
+@RequiredArgsConstructor
+public class TransactionRoutingAspect {
+    private final LedgerEngine ledgerEngine;
+    private final DebitBatcher debitBatcher;
+    private final LedgerJournal ledgerJournal;
+
+    @Value("${account.transaction.mode:LOCKED}")
+    private TransactionMode transactionMode = TransactionMode.LOCKED;
+
+    @Around("execution(* com.ian.account.service.TransactionService.useBalance(..)) " +
+            "&& args(userId, accountNumber, amount)")
+    public Object aroundUseBalance(ProceedingJoinPoint joinPoint, Long userId, String accountNumber, Long amount)
+            throws Throwable {
+        if (transactionMode == TransactionMode.SINGLE_WRITER)
+            return ledgerEngine.useBalance(userId, accountNumber, amount);
+        if (transactionMode == TransactionMode.COALESCED)
+            return debitBatcher.useBalance(userId, accountNumber, amount);
+        if (transactionMode == TransactionMode.JOURNAL)
+            return ledgerJournal.useBalance(userId, accountNumber, amount);
+
+        return joinPoint.proceed();
+    }
+
+
+    @Around("execution(* com.ian.account.service.TransactionService.cancelBalance(..)) " +
+            "&& args(transactionId, accountNumber, amount)")
+    public Object aroundCancelBalance(ProceedingJoinPoint joinPoint, String transactionId, String accountNumber,
+                                      Long amount) throws Throwable {
+        if (transactionMode == TransactionMode.SINGLE_WRITER)
+            return ledgerEngine.cancelBalance(transactionId, accountNumber, amount);
+        if (transactionMode == TransactionMode.JOURNAL)
+            return ledgerJournal.cancelBalance(transactionId, accountNumber, amount);
+
+        return joinPoint.proceed();
+    }
+
+
+    @Around("execution(* com.ian.account.service.TransactionService.transferBalance(..)) " +
+            "&& args(userId, fromAccountNumber, toAccountNumber, amount)")
+    public Object aroundTransferBalance(ProceedingJoinPoint joinPoint, Long userId, String fromAccountNumber,
+                                        String toAccountNumber, Long amount) throws Throwable {
+        if (transactionMode == TransactionMode.JOURNAL)
+            return ledgerJournal.transferBalance(userId, fromAccountNumber, toAccountNumber, amount);
+
+        return joinPoint.proceed();
+    }
+
+
+    // JOURNAL: 계좌 잔액은 메모리의 상태이므로, 잔액 확인이 필요한 계좌 해지도 기록 스레드에서 처리
+    @Around("execution(* com.ian.account.service.AccountService.deleteAccount(..)) " +
+            "&& args(userId, accountNumber)")
+    public Object aroundDeleteAccount(ProceedingJoinPoint joinPoint, Long userId, String accountNumber)
+            throws Throwable {
+        if (transactionMode == TransactionMode.JOURNAL)
+            return ledgerJournal.deleteAccount(userId, accountNumber);
+
+        return joinPoint.proceed();
+    }
+}
@@ -1,29 +1,44 @@
 package com.ian.account.service;
 
 
+import com.ian.account.aop.OptimisticRetry;
+import com.ian.account.aop.ReadReplica;
 import com.ian.account.domain.Account;
 import com.ian.account.domain.AccountUser;
 import com.ian.account.domain.Transaction;
+import com.ian.account.dto.FailedTransaction;
 import com.ian.account.dto.TransactionDTO;
+import com.ian.account.dto.TransactionHistory;
+import com.ian.account.dto.TransactionHistoryItem;
 import com.ian.account.exception.AccountException;
 import com.ian.account.repository.AccountRepository;
 import com.ian.account.repository.AccountUserRepository;
 import com.ian.account.repository.TransactionRepository;
 import com.ian.account.type.AccountStatus;
+import com.ian.account.type.TransactionMode;
 import com.ian.account.type.TransactionResultType;
 import com.ian.account.type.TransactionType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static com.ian.account.type.ErrorCode.*;
 import static com.ian.account.type.TransactionResultType.F;
 import static com.ian.account.type.TransactionResultType.S;
 import static com.ian.account.type.TransactionType.CANCEL;
+import static com.ian.account.type.TransactionType.TRANSFER;
 import static com.ian.account.type.TransactionType.USE;
 
 @Service
@@ -32,6 +47,13 @@ public class TransactionService {
     private final TransactionRepository transactionRepository;
     private final AccountRepository accountRepository;
     private final AccountUserRepository accountUserRepository;
+    private final TransactionIdGenerator transactionIdGenerator;
+    private final TransactionCache transactionCache;
+    private final AccountCache accountCache;
+    private final TransactionOutbox transactionOutbox;
+
+    @Value("${account.transaction.mode:LOCKED}")
+    private TransactionMode transactionMode = TransactionMode.LOCKED;
 
     /**
      * 실패 케이스
@@ -44,8 +66,12 @@ public class TransactionService {
      * 거래 금액이 너무 작거나 큰 경우 -> Entity: @Min, @Max + Controller: @Valid 애너테이션으로 유효성 검사 완료
      */
     // 잔액 사용
+    @OptimisticRetry
     @Transactional
     public TransactionDTO useBalance(Long userId, String accountNumber, Long amount) {
+        if (transactionMode == TransactionMode.CONDITIONAL_UPDATE)
+            return useBalanceByConditionalUpdate(userId, accountNumber, amount);
+
         // 1-1. 사용자가 없는 경우 예외 발생
         AccountUser accountUser = accountUserRepository.findById(userId).orElseThrow(
                 () -> new AccountException(USER_NOT_FOUND));
@@ -57,6 +83,7 @@ public class TransactionService {
 
         // 거래 후, 계좌에 남은 잔액 갱신
         account.useBalance(amount);
+        accountCache.evictAfterCommit(accountUser.getId());
 
         return saveAndGetTransaction(USE, S, account, amount);
     }
@@ -74,6 +101,34 @@ public class TransactionService {
             throw new AccountException(BALANCE_EXCEEDED);
     }
 
+    // 잔액 사용 (조건부 UPDATE) - 유효성 검사와 차감을 UPDATE 한 번으로 처리하므로 락이 필요 없다
+    private TransactionDTO useBalanceByConditionalUpdate(Long userId, String accountNumber, Long amount) {
+        int updatedCount = accountRepository.useBalanceIfPossible(
+                accountNumber, userId, amount, AccountStatus.ACTIVE, LocalDateTime.now());
+        // 차감되지 않은 경우에만 실패 원인을 조회
+        if (updatedCount == 0)
+            throw getUseBalanceFailure(userId, accountNumber, amount);
+
+        // UPDATE 로 잡은 행 잠금은 커밋까지 유지되므로, 다시 조회한 잔액이 이번 거래 후의 잔액
+        Account account = accountRepository.findByAccountNumber(accountNumber).orElseThrow(
+                () -> new AccountException(ACCOUNT_NOT_FOUND));
+        accountCache.evictAfterCommit(userId);
+
+        return saveAndGetTransaction(USE, S, account, amount);
+    }
+
+    // 잔액 사용 (조건부 UPDATE) - 실패 원인 확인 (기존 유효성 검사와 같은 순서로 에러 코드 결정)
+    private AccountException getUseBalanceFailure(Long userId, String accountNumber, Long amount) {
+        AccountUser accountUser = accountUserRepository.findById(userId).orElseThrow(
+                () -> new AccountException(USER_NOT_FOUND));
+        Account account = accountRepository.findByAccountNumber(accountNumber).orElseThrow(
+                () -> new AccountException(ACCOUNT_NOT_FOUND));
+        validateUseBalance(accountUser, account, amount);
+
+        // 조회 시점에는 조건을 만족하는 경우 (UPDATE 이후 다른 거래로 잔액이 바뀐 경우)
+        return new AccountException(BALANCE_EXCEEDED);
+    }
+
     // 잔액 사용에 실패한 경우에도 거래 내역을 기록
     @Transactional
     public void saveFailedUseTransaction(String accountNumber, Long amount) {
@@ -91,10 +146,12 @@ public class TransactionService {
      * 3. 거래와 계좌가 일치하지 않는 경우
      * 4. 거래 금액과 거래 취소 금액이 다른 경우
      * 5. 거래 기간이 1년을 넘은 경우
-     * 6. 해당 계좌에서 이미 다른 거래(사용/사용 취소)를 진행 중인 경우 -> Redis로 동시성 제어 완료
+     * 6. 성공한 잔액 사용 거래가 아닌 경우 (계좌 이체의 보내는/받는 거래를 취소하면 잔액이 새로 생기므로 거부)
+     * 7. 해당 계좌에서 이미 다른 거래(사용/사용 취소)를 진행 중인 경우 -> Redis로 동시성 제어 완료
      * (다른 거래 요청이 오는 경우, 해당 거래가 동시에 잘못 처리되는 것을 방지)
      */
     // 잔액 사용 취소
+    @OptimisticRetry
     @Transactional
     public TransactionDTO cancelBalance(String transactionId, String accountNumber, Long amount) {
         // 1. 거래 아이디에 해당하는 거래가 없는 경우 예외 발생
@@ -108,6 +165,7 @@ public class TransactionService {
 
         // 거래 취소 후, 계좌에 남은 잔액 갱신
         account.cancelBalance(amount);
+        accountCache.evictAfterCommit(account.getAccountUser().getId());
 
         return saveAndGetTransaction(CANCEL, S, account, amount);
     }
@@ -122,6 +180,9 @@ public class TransactionService {
         // 5. 거래 기간이 1년을 넘은 경우
         if (transaction.getTransactedAt().isBefore(LocalDateTime.now().minusYears(1)))
             throw new AccountException(TRANSACTION_CANCELLATION_EXPIRED);
+        // 6. 성공한 잔액 사용 거래가 아닌 경우 (계좌 이체, 사용 취소, 실패한 거래는 취소할 수 없음)
+        if (transaction.getTransactionType() != USE || transaction.getTransactionResultType() != S)
+            throw new AccountException(TRANSACTION_NOT_CANCELLABLE);
     }
 
     // 잔액 사용 취소에 실패한 경우에도 거래 내역을 기록
@@ -134,20 +195,111 @@ public class TransactionService {
     }
 
 
-    // 거래 정보를 저장한 후, DTO로 변환하여 반환
+    /**
+     * 실패 케이스
+     * 1. 보내는 계좌와 받는 계좌가 같은 경우
+     * 2. 사용자 또는 계좌(보내는/받는)가 없는 경우
+     * 3. 사용자와 보내는 계좌의 소유주 정보가 일치하지 않는 경우
+     * 4. 보내는 계좌 또는 받는 계좌가 해지 상태인 경우
+     * 5. 이체 금액이 잔액보다 큰 경우
+     * 6. 두 계좌 중 하나라도 거래가 이미 진행 중인 경우 -> Redis로 동시성 제어 완료 (계좌 번호 순서로 락 취득)
+     */
+    // 계좌 이체 (보내는 계좌 잔액 사용 + 받는 계좌 입금을 하나의 트랜잭션으로 처리)
+    @OptimisticRetry
+    @Transactional
+    public TransactionDTO transferBalance(Long userId, String fromAccountNumber, String toAccountNumber, Long amount) {
+        // 1. 보내는 계좌와 받는 계좌가 같은 경우 예외 발생
+        if (Objects.equals(fromAccountNumber, toAccountNumber))
+            throw new AccountException(SAME_ACCOUNT_TRANSFER);
+        // 2. 사용자 또는 계좌가 없는 경우 예외 발생
+        AccountUser accountUser = accountUserRepository.findById(userId).orElseThrow(
+                () -> new AccountException(USER_NOT_FOUND));
+        Account fromAccount = accountRepository.findByAccountNumber(fromAccountNumber).orElseThrow(
+                () -> new AccountException(ACCOUNT_NOT_FOUND));
+        Account toAccount = accountRepository.findByAccountNumber(toAccountNumber).orElseThrow(
+                () -> new AccountException(ACCOUNT_NOT_FOUND));
+        // 3 ~ 5. 보내는 계좌 유효성 검사 (잔액 사용과 동일)
+        validateUseBalance(accountUser, fromAccount, amount);
+        // 4. 받는 계좌가 해지 상태인 경우 예외 발생
+        if (toAccount.getAccountStatus() != AccountStatus.ACTIVE)
+            throw new AccountException(ACCOUNT_ALREADY_CLOSED);
+
+        // 두 계좌의 잔액 갱신
+        fromAccount.useBalance(amount);
+        toAccount.depositBalance(amount);
+        accountCache.evictAfterCommit(fromAccount.getAccountUser().getId());
+        accountCache.evictAfterCommit(toAccount.getAccountUser().getId());
+
+        // 받는 계좌의 거래 내역도 함께 기록하고 (한 번의 배치 INSERT), 보내는 계좌의 거래 정보를 반환
+        LocalDateTime now = LocalDateTime.now();
+        Transaction toTransaction = createTransaction(TRANSFER, S, toAccount, amount, now);
+        Transaction fromTransaction = createTransaction(TRANSFER, S, fromAccount, amount, now);
+        transactionRepository.insertAll(List.of(toTransaction, fromTransaction));
+        transactionOutbox.add(List.of(toTransaction, fromTransaction));
+
+        TransactionDTO transactionDTO = TransactionDTO.fromEntity(fromTransaction);
+        transactionCache.putAfterCommit(TransactionDTO.fromEntity(toTransaction));
+        transactionCache.putAfterCommit(transactionDTO);
+        return transactionDTO;
+    }
+
+    // 계좌 이체에 실패한 경우에도 보내는 계좌의 거래 내역을 기록
+    @Transactional
+    public void saveFailedTransferTransaction(String fromAccountNumber, Long amount) {
+        Account account = accountRepository.findByAccountNumber(fromAccountNumber)
+                .orElseThrow(() -> new AccountException(ACCOUNT_NOT_FOUND));
+
+        saveAndGetTransaction(TRANSFER, F, account, amount);
+    }
+
+
+    // 실패한 거래 내역 일괄 기록 (FailedTransactionRecorder 의 백그라운드 기록)
+    // 계좌는 계좌 번호별로 한 번만 조회하며, 계좌가 없는 경우에는 건별 기록과 마찬가지로 기록하지 않는다
+    // 거래 일시는 실패한 시점, 거래 후 잔액은 기록하는 시점의 계좌 잔액
+    @Transactional
+    public int saveFailedTransactions(List<FailedTransaction> failedTransactions) {
+        Map<String, Account> accounts = accountRepository.findByAccountNumberIn(failedTransactions.stream()
+                        .map(FailedTransaction::getAccountNumber)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Account::getAccountNumber, Function.identity()));
+
+        List<Transaction> transactions = new ArrayList<>();
+        for (FailedTransaction failedTransaction : failedTransactions) {
+            Account account = accounts.get(failedTransaction.getAccountNumber());
+            if (account != null)
+                transactions.add(createTransaction(failedTransaction.getTransactionType(), F, account,
+                        failedTransaction.getAmount(), failedTransaction.getFailedAt()));
+        }
+        transactionRepository.insertAll(transactions);
+        return transactions.size();
+    }
+
+
+    // 거래 정보를 저장한 후, DTO로 변환하여 반환 (성공한 거래는 같은 트랜잭션에서 잔액 변경 알림 추가)
     private TransactionDTO saveAndGetTransaction(
             TransactionType transactionType, TransactionResultType transactionResultType, Account account, Long amount) {
-        return TransactionDTO.fromEntity(transactionRepository.save(
-                Transaction.builder()
-                        .account(account)
-                        .amount(amount)
-                        .balanceSnapshot(account.getBalance())
-                        .transactionType(transactionType)
-                        .transactionResultType(transactionResultType)
-                        .transactionId(UUID.randomUUID().toString().replace("-", ""))
-                        .transactedAt(LocalDateTime.now())
-                        .build()
-        ));
+        Transaction transaction = transactionRepository.save(
+                createTransaction(transactionType, transactionResultType, account, amount, LocalDateTime.now()));
+        transactionOutbox.add(List.of(transaction));
+
+        TransactionDTO transactionDTO = TransactionDTO.fromEntity(transaction);
+        transactionCache.putAfterCommit(transactionDTO);
+        return transactionDTO;
+    }
+
+    private Transaction createTransaction(TransactionType transactionType,
+                                          TransactionResultType transactionResultType,
+                                          Account account, Long amount, LocalDateTime transactedAt) {
+        return Transaction.builder()
+                .account(account)
+                .amount(amount)
+                .balanceSnapshot(account.getBalance())
+                .transactionType(transactionType)
+                .transactionResultType(transactionResultType)
+                .transactionId(transactionIdGenerator.nextTransactionId())
+                .transactedAt(transactedAt)
+                .build();
     }
 
 
@@ -155,11 +307,72 @@ public class TransactionService {
      * 실패 케이스
      * 거래 아이디에 해당하는 거래가 없는 경우
      */
-    // 잔액 사용 확인
-    @Transactional
+    // 잔액 사용 확인 (캐시에 있으면 DB 커넥션 없이 반환, 없으면 복제본에서 읽기 전용으로 조회)
+    @ReadReplica
     public TransactionDTO queryTransaction(String transactionId) {
+        return transactionCache.get(transactionId, this::loadTransaction);
+    }
+
+    private TransactionDTO loadTransaction(String transactionId) {
         // 거래 아이디에 해당하는 거래가 없는 경우 예외 발생
-        return TransactionDTO.fromEntity(transactionRepository.findByTransactionId(transactionId)
-                .orElseThrow(() -> new AccountException(TRANSACTION_NOT_FOUND)));
+        return transactionRepository.findDTOByTransactionId(transactionId)
+                .orElseThrow(() -> new AccountException(TRANSACTION_NOT_FOUND));
+    }
+
+
+    /**
+     * 실패 케이스
+     * 1. 계좌가 없는 경우
+     * 2. cursor 형식이 올바르지 않은 경우
+     */
+    // 계좌 거래 내역 조회 (keyset 페이지, 최근 거래부터)
+    @Transactional(readOnly = true)
+    public TransactionHistory.Response getTransactionHistory(String accountNumber, TransactionHistory.Request request) {
+        // 1. 계좌가 없는 경우 예외 발생
+        Long accountId = accountRepository.findIdByAccountNumber(accountNumber)
+                .orElseThrow(() -> new AccountException(ACCOUNT_NOT_FOUND));
+        // 2. cursor 형식이 올바르지 않은 경우 예외 발생
+        TransactionHistoryItem cursor = decodeCursor(request.getCursor());
+
+        // 다음 페이지가 있는지 확인하기 위해 한 건 더 조회
+        List<TransactionHistoryItem> transactions = transactionRepository.findHistory(accountId,
+                request.getTransactionType(), request.getTransactionResultType(), request.getFrom(), request.getTo(),
+                cursor == null ? null : cursor.getTransactedAt(), cursor == null ? null : cursor.getId(),
+                request.getSize() + 1);
+
+        String nextCursor = null;
+        if (transactions.size() > request.getSize()) {
+            transactions = transactions.subList(0, request.getSize());
+            nextCursor = encodeCursor(transactions.get(transactions.size() - 1));
+        }
+
+        return TransactionHistory.Response.builder()
+                .accountNumber(accountNumber)
+                .transactions(transactions)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    // 페이지 마지막 거래의 (거래 일시, 테이블 아이디) -> cursor 문자열
+    private static String encodeCursor(TransactionHistoryItem last) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(
+                (last.getTransactedAt() + "|" + last.getId()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static TransactionHistoryItem decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank())
+            return null;
+
+        try {
+            String[] values = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (values.length != 2)
+                throw new AccountException(INVALID_REQUEST);
+            return TransactionHistoryItem.builder()
+                    .transactedAt(LocalDateTime.parse(values[0]))
+                    .id(Long.parseLong(values[1]))
+                    .build();
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new AccountException(INVALID_REQUEST);
+        }
     }
 }
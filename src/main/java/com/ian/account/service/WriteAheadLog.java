@@ -0,0 +1,274 @@
+package com.ian.account.service;
+
+import com.ian.account.type.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * 메모리 매핑 로그 선기록(WAL) (JOURNAL 거래 방식, durability: WAL)
+ * 잔액 변경 이벤트를 고정 크기(RECORD_SIZE) 기록으로 세그먼트 파일에 순서대로 추가한다.
+ * 세그먼트는 segmentBytes 크기로 미리 매핑하며, 가득 차면 다음 세그먼트로 넘어간다. (파일 이름: wal-첫 기록 번호.log)
+ * 기록: CRC32C(4) + 종류(4) + 기록 번호(8) + 계좌 아이디(8) + 잔액 변화량(8) + 적용 후 잔액(8) + 거래 아이디(8)
+ * + 거래 일시(8, UTC 기준 나노초) + 거래 종류(1) + 여백(7)
+ * force 를 호출해야 디스크에 동기화되므로, 여러 기록을 추가한 뒤 한 번에 동기화한다. (그룹 동기화)
+ * 다시 열 때는 CRC 가 맞고 기록 번호가 이어지는 기록까지만 유효하며, 그 뒤는 0 으로 지운다. (동기화 전에 중단된 기록)
+ * DB 에 저장된 기록만 담은 세그먼트는 truncate 로 삭제한다.
+ * 기록 스레드(append, force)와 저장 스레드(truncate)가 함께 사용하므로 메서드 단위로 락을 잡는다.
+ */
+@Slf4j
+public class WriteAheadLog implements Closeable {
+    public static final int RECORD_SIZE = 64;
+    private static final int EVENT = 1;
+    private static final String PREFIX = "wal-";
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentBytes;
+    // 세그먼트의 첫 기록 번호 -> 파일 (마지막 항목이 현재 기록 중인 세그먼트)
+    private final TreeMap<Long, Path> segments = new TreeMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long nextSequence;
+
+    public WriteAheadLog(Path directory, int segmentBytes) {
+        if (segmentBytes < RECORD_SIZE || segmentBytes % RECORD_SIZE != 0)
+            throw new IllegalArgumentException("WAL segment size must be a multiple of " + RECORD_SIZE
+                    + ": " + segmentBytes);
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+    }
+
+
+    // 기존 세그먼트의 유효한 기록을 읽어 반환하고, 이어서 기록할 준비
+    // minNextSequence: 다음 기록 번호의 최솟값 (DB 에 저장된 마지막 기록 번호 + 1)
+    public List<Record> open(long minNextSequence) throws IOException {
+        lock.lock();
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                files.filter(WriteAheadLog::isSegment)
+                        .forEach(path -> segments.put(getFirstSequence(path), path));
+            }
+
+            List<Record> records = new ArrayList<>();
+            long expected = segments.isEmpty() ? minNextSequence : segments.firstKey();
+            int position = 0;
+            for (Map.Entry<Long, Path> segment : new ArrayList<>(segments.entrySet())) {
+                if (segment.getKey() != expected) {
+                    // 이어지지 않는 세그먼트 (이전 세그먼트가 중간에 끊김) -> 이후 세그먼트는 사용하지 않음
+                    log.error("Discard WAL segment {}, expected sequence {}", segment.getValue(), expected);
+                    Files.delete(segment.getValue());
+                    segments.remove(segment.getKey());
+                    continue;
+                }
+
+                ByteBuffer segmentBuffer = ByteBuffer.wrap(Files.readAllBytes(segment.getValue()));
+                position = 0;
+                while (position + RECORD_SIZE <= segmentBuffer.limit()) {
+                    Record record = read(segmentBuffer, position);
+                    if (record == null || record.getSequence() != expected)
+                        break;
+                    records.add(record);
+                    expected++;
+                    position += RECORD_SIZE;
+                }
+            }
+
+            nextSequence = Math.max(expected, minNextSequence);
+            if (segments.isEmpty() || nextSequence != expected) {
+                rotate();
+            } else {
+                map(segments.lastEntry().getValue());
+                // 유효한 기록 뒤는 0 으로 지움 (이후 다시 열 때 이전 실행의 기록이 이어지는 것처럼 읽히지 않도록)
+                buffer.position(position);
+                while (buffer.hasRemaining())
+                    buffer.put((byte) 0);
+                buffer.force();
+                buffer.position(position);
+            }
+            return records;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 기록 번호를 매겨 추가 (디스크 동기화는 force) -> 마지막 기록 번호 반환
+    // 한 번의 호출에서 추가하는 기록은 같은 세그먼트에 기록된다
+    public long append(List<Record> records) throws IOException {
+        lock.lock();
+        try {
+            int bytes = records.size() * RECORD_SIZE;
+            if (bytes > segmentBytes)
+                throw new IllegalArgumentException("WAL records exceed segment size: " + records.size());
+            if (buffer.remaining() < bytes)
+                rotate();
+
+            for (Record record : records) {
+                record.sequence = nextSequence++;
+                write(buffer, record);
+            }
+            return nextSequence - 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void force() {
+        lock.lock();
+        try {
+            buffer.force();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // DB 에 저장된 기록(persistedSequence 이하)만 담은 세그먼트 삭제 (현재 기록 중인 세그먼트는 유지)
+    public void truncate(long persistedSequence) throws IOException {
+        lock.lock();
+        try {
+            while (segments.size() > 1) {
+                Map.Entry<Long, Path> oldest = segments.firstEntry();
+                long lastSequence = segments.higherKey(oldest.getKey()) - 1;
+                if (lastSequence > persistedSequence)
+                    return;
+                Files.delete(oldest.getValue());
+                segments.remove(oldest.getKey());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 남아 있는 세그먼트 수
+    int size() {
+        lock.lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (channel == null)
+                return;
+            buffer.force();
+            channel.close();
+            channel = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    // 현재 세그먼트를 동기화하고 다음 기록 번호로 시작하는 새 세그먼트 생성
+    private void rotate() throws IOException {
+        if (channel != null) {
+            buffer.force();
+            channel.close();
+        }
+        Path path = directory.resolve(String.format("%s%020d%s", PREFIX, nextSequence, SUFFIX));
+        segments.put(nextSequence, path);
+        map(path);
+    }
+
+    private void map(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+    }
+
+    private static void write(ByteBuffer buffer, Record record) {
+        int start = buffer.position();
+        buffer.putInt(0)
+                .putInt(EVENT)
+                .putLong(record.sequence)
+                .putLong(record.accountId)
+                .putLong(record.delta)
+                .putLong(record.balance)
+                .putLong(record.transactionKey)
+                .putLong(toEpochNanos(record.transactedAt))
+                .put((byte) record.transactionType.ordinal())
+                .put(new byte[7]);
+        buffer.putInt(start, crc(buffer, start));
+    }
+
+    // CRC 가 맞지 않거나 기록되지 않은 자리이면 null
+    private static Record read(ByteBuffer buffer, int start) {
+        if (buffer.getInt(start + 4) != EVENT || buffer.getInt(start) != crc(buffer, start))
+            return null;
+
+        return Record.builder()
+                .sequence(buffer.getLong(start + 8))
+                .accountId(buffer.getLong(start + 16))
+                .delta(buffer.getLong(start + 24))
+                .balance(buffer.getLong(start + 32))
+                .transactionKey(buffer.getLong(start + 40))
+                .transactedAt(fromEpochNanos(buffer.getLong(start + 48)))
+                .transactionType(TransactionType.values()[buffer.get(start + 56)])
+                .build();
+    }
+
+    private static int crc(ByteBuffer buffer, int start) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(start + 4, RECORD_SIZE - 4));
+        return (int) crc.getValue();
+    }
+
+    private static long toEpochNanos(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + dateTime.getNano();
+    }
+
+    private static LocalDateTime fromEpochNanos(long epochNanos) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochNanos, 1_000_000_000L),
+                (int) Math.floorMod(epochNanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+
+    private static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+    }
+
+    private static long getFirstSequence(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+
+    // 잔액 변경 이벤트 기록 한 건 (sequence 는 append 에서 매김)
+    @Getter
+    @Builder
+    @AllArgsConstructor
+    public static class Record {
+        private long sequence;
+        private final long accountId;
+        private final TransactionType transactionType;
+        private final long delta;
+        private final long balance;
+        private final long transactionKey;
+        private final LocalDateTime transactedAt;
+    }
+}
@@ -13,13 +13,18 @@ public enum ErrorCode {
     ACCOUNT_LIMIT_EXCEEDED("사용자가 생성할 수 있는 최대 계좌 개수를 초과했습니다."),
     ACCOUNT_ALREADY_CLOSED("이미 해지된 계좌입니다."),
     ACCOUNT_HAS_BALANCE("계좌에 잔액이 남아 있어 해지할 수 없습니다."),
+    ACCOUNT_NUMBER_EXHAUSTED("더 이상 발급할 수 있는 계좌 번호가 없습니다."),
     ACCOUNT_TRANSACTION_LOCK("해당 계좌는 사용 중입니다."),
     USER_ACCOUNT_UNMATCH("사용자와 계좌 소유주의 정보가 일치하지 않습니다."),
     BALANCE_EXCEEDED("계좌 잔액이 부족합니다."),
     AMOUNT_MISMATCH("사용 금액과 취소 금액이 일치하지 않습니다."),
     TRANSACTION_CANCELLATION_EXPIRED("거래 취소 가능 기간이 만료되었습니다."),
     TRANSACTION_NOT_FOUND("계좌 잔액이 부족합니다."),
-    TRANSACTION_ACCOUNT_UNMATCH("거래 내역의 계좌 정보가 일치하지 않습니다.");
+    TRANSACTION_ACCOUNT_UNMATCH("거래 내역의 계좌 정보가 일치하지 않습니다."),
+    TRANSACTION_NOT_CANCELLABLE("성공한 잔액 사용 거래만 취소할 수 있습니다."),
+    SAME_ACCOUNT_TRANSFER("같은 계좌로는 이체할 수 없습니다."),
+    IDEMPOTENCY_KEY_IN_PROGRESS("같은 멱등성 키의 요청이 처리 중입니다."),
+    IDEMPOTENCY_KEY_REUSED("멱등성 키가 다른 요청에 이미 사용되었습니다.");
 
     private final String disciption;
 }
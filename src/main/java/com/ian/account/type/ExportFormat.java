@@ -0,0 +1,19 @@
+package com.ian.account.type;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 거래 내역 내보내기 형식
+ * NDJSON: 한 줄에 거래 하나 (JSON 객체)
+ * CSV: 첫 줄은 컬럼 이름, 이후 한 줄에 거래 하나
+ */
+@Getter
+@AllArgsConstructor
+public enum ExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+}
@@ -0,0 +1,10 @@
+package com.ian.account.type;
+
+/**
+ * JOURNAL 거래 방식의 응답 시점 (account.journal.durability)
+ * DB: 잔액 변경 이벤트와 거래 내역이 DB 에 커밋된 뒤에 응답 (기본)
+ * WAL: 로컬 메모리 매핑 WAL 에 기록하고 디스크에 동기화(force)한 뒤에 응답, DB 저장은 이후 별도 스레드가 묶어서 처리
+ */
+public enum JournalDurability {
+    DB, WAL
+}
@@ -0,0 +1,11 @@
+package com.ian.account.type;
+
+/**
+ * 계좌 락 프로토콜 (account.lock.protocol)
+ * REDISSON: Redisson 분산 락 (락 취득/해제와 멱등성 키 선점/기록을 각각 Redis 에 요청)
+ * SCRIPT: Lua 스크립트 (락 취득 + 멱등성 키 선점을 1회, 락 해제 + 처리 결과 기록을 1회 요청)
+ * 두 프로토콜은 같은 락 키와 형식을 사용하므로, 서버마다 설정이 달라도 같은 계좌를 동시에 잠그지 않는다.
+ */
+public enum LockProtocol {
+    REDISSON, SCRIPT
+}
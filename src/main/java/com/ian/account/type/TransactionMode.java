@@ -0,0 +1,33 @@
+package com.ian.account.type;
+
+import java.util.Set;
+
+/**
+ * 잔액 변경(사용/사용 취소) 동시성 제어 방식 (account.transaction.mode)
+ * LOCKED: Redis 분산 락으로 계좌별 거래를 직렬화 (기본)
+ * CONDITIONAL_UPDATE: 잔액 사용의 검증과 차감을 조건부 UPDATE 한 번으로 처리 (잔액 사용은 락 없이 진행)
+ * OPTIMISTIC: 계좌 버전(@Version)으로 동시 변경을 감지하고, 충돌 시 재시도 (잔액 사용/사용 취소 모두 락 없이 진행)
+ * SINGLE_WRITER: 계좌별 단일 소유자(LedgerEngine)가 잔액 사용/사용 취소를 순서대로 처리하고, 묶어서 한 번에 커밋 (락 없이 진행)
+ * COALESCED: 같은 계좌에 짧은 시간 안에 들어온 잔액 사용을 모아 락 1회, DB 트랜잭션 1회로 처리 (DebitBatcher 가 직접 락을 잡음)
+ * JOURNAL: 단일 기록 스레드(LedgerJournal)가 잔액 사용/사용 취소/이체/계좌 해지를 메모리의 잔액으로 처리하고,
+ * 잔액 변경 이벤트를 추가 전용으로 기록 (락 없이 진행, 계좌 잔액은 주기적인 스냅샷으로 저장)
+ */
+public enum TransactionMode {
+    LOCKED,
+    CONDITIONAL_UPDATE(TransactionType.USE),
+    OPTIMISTIC(TransactionType.USE, TransactionType.CANCEL),
+    SINGLE_WRITER(TransactionType.USE, TransactionType.CANCEL),
+    COALESCED(TransactionType.USE),
+    JOURNAL(TransactionType.USE, TransactionType.CANCEL, TransactionType.TRANSFER);
+
+    // 락 없이 처리할 수 있는 거래 종류
+    private final Set<TransactionType> lockFreeTypes;
+
+    TransactionMode(TransactionType... lockFreeTypes) {
+        this.lockFreeTypes = Set.of(lockFreeTypes);
+    }
+
+    public boolean requiresLock(TransactionType transactionType) {
+        return transactionType == null || !lockFreeTypes.contains(transactionType);
+    }
+}
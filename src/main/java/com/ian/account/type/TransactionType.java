@@ -2,5 +2,6 @@ package com.ian.account.type;
 
 public enum TransactionType {
     USE,
-    CANCEL
+    CANCEL,
+    TRANSFER
 }
@@ -0,0 +1,123 @@
+package com.ian.account.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// 원본과 복제본으로 서로 다른 H2 메모리 DB 를 사용 (복제되지 않으므로 하트비트는 테스트에서 직접 기록)
+class ReadReplicaRoutingDataSourceTest {
+    private DriverManagerDataSource primary;
+    private DriverManagerDataSource replica;
+
+    @BeforeEach
+    void setUp() {
+        primary = createDatabase("PRIMARY");
+        replica = createDatabase("REPLICA");
+    }
+
+    @AfterEach
+    void tearDown() {
+        new JdbcTemplate(primary).execute("shutdown");
+        if (replica.getUrl().startsWith("jdbc:h2:mem:"))
+            new JdbcTemplate(replica).execute("shutdown");
+    }
+
+
+    @Test
+    void routeReadOnlyTransactionToReplica() {
+        // given
+        ReadReplicaRoutingDataSource routing = new ReadReplicaRoutingDataSource(primary, replica, 0L, 500L);
+        routing.checkReplica();
+
+        // when
+        // then
+        assertTrue(routing.isReplicaAvailable());
+        assertEquals("REPLICA", readServer(routing, true, true));
+        // 복제본 읽기로 표시되지 않은 읽기 전용 트랜잭션, 읽기/쓰기 트랜잭션은 원본 사용
+        assertEquals("PRIMARY", readServer(routing, false, true));
+        assertEquals("PRIMARY", readServer(routing, true, false));
+    }
+
+    @Test
+    void routeToPrimary_replicaLagging() {
+        // given
+        ReadReplicaRoutingDataSource routing = new ReadReplicaRoutingDataSource(primary, replica, 1000L, 500L);
+        setReplicaHeartbeat(System.currentTimeMillis() - 10000L);
+
+        // when
+        routing.checkReplica();
+
+        // then
+        // 허용 범위를 넘는 지연이면 원본 사용
+        assertFalse(routing.isReplicaAvailable());
+        assertTrue(routing.getReplicaLagMillis() >= 10000L);
+        assertEquals("PRIMARY", readServer(routing, true, true));
+
+        // 복제본이 따라잡으면 다시 복제본 사용
+        setReplicaHeartbeat(System.currentTimeMillis());
+        routing.checkReplica();
+        assertTrue(routing.isReplicaAvailable());
+        assertEquals("REPLICA", readServer(routing, true, true));
+    }
+
+    @Test
+    void routeToPrimary_replicaDown() {
+        // given
+        ReadReplicaRoutingDataSource routing = new ReadReplicaRoutingDataSource(primary, replica, 0L, 500L);
+        routing.checkReplica();
+        assertTrue(routing.isReplicaAvailable());
+        new JdbcTemplate(replica).execute("shutdown");
+        replica.setUrl("jdbc:h2:tcp://localhost:1/replica");
+
+        // when
+        // 커넥션을 가져오지 못하면 원본에서 읽음
+        String server = readServer(routing, true, true);
+
+        // then
+        assertEquals("PRIMARY", server);
+        assertFalse(routing.isReplicaAvailable());
+        routing.checkReplica();
+        assertFalse(routing.isReplicaAvailable());
+    }
+
+
+    // 트랜잭션 안에서 읽은 DB 이름 반환
+    private static String readServer(ReadReplicaRoutingDataSource routing, boolean preferReplica, boolean readOnly) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routing);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setReadOnly(readOnly);
+
+        boolean previous = preferReplica ? ReadReplicaRoutingDataSource.preferReplica() : false;
+        try {
+            return transactionTemplate.execute(status ->
+                    new JdbcTemplate(dataSource).queryForObject("select name from server", String.class));
+        } finally {
+            ReadReplicaRoutingDataSource.restore(previous);
+        }
+    }
+
+    private void setReplicaHeartbeat(long beatAtMillis) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(replica);
+        jdbcTemplate.update("delete from replica_heartbeat");
+        jdbcTemplate.update("insert into replica_heartbeat (id, beat_at_millis) values (1, ?)", beatAtMillis);
+    }
+
+    private static DriverManagerDataSource createDatabase(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name.toLowerCase() + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table server (name varchar(16))");
+        jdbcTemplate.execute("create table replica_heartbeat (id bigint primary key, beat_at_millis bigint)");
+        jdbcTemplate.update("insert into server (name) values (?)", name);
+        return dataSource;
+    }
+}
@@ -2,6 +2,8 @@ package com.ian.account.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ian.account.dto.*;
+import com.ian.account.service.FailedTransactionRecorder;
+import com.ian.account.service.TransactionExportService;
 import com.ian.account.service.TransactionService;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -12,18 +14,28 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static com.ian.account.type.TransactionResultType.S;
+import static com.ian.account.type.TransactionType.TRANSFER;
 import static com.ian.account.type.TransactionType.USE;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 
@@ -33,6 +45,9 @@ class TransactionControllerTest {
     @Autowired
     private TransactionService transactionService;
 
+    @Autowired
+    private TransactionExportService transactionExportService;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -91,6 +106,34 @@ class TransactionControllerTest {
     }
 
 
+    @Test
+    void transferBalanceSuccess() throws Exception {
+        given(transactionService.transferBalance(anyLong(), anyString(), anyString(), anyLong()))
+                .willReturn(TransactionDTO.builder()
+                        .accountNumber("1000000000")
+                        .amount(12345L)
+                        .transactionId("transactionId")
+                        .transactionType(TRANSFER)
+                        .transactionResultType(S)
+                        .transactedAt(LocalDateTime.now())
+                        .build()
+                );
+
+        mockMvc.perform(post("/transaction/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new TransferBalance.Request(1L, "1000000000", "1000000001", 12345L)
+                        )))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fromAccountNumber").value("1000000000"))
+                .andExpect(jsonPath("$.toAccountNumber").value("1000000001"))
+                .andExpect(jsonPath("$.amount").value(12345L))
+                .andExpect(jsonPath("$.transactionId").value("transactionId"))
+                .andExpect(jsonPath("$.transactionResultType").value("S"))
+                .andDo(print());
+    }
+
+
     @Test
     void getTransactionsTest() throws Exception {
         given(transactionService.queryTransaction(anyString()))
@@ -114,11 +157,72 @@ class TransactionControllerTest {
     }
 
 
+    @Test
+    void getTransactionHistoryTest() throws Exception {
+        given(transactionService.getTransactionHistory(anyString(), any()))
+                .willReturn(TransactionHistory.Response.builder()
+                        .accountNumber("1234567890")
+                        .transactions(List.of(TransactionHistoryItem.builder()
+                                .id(1L)
+                                .transactionId("transactionId")
+                                .transactionType(USE)
+                                .transactionResultType(S)
+                                .amount(1000L)
+                                .balanceSnapshot(9000L)
+                                .transactedAt(LocalDateTime.now())
+                                .build()))
+                        .nextCursor("nextCursor")
+                        .build());
+
+        mockMvc.perform(get("/account/1234567890/transactions")
+                        .param("transactionType", "USE")
+                        .param("size", "1"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accountNumber").value("1234567890"))
+                .andExpect(jsonPath("$.transactions[0].transactionId").value("transactionId"))
+                .andExpect(jsonPath("$.transactions[0].balanceSnapshot").value(9000L))
+                .andExpect(jsonPath("$.transactions[0].id").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").value("nextCursor"));
+    }
+
+    @Test
+    void exportTransactionsTest() throws Exception {
+        StreamingResponseBody body = outputStream ->
+                outputStream.write("{\"transactionId\":\"transactionId\"}\n".getBytes(StandardCharsets.UTF_8));
+        given(transactionExportService.export(any()))
+                .willReturn(body);
+
+        MvcResult result = mockMvc.perform(get("/transaction/export")
+                        .param("accountNumber", "1234567890")
+                        .param("from", "2025-01-01T00:00:00"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"transactions.ndjson\""))
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(content().string("{\"transactionId\":\"transactionId\"}\n"));
+    }
+
     @TestConfiguration
     static class MockConfig {
         @Bean
         public TransactionService transactionService() {
             return Mockito.mock(TransactionService.class);
         }
+
+        @Bean
+        public FailedTransactionRecorder failedTransactionRecorder() {
+            return Mockito.mock(FailedTransactionRecorder.class);
+        }
+
+        @Bean
+        public TransactionExportService transactionExportService() {
+            return Mockito.mock(TransactionExportService.class);
+        }
     }
 }
\ No newline at end of file
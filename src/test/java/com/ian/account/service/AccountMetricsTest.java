@@ -0,0 +1,55 @@
+package com.ian.account.service;
+
+import com.ian.account.exception.AccountException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static com.ian.account.type.ErrorCode.ACCOUNT_TRANSACTION_LOCK;
+import static com.ian.account.type.ErrorCode.BALANCE_EXCEEDED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AccountMetricsTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AccountMetrics accountMetrics = new AccountMetrics(meterRegistry);
+
+
+    @Test
+    void recordRequest_taggedByErrorCode() {
+        // when
+        accountMetrics.recordRequest("USE", 1_000_000L, null);
+        accountMetrics.recordRequest("USE", 2_000_000L, new AccountException(BALANCE_EXCEEDED));
+        accountMetrics.recordRequest("USE", 3_000_000L, new IllegalStateException());
+
+        // then
+        assertEquals(1, meterRegistry.get("account.transaction.request")
+                .tags("outcome", "success", "error_code", "NONE").timer().count());
+        assertEquals(1, meterRegistry.get("account.transaction.request")
+                .tags("outcome", "failure", "error_code", "BALANCE_EXCEEDED").timer().count());
+        assertEquals(1, meterRegistry.get("account.transaction.request")
+                .tags("outcome", "error", "error_code", "INTERNAL_SERVER_ERROR").timer().count());
+    }
+
+    @Test
+    void recordLockHold_taggedByErrorCode() {
+        // when
+        accountMetrics.recordLockHold(1_000_000L, null);
+        accountMetrics.recordLockHold(2_000_000L, new AccountException(BALANCE_EXCEEDED));
+
+        // then
+        assertEquals(1, meterRegistry.get("account.lock.hold")
+                .tags("outcome", "success", "error_code", "NONE").timer().count());
+        assertEquals(1, meterRegistry.get("account.lock.hold")
+                .tags("outcome", "failure", "error_code", "BALANCE_EXCEEDED").timer().count());
+    }
+
+    @Test
+    void recordLockWait() {
+        // when
+        accountMetrics.recordLockWait(1_000_000L, "queue_full", ACCOUNT_TRANSACTION_LOCK);
+
+        // then
+        assertEquals(1, meterRegistry.get("account.lock.wait")
+                .tags("outcome", "queue_full", "error_code", "ACCOUNT_TRANSACTION_LOCK").timer().count());
+    }
+}
@@ -0,0 +1,163 @@
+package com.ian.account.service;
+
+import com.ian.account.domain.Account;
+import com.ian.account.exception.AccountException;
+import com.ian.account.repository.AccountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RAtomicLong;
+import org.redisson.api.RedissonClient;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static com.ian.account.type.ErrorCode.ACCOUNT_NUMBER_EXHAUSTED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class AccountNumberAllocatorTest {
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private RAtomicLong counter;
+
+    @InjectMocks
+    private AccountNumberAllocator accountNumberAllocator;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(accountNumberAllocator, "blockSize", 3);
+    }
+
+
+    @Test
+    @DisplayName("첫 계좌 번호 생성")
+    void firstAccountNumber() {
+        // given
+        given(redissonClient.getAtomicLong(anyString()))
+                .willReturn(counter);
+        given(accountRepository.findFirstByOrderByAccountNumberDesc())
+                .willReturn(Optional.empty());
+        given(counter.get())
+                .willReturn(0L);
+        given(counter.compareAndSet(0L, 999_999_999L))
+                .willReturn(true);
+        given(counter.addAndGet(3L))
+                .willReturn(1_000_000_002L);
+
+        // when
+        // then
+        assertEquals("1000000000", accountNumberAllocator.nextAccountNumber());
+        assertEquals("1000000001", accountNumberAllocator.nextAccountNumber());
+        assertEquals("1000000002", accountNumberAllocator.nextAccountNumber());
+    }
+
+    @Test
+    @DisplayName("블록을 모두 사용하면 다음 블록 예약")
+    void reserveNextBlock() {
+        // given
+        given(redissonClient.getAtomicLong(anyString()))
+                .willReturn(counter);
+        given(accountRepository.findFirstByOrderByAccountNumberDesc())
+                .willReturn(Optional.of(Account.builder().accountNumber("1000000012").build()));
+        given(counter.get())
+                .willReturn(1_000_000_012L);
+        // 다른 서버가 중간 블록(1000000016 ~ 1000000018)을 먼저 가져간 경우
+        given(counter.addAndGet(3L))
+                .willReturn(1_000_000_015L, 1_000_000_021L);
+
+        // when
+        for (int i = 0; i < 3; i++)
+            accountNumberAllocator.nextAccountNumber();
+        String accountNumber = accountNumberAllocator.nextAccountNumber();
+
+        // then
+        assertEquals("1000000019", accountNumber);
+        verify(counter, times(2)).addAndGet(3L);
+        verify(accountRepository, times(1)).findFirstByOrderByAccountNumberDesc();
+    }
+
+    @Test
+    @DisplayName("발급 도중 Redis 카운터가 초기화되면 다시 맞추고 예약")
+    void reseedAfterCounterReset() {
+        // given
+        given(redissonClient.getAtomicLong(anyString()))
+                .willReturn(counter);
+        // 두 번째 조회: 첫 블록에서 발급한 계좌가 DB 에 저장된 뒤
+        given(accountRepository.findFirstByOrderByAccountNumberDesc())
+                .willReturn(Optional.of(Account.builder().accountNumber("1000000012").build()),
+                        Optional.of(Account.builder().accountNumber("1000000015").build()));
+        given(counter.get())
+                .willReturn(1_000_000_012L, 3L);
+        given(counter.compareAndSet(3L, 1_000_000_015L))
+                .willReturn(true);
+        // 첫 블록 예약 후 Redis 가 초기화되어 카운터가 0 부터 다시 증가
+        given(counter.addAndGet(3L))
+                .willReturn(1_000_000_015L, 6L, 1_000_000_018L);
+
+        // when
+        for (int i = 0; i < 3; i++)
+            accountNumberAllocator.nextAccountNumber();
+        String accountNumber = accountNumberAllocator.nextAccountNumber();
+
+        // then
+        // "4" 같은 계좌 번호를 발급하지 않고, 이미 발급한 번호 다음부터 발급
+        assertEquals("1000000016", accountNumber);
+        verify(counter, times(3)).addAndGet(3L);
+        verify(accountRepository, times(2)).findFirstByOrderByAccountNumberDesc();
+    }
+
+    @Test
+    @DisplayName("Integer 범위를 넘는 계좌 번호 발급")
+    void accountNumberBeyondIntegerRange() {
+        // given
+        given(redissonClient.getAtomicLong(anyString()))
+                .willReturn(counter);
+        given(accountRepository.findFirstByOrderByAccountNumberDesc())
+                .willReturn(Optional.of(Account.builder().accountNumber("2147483647").build()));
+        given(counter.get())
+                .willReturn(2_147_483_647L);
+        given(counter.addAndGet(3L))
+                .willReturn(2_147_483_650L);
+
+        // when
+        // then
+        assertEquals("2147483648", accountNumberAllocator.nextAccountNumber());
+    }
+
+    @Test
+    @DisplayName("10자리 계좌 번호를 모두 사용했을 때")
+    void accountNumberExhausted() {
+        // given
+        given(redissonClient.getAtomicLong(anyString()))
+                .willReturn(counter);
+        given(accountRepository.findFirstByOrderByAccountNumberDesc())
+                .willReturn(Optional.of(Account.builder().accountNumber("9999999999").build()));
+        given(counter.get())
+                .willReturn(9_999_999_999L);
+        given(counter.addAndGet(anyLong()))
+                .willReturn(10_000_000_002L);
+
+        // when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> accountNumberAllocator.nextAccountNumber());
+
+        // then
+        assertEquals(ACCOUNT_NUMBER_EXHAUSTED, accountException.getErrorCode());
+    }
+}
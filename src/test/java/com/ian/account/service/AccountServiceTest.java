@@ -6,6 +6,7 @@ import com.ian.account.exception.AccountException;
 import com.ian.account.repository.*;
 import com.ian.account.type.AccountStatus;
 import com.ian.account.type.ErrorCode;
+import com.ian.account.type.TransactionMode;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,10 +14,12 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
 import static org.mockito.BDDMockito.given;
 import static org.junit.jupiter.api.Assertions.*;
@@ -33,6 +36,15 @@ class AccountServiceTest {
     @Mock
     private AccountUserRepository accountUserRepository;
 
+    @Mock
+    private AccountNumberAllocator accountNumberAllocator;
+
+    @Mock
+    private AccountCache accountCache;
+
+    @Mock
+    private LedgerJournal ledgerJournal;
+
     // 테스트 대상 (@Mock 애너테이션 의존성 주입)
     @InjectMocks
     private AccountService accountService;
@@ -43,21 +55,15 @@ class AccountServiceTest {
     @Test
     void getAccountsSuccess() {
         // given
-        AccountUser accountUser = AccountUser.builder()
-                .id(12L)
-                .userName("Isaiah").build();
-
-        List<Account> accounts = Arrays.asList(
-                Account.builder().accountUser(accountUser).accountNumber("1111111111").balance(1000L).build(),
-                Account.builder().accountUser(accountUser).accountNumber("2222222222").balance(2000L).build(),
-                Account.builder().accountUser(accountUser).accountNumber("3333333333").balance(3000L).build()
+        List<AccountDTO> accounts = Arrays.asList(
+                AccountDTO.builder().id(12L).accountNumber("1111111111").balance(1000L).build(),
+                AccountDTO.builder().id(12L).accountNumber("2222222222").balance(2000L).build(),
+                AccountDTO.builder().id(12L).accountNumber("3333333333").balance(3000L).build()
         );
 
-        given(accountUserRepository.findById(anyLong()))
-                .willReturn(Optional.of(accountUser));
-
-        given(accountRepository.findByAccountUser(any()))
+        given(accountRepository.findDTOsByAccountUserId(1L))
                 .willReturn(accounts);
+        givenCacheMiss();
 
         // when
         List<AccountDTO> accountDTOList = accountService.getAccountsByUserId(1L);
@@ -70,14 +76,37 @@ class AccountServiceTest {
         assertEquals(2000, accountDTOList.get(1).getBalance());
         assertEquals("3333333333", accountDTOList.get(2).getAccountNumber());
         assertEquals(3000, accountDTOList.get(2).getBalance());
+        // 계좌가 있으면 사용자를 따로 조회하지 않음
+        verify(accountUserRepository, never()).existsById(anyLong());
+        verify(accountUserRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    @DisplayName("계좌 조회 시, 계좌가 없는 사용자")
+    void getAccountsSuccess_noAccount() {
+        // given
+        given(accountRepository.findDTOsByAccountUserId(1L))
+                .willReturn(List.of());
+        given(accountUserRepository.existsById(1L))
+                .willReturn(true);
+        givenCacheMiss();
+
+        // when
+        List<AccountDTO> accountDTOList = accountService.getAccountsByUserId(1L);
+
+        // then
+        assertTrue(accountDTOList.isEmpty());
     }
 
     @Test
     @DisplayName("계좌 조회 시, 사용자가 없을 때")
     void getAccountsFailed() {
         // given
-        given(accountUserRepository.findById(anyLong()))
-                .willReturn(Optional.empty());
+        given(accountRepository.findDTOsByAccountUserId(1L))
+                .willReturn(List.of());
+        given(accountUserRepository.existsById(1L))
+                .willReturn(false);
+        givenCacheMiss();
 
         // when
         AccountException accountException = assertThrows(AccountException.class,
@@ -88,52 +117,57 @@ class AccountServiceTest {
     }
 
 
-    ///////////////////////////////////// CreateAccount /////////////////////////////////////
-
     @Test
-    void createAccountSuccess() {
+    @DisplayName("계좌 조회 시, 캐시에 있으면 DB 를 조회하지 않음")
+    void getAccounts_cacheHit() {
         // given
-        AccountUser accountUser = AccountUser.builder()
-                .id(12L)
-                .userName("Isaiah").build();
-
-        given(accountUserRepository.findById(anyLong()))
-                .willReturn(Optional.of(accountUser));
+        given(accountCache.get(eq(1L), any()))
+                .willReturn(List.of(AccountDTO.builder().accountNumber("1111111111").balance(1000L).build()));
 
-        given(accountRepository.findFirstByOrderByIdDesc())
-                .willReturn(Optional.of(Account.builder()
-                        .accountUser(accountUser)
-                        .accountNumber("1000000012").build()));
+        // when
+        List<AccountDTO> accountDTOList = accountService.getAccountsByUserId(1L);
 
-        given(accountRepository.save(any()))
-                .willReturn(Account.builder()
-                        .accountUser(accountUser)
-                        .accountNumber("1000000013").build());
+        // then
+        assertEquals(1, accountDTOList.size());
+        assertEquals("1111111111", accountDTOList.get(0).getAccountNumber());
+        verify(accountUserRepository, never()).existsById(anyLong());
+        verify(accountRepository, never()).findDTOsByAccountUserId(anyLong());
+        verify(ledgerJournal, never()).applyJournalBalances(anyList());
+    }
 
-        ArgumentCaptor<Account> captor = ArgumentCaptor.forClass(Account.class);
+    @Test
+    @DisplayName("JOURNAL 거래 방식의 계좌 조회 시, 캐시된 스냅샷 잔액 대신 원장의 잔액")
+    void getAccounts_journalBalance() {
+        // given
+        ReflectionTestUtils.setField(accountService, "transactionMode", TransactionMode.JOURNAL);
+        List<AccountDTO> snapshot = List.of(AccountDTO.builder().accountNumber("1111111111").balance(1000L).build());
+        given(accountCache.get(eq(1L), any()))
+                .willReturn(snapshot);
+        given(ledgerJournal.applyJournalBalances(snapshot))
+                .willReturn(List.of(AccountDTO.builder().accountNumber("1111111111").balance(700L).build()));
 
         // when
-        AccountDTO accountDTO = accountService.createAccount(1L, 1000L);
+        List<AccountDTO> accountDTOList = accountService.getAccountsByUserId(1L);
 
         // then
-        verify(accountRepository, times(1)).save(captor.capture());
-        assertEquals(12L, accountDTO.getId());
-        assertEquals("1000000013", captor.getValue().getAccountNumber());
+        assertEquals(700L, accountDTOList.get(0).getBalance());
     }
 
+
+    ///////////////////////////////////// CreateAccount /////////////////////////////////////
+
     @Test
-    @DisplayName("첫 계좌 번호 생성")
-    void createFirstAccount() {
+    void createAccountSuccess() {
         // given
         AccountUser accountUser = AccountUser.builder()
-                .id(15L)
+                .id(12L)
                 .userName("Isaiah").build();
 
         given(accountUserRepository.findById(anyLong()))
                 .willReturn(Optional.of(accountUser));
 
-        given(accountRepository.findFirstByOrderByIdDesc())
-                .willReturn(Optional.empty());
+        given(accountNumberAllocator.nextAccountNumber())
+                .willReturn("1000000013");
 
         given(accountRepository.save(any()))
                 .willReturn(Account.builder()
@@ -147,8 +181,9 @@ class AccountServiceTest {
 
         // then
         verify(accountRepository, times(1)).save(captor.capture());
-        assertEquals(15L, accountDTO.getId());
-        assertEquals("1000000000", captor.getValue().getAccountNumber());
+        verify(accountCache).evictAfterCommit(12L);
+        assertEquals(12L, accountDTO.getId());
+        assertEquals("1000000013", captor.getValue().getAccountNumber());
     }
 
     @Test
@@ -211,6 +246,7 @@ class AccountServiceTest {
         AccountDTO accountDTO = accountService.deleteAccount(1L, "1111111111");
 
         // then
+        verify(accountCache).evictAfterCommit(12L);
         assertEquals(12L, accountDTO.getId());
         assertEquals("1000000012", accountDTO.getAccountNumber());
     }
@@ -336,4 +372,11 @@ class AccountServiceTest {
         assertEquals(ErrorCode.ACCOUNT_ALREADY_CLOSED, accountException.getErrorCode());
     }
 
-}
\ No newline at end of file
+
+    @SuppressWarnings("unchecked")
+    private void givenCacheMiss() {
+        given(accountCache.get(anyLong(), any()))
+                .willAnswer(invocation -> ((Function<Long, List<AccountDTO>>) invocation.getArgument(1))
+                        .apply(invocation.getArgument(0)));
+    }
+}
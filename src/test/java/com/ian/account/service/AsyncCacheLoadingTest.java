@@ -0,0 +1,132 @@
+package com.ian.account.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncCacheLoadingTest {
+    private final AsyncCache<String, String> cache = Caffeine.newBuilder().buildAsync();
+
+    @Test
+    void loadOnce_concurrentRequests() throws Exception {
+        // given
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+
+        // when
+        List<Future<String>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 10; i++)
+                results.add(executor.submit(() -> AsyncCacheLoading.get(cache, "key", key -> {
+                    loads.incrementAndGet();
+                    await(loading);
+                    return "value";
+                })));
+            Thread.sleep(50L);
+            loading.countDown();
+        }
+
+        // then
+        // 같은 키를 동시에 조회하면 한 번만 읽고 결과를 함께 사용
+        for (Future<String> result : results)
+            assertEquals("value", result.get());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void loaderFailure_notCached() {
+        // given
+        // when
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> AsyncCacheLoading.get(cache, "key", key -> {
+                    throw new IllegalStateException("db unavailable");
+                }));
+
+        // then
+        // 예외는 그대로 전달되고, 다음 조회에서 다시 읽음
+        assertEquals("db unavailable", exception.getMessage());
+        assertEquals("value", AsyncCacheLoading.get(cache, "key", key -> "value"));
+    }
+
+    @Test
+    void invalidateWhileLoading_valueNotCached() {
+        // given
+        // when
+        String value = AsyncCacheLoading.get(cache, "key", key -> {
+            cache.synchronous().invalidate(key);
+            return "stale";
+        });
+
+        // then
+        // 조회 중에 무효화되면 읽은 값은 반환만 하고 캐시에 남기지 않음
+        assertEquals("stale", value);
+        assertEquals("fresh", AsyncCacheLoading.get(cache, "key", key -> "fresh"));
+    }
+
+    @Test
+    void noPinning_blockingLoaderOnVirtualThread(@TempDir Path directory) throws Exception {
+        // given
+        Path file = directory.resolve("pinning.jfr");
+
+        // when
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO);
+            recording.start();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < 4; i++) {
+                    String key = "key-" + i;
+                    executor.submit(() -> AsyncCacheLoading.get(cache, key, k -> {
+                        sleep(20L);
+                        return "value";
+                    }));
+                }
+            }
+            recording.stop();
+            recording.dump(file);
+        }
+
+        // then
+        // DB / Redis 조회를 기다리는 동안 캐리어 스레드를 점유하지 않음
+        assertTrue(readPinnedEvents(file).isEmpty());
+    }
+
+
+    private static List<RecordedEvent> readPinnedEvents(Path file) throws IOException {
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals("jdk.VirtualThreadPinned"))
+                .toList();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
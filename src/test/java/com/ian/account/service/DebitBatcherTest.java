@@ -0,0 +1,165 @@
+package com.ian.account.service;
+
+import com.ian.account.domain.Account;
+import com.ian.account.domain.AccountUser;
+import com.ian.account.domain.Transaction;
+import com.ian.account.dto.TransactionDTO;
+import com.ian.account.exception.AccountException;
+import com.ian.account.repository.AccountRepository;
+import com.ian.account.repository.AccountUserRepository;
+import com.ian.account.repository.TransactionRepository;
+import com.ian.account.type.AccountStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static com.ian.account.type.ErrorCode.ACCOUNT_TRANSACTION_LOCK;
+import static com.ian.account.type.ErrorCode.BALANCE_EXCEEDED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class DebitBatcherTest {
+    @Mock
+    private LockService lockService;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private AccountUserRepository accountUserRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private AccountCache accountCache;
+
+    @Mock
+    private TransactionOutbox transactionOutbox;
+
+    @Spy
+    private TransactionIdGenerator transactionIdGenerator;
+
+    @InjectMocks
+    private DebitBatcher debitBatcher;
+
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void useBalance_coalesced() {
+        // given
+        ReflectionTestUtils.setField(debitBatcher, "windowMicros", 500_000L);
+        Account account = createAccount(10000L);
+        given(accountUserRepository.findById(12L))
+                .willReturn(Optional.of(account.getAccountUser()));
+        given(accountRepository.findByAccountNumber("1000000012"))
+                .willReturn(Optional.of(account));
+
+        // when
+        List<CompletableFuture<TransactionDTO>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++)
+            futures.add(CompletableFuture.supplyAsync(() -> debitBatcher.useBalance(12L, "1000000012", 4000L)));
+
+        // then
+        // 락 1회, 저장 1회로 처리하고, 잔액을 넘는 요청만 실패
+        List<Long> balanceSnapshots = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for (CompletableFuture<TransactionDTO> future : futures) {
+            try {
+                balanceSnapshots.add(future.join().getBalanceSnapshot());
+            } catch (CompletionException e) {
+                failures.add(e.getCause());
+            }
+        }
+        ArgumentCaptor<List<Transaction>> captor = ArgumentCaptor.forClass(List.class);
+        verify(lockService, times(1)).lock("1000000012", 5000L);
+        verify(lockService, times(1)).unlock("1000000012", null);
+        verify(transactionRepository, times(1)).insertAll(captor.capture());
+        assertEquals(2, captor.getValue().size());
+        assertEquals(Set.of(6000L, 2000L), Set.copyOf(balanceSnapshots));
+        assertEquals(1, failures.size());
+        assertEquals(BALANCE_EXCEEDED, assertInstanceOf(AccountException.class, failures.get(0)).getErrorCode());
+        assertEquals(2000L, account.getBalance());
+    }
+
+    @Test
+    void useBalance_batchFull() {
+        // given
+        ReflectionTestUtils.setField(debitBatcher, "windowMicros", 5_000_000L);
+        ReflectionTestUtils.setField(debitBatcher, "maxBatchSize", 1);
+        Account account = createAccount(10000L);
+        given(accountUserRepository.findById(12L))
+                .willReturn(Optional.of(account.getAccountUser()));
+        given(accountRepository.findByAccountNumber("1000000012"))
+                .willReturn(Optional.of(account));
+
+        // when
+        long startedAt = System.nanoTime();
+        TransactionDTO first = debitBatcher.useBalance(12L, "1000000012", 1000L);
+        TransactionDTO second = debitBatcher.useBalance(12L, "1000000012", 2000L);
+
+        // then
+        // 묶음이 가득 차면 창(5초)을 기다리지 않고 바로 처리
+        assertTrue(System.nanoTime() - startedAt < 1_000_000_000L);
+        verify(lockService, times(2)).lock("1000000012", 5000L);
+        assertEquals(9000L, first.getBalanceSnapshot());
+        assertEquals(7000L, second.getBalanceSnapshot());
+    }
+
+    @Test
+    void useBalanceFailed_lock() {
+        // given
+        ReflectionTestUtils.setField(debitBatcher, "windowMicros", 0L);
+        willThrow(new AccountException(ACCOUNT_TRANSACTION_LOCK))
+                .given(lockService).lock(anyString(), anyLong());
+
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> debitBatcher.useBalance(12L, "1000000012", 1000L));
+
+        // then
+        assertEquals(ACCOUNT_TRANSACTION_LOCK, exception.getErrorCode());
+        verify(lockService, never()).unlock(anyString(), any());
+        verify(transactionRepository, never()).insertAll(anyList());
+    }
+
+
+    private static Account createAccount(Long balance) {
+        return Account.builder()
+                .id(1L)
+                .accountUser(AccountUser.builder().id(12L).userName("Isaiah").build())
+                .accountStatus(AccountStatus.ACTIVE)
+                .accountNumber("1000000012")
+                .balance(balance)
+                .version(0L)
+                .build();
+    }
+}
@@ -0,0 +1,117 @@
+package com.ian.account.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ian.account.dto.FailedTransaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.ian.account.type.TransactionType.USE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class FailedTransactionRecorderTest {
+    @Mock
+    private TransactionService transactionService;
+
+    @TempDir
+    private Path tempDir;
+
+    private FailedTransactionRecorder failedTransactionRecorder;
+    private Path spillPath;
+
+    @BeforeEach
+    void setUp() {
+        spillPath = tempDir.resolve("failed-transactions.spill");
+        failedTransactionRecorder = new FailedTransactionRecorder(
+                transactionService, new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(failedTransactionRecorder, "spillFile", spillPath.toString());
+        ReflectionTestUtils.setField(failedTransactionRecorder, "pollMillis", 10L);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        failedTransactionRecorder.stop();
+    }
+
+
+    @Test
+    void recordSuccess() {
+        // given
+        failedTransactionRecorder.start();
+
+        // when
+        failedTransactionRecorder.record(USE, "1000000012", 1000L);
+
+        // then
+        verify(transactionService, timeout(1000)).saveFailedTransactions(anyList());
+        assertFalse(Files.exists(spillPath));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void record_spillWhenQueueFull() throws Exception {
+        // given
+        ReflectionTestUtils.setField(failedTransactionRecorder, "queueCapacity", 1);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(transactionService.saveFailedTransactions(anyList()))
+                .willAnswer(invocation -> {
+                    writing.countDown();
+                    release.await(1, TimeUnit.SECONDS);
+                    return ((List<FailedTransaction>) invocation.getArgument(0)).size();
+                });
+        failedTransactionRecorder.start();
+        failedTransactionRecorder.record(USE, "1000000012", 1000L);
+        assertTrue(writing.await(1, TimeUnit.SECONDS));
+
+        // when
+        // 첫 번째는 기록 중, 두 번째는 대기열, 세 번째는 대기열이 가득 차서 파일에 기록
+        failedTransactionRecorder.record(USE, "1000000012", 2000L);
+        failedTransactionRecorder.record(USE, "1000000012", 3000L);
+
+        // then
+        List<String> lines = Files.readAllLines(spillPath);
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).contains("3000"));
+
+        // 대기열이 비면 파일의 내역도 기록
+        release.countDown();
+        verify(transactionService, timeout(1000).times(3)).saveFailedTransactions(anyList());
+        Thread.sleep(50L);
+        assertFalse(Files.exists(spillPath));
+    }
+
+    @Test
+    void record_spillWhenWriteFailed() {
+        // given
+        given(transactionService.saveFailedTransactions(anyList()))
+                .willThrow(new IllegalStateException("DB down"))
+                .willReturn(1);
+        failedTransactionRecorder.start();
+
+        // when
+        failedTransactionRecorder.record(USE, "1000000012", 1000L);
+
+        // then
+        // DB 기록에 실패하면 파일에 기록한 뒤 다시 시도
+        verify(transactionService, timeout(1000).times(2)).saveFailedTransactions(anyList());
+    }
+}
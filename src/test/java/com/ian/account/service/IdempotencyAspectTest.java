@@ -0,0 +1,192 @@
+package com.ian.account.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ian.account.dto.IdempotencyRecord;
+import com.ian.account.dto.UseBalance;
+import com.ian.account.exception.AccountException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static com.ian.account.type.ErrorCode.*;
+import static com.ian.account.type.TransactionResultType.S;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyAspectTest {
+    @Mock
+    private ProceedingJoinPoint proceedingJoinPoint;
+
+    @Mock
+    private MethodSignature methodSignature;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private IdempotencyAspect idempotencyAspect;
+
+    private final MockHttpServletRequest httpServletRequest = new MockHttpServletRequest();
+
+    @BeforeEach
+    void setUp() {
+        idempotencyAspect = new IdempotencyAspect(new IdempotencyService(new LocalIdempotencyStore(), objectMapper));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(httpServletRequest));
+        lenient().when(proceedingJoinPoint.getSignature()).thenReturn(methodSignature);
+        lenient().when(methodSignature.getName()).thenReturn("useBalance");
+        lenient().when(methodSignature.getReturnType()).thenReturn(UseBalance.Response.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+
+    @Test
+    void replaySuccessResponse() throws Throwable {
+        // given
+        httpServletRequest.addHeader(IdempotencyService.IDEMPOTENCY_KEY_HEADER, "key-1");
+        UseBalance.Request request = new UseBalance.Request(1L, "1234567890", 1000L);
+        given(proceedingJoinPoint.proceed())
+                .willReturn(UseBalance.Response.builder()
+                        .accountNumber("1234567890")
+                        .transactionResultType(S)
+                        .transactionId("transactionId")
+                        .amount(1000L)
+                        .transactedAt(LocalDateTime.of(2025, 1, 1, 0, 0))
+                        .build());
+
+        // when
+        idempotencyAspect.around(proceedingJoinPoint, request);
+        UseBalance.Response response =
+                (UseBalance.Response) idempotencyAspect.around(proceedingJoinPoint, request);
+
+        // then
+        verify(proceedingJoinPoint, times(1)).proceed();
+        assertEquals("transactionId", response.getTransactionId());
+        assertEquals(1000L, response.getAmount());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 0, 0), response.getTransactedAt());
+    }
+
+    @Test
+    void replayFailure() throws Throwable {
+        // given
+        httpServletRequest.addHeader(IdempotencyService.IDEMPOTENCY_KEY_HEADER, "key-1");
+        UseBalance.Request request = new UseBalance.Request(1L, "1234567890", 1000L);
+        given(proceedingJoinPoint.proceed())
+                .willThrow(new AccountException(BALANCE_EXCEEDED));
+
+        // when
+        assertThrows(AccountException.class,
+                () -> idempotencyAspect.around(proceedingJoinPoint, request));
+        AccountException exception = assertThrows(AccountException.class,
+                () -> idempotencyAspect.around(proceedingJoinPoint, request));
+
+        // then
+        verify(proceedingJoinPoint, times(1)).proceed();
+        assertEquals(BALANCE_EXCEEDED, exception.getErrorCode());
+    }
+
+    @Test
+    void notRecorded_lockFailed() throws Throwable {
+        // given
+        httpServletRequest.addHeader(IdempotencyService.IDEMPOTENCY_KEY_HEADER, "key-1");
+        UseBalance.Request request = new UseBalance.Request(1L, "1234567890", 1000L);
+        given(proceedingJoinPoint.proceed())
+                .willThrow(new AccountException(ACCOUNT_TRANSACTION_LOCK));
+
+        // when
+        assertThrows(AccountException.class,
+                () -> idempotencyAspect.around(proceedingJoinPoint, request));
+        assertThrows(AccountException.class,
+                () -> idempotencyAspect.around(proceedingJoinPoint, request));
+
+        // then
+        // 락 취득 실패는 기록하지 않으므로 다시 처리
+        verify(proceedingJoinPoint, times(2)).proceed();
+    }
+
+    @Test
+    void keyReusedWithOtherRequest() throws Throwable {
+        // given
+        httpServletRequest.addHeader(IdempotencyService.IDEMPOTENCY_KEY_HEADER, "key-1");
+        given(proceedingJoinPoint.proceed())
+                .willReturn(UseBalance.Response.builder().amount(1000L).build());
+        idempotencyAspect.around(proceedingJoinPoint, new UseBalance.Request(1L, "1234567890", 1000L));
+
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> idempotencyAspect.around(proceedingJoinPoint,
+                        new UseBalance.Request(1L, "1234567890", 2000L)));
+
+        // then
+        verify(proceedingJoinPoint, times(1)).proceed();
+        assertEquals(IDEMPOTENCY_KEY_REUSED, exception.getErrorCode());
+    }
+
+    @Test
+    void claimWithShortTtl_extendOnRecord() throws Throwable {
+        // given
+        LocalIdempotencyStore idempotencyStore = spy(new LocalIdempotencyStore());
+        idempotencyAspect = new IdempotencyAspect(new IdempotencyService(idempotencyStore, objectMapper));
+        httpServletRequest.addHeader(IdempotencyService.IDEMPOTENCY_KEY_HEADER, "key-1");
+        given(proceedingJoinPoint.proceed())
+                .willReturn(UseBalance.Response.builder().amount(1000L).build());
+
+        // when
+        idempotencyAspect.around(proceedingJoinPoint, new UseBalance.Request(1L, "1234567890", 1000L));
+
+        // then
+        // 처리 중 기록은 락 대기 + 락 임대 시간보다 조금 길게만 보관하고, 처리 결과를 기록할 때 보관 기간 연장
+        verify(idempotencyStore, times(1)).claim(eq("useBalance:key-1"), anyString(), eq(Duration.ofSeconds(60)));
+        verify(idempotencyStore, times(1)).complete(eq("useBalance:key-1"), any(), eq(Duration.ofSeconds(86400)));
+    }
+
+    @Test
+    void recordFailed_returnResponse() throws Throwable {
+        // given
+        idempotencyAspect = new IdempotencyAspect(new IdempotencyService(new LocalIdempotencyStore() {
+            @Override
+            public void complete(String key, IdempotencyRecord record, Duration ttl) {
+                throw new IllegalStateException("Redis unavailable");
+            }
+        }, objectMapper));
+        httpServletRequest.addHeader(IdempotencyService.IDEMPOTENCY_KEY_HEADER, "key-1");
+        given(proceedingJoinPoint.proceed())
+                .willReturn(UseBalance.Response.builder().transactionId("transactionId").build());
+
+        // when
+        UseBalance.Response response = (UseBalance.Response) idempotencyAspect.around(
+                proceedingJoinPoint, new UseBalance.Request(1L, "1234567890", 1000L));
+
+        // then
+        // 결과 기록에 실패해도 이미 처리된 요청의 응답을 반환
+        assertEquals("transactionId", response.getTransactionId());
+    }
+
+    @Test
+    void proceed_withoutKey() throws Throwable {
+        // given
+        UseBalance.Request request = new UseBalance.Request(1L, "1234567890", 1000L);
+
+        // when
+        idempotencyAspect.around(proceedingJoinPoint, request);
+        idempotencyAspect.around(proceedingJoinPoint, request);
+
+        // then
+        verify(proceedingJoinPoint, times(2)).proceed();
+    }
+}
@@ -0,0 +1,190 @@
+package com.ian.account.service;
+
+import com.ian.account.domain.Account;
+import com.ian.account.domain.AccountUser;
+import com.ian.account.dto.TransactionDTO;
+import com.ian.account.exception.AccountException;
+import com.ian.account.repository.AccountRepository;
+import com.ian.account.repository.AccountUserRepository;
+import com.ian.account.repository.TransactionRepository;
+import com.ian.account.type.AccountStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Optional;
+
+import static com.ian.account.type.ErrorCode.BALANCE_EXCEEDED;
+import static com.ian.account.type.ErrorCode.USER_NOT_FOUND;
+import static com.ian.account.type.TransactionResultType.S;
+import static com.ian.account.type.TransactionType.USE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerEngineTest {
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private AccountUserRepository accountUserRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private AccountCache accountCache;
+
+    @Mock
+    private TransactionOutbox transactionOutbox;
+
+    @Spy
+    private TransactionIdGenerator transactionIdGenerator;
+
+    @InjectMocks
+    private LedgerEngine ledgerEngine;
+
+    @BeforeEach
+    void setUp() {
+        ledgerEngine.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        ledgerEngine.stop();
+    }
+
+
+    @Test
+    void useBalanceSuccess() {
+        // given
+        Account account = createAccount(10000L, 0L);
+        given(accountUserRepository.existsById(12L))
+                .willReturn(true);
+        given(accountRepository.findByAccountNumber("1000000012"))
+                .willReturn(Optional.of(account));
+        given(accountRepository.updateBalanceIfVersion(eq(1L), anyLong(), anyLong(), any()))
+                .willReturn(1);
+        given(accountRepository.getReferenceById(1L))
+                .willReturn(account);
+
+        // when
+        TransactionDTO first = ledgerEngine.useBalance(12L, "1000000012", 1000L);
+        TransactionDTO second = ledgerEngine.useBalance(12L, "1000000012", 2000L);
+
+        // then
+        // 계좌는 처음 한 번만 읽고, 이후에는 메모리의 잔액과 버전으로 반영
+        verify(accountRepository, times(1)).findByAccountNumber("1000000012");
+        verify(accountRepository, times(1)).updateBalanceIfVersion(eq(1L), eq(9000L), eq(0L), any());
+        verify(accountRepository, times(1)).updateBalanceIfVersion(eq(1L), eq(7000L), eq(1L), any());
+        assertEquals("1000000012", first.getAccountNumber());
+        assertEquals(USE, first.getTransactionType());
+        assertEquals(S, first.getTransactionResultType());
+        assertEquals(9000L, first.getBalanceSnapshot());
+        assertEquals(7000L, second.getBalanceSnapshot());
+    }
+
+    @Test
+    void useBalance_reloadWhenModifiedOutside() {
+        // given
+        Account account = createAccount(10000L, 0L);
+        given(accountUserRepository.existsById(12L))
+                .willReturn(true);
+        given(accountRepository.findByAccountNumber("1000000012"))
+                .willReturn(Optional.of(account))
+                .willReturn(Optional.of(createAccount(20000L, 1L)));
+        given(accountRepository.updateBalanceIfVersion(eq(1L), anyLong(), anyLong(), any()))
+                .willReturn(0)
+                .willReturn(1);
+        given(accountRepository.getReferenceById(1L))
+                .willReturn(account);
+
+        // when
+        TransactionDTO transactionDTO = ledgerEngine.useBalance(12L, "1000000012", 1000L);
+
+        // then
+        // 다른 곳에서 계좌가 변경되어 커밋에 실패하면 다시 읽은 잔액으로 반영
+        verify(accountRepository, times(2)).findByAccountNumber("1000000012");
+        verify(accountRepository, times(1)).updateBalanceIfVersion(eq(1L), eq(19000L), eq(1L), any());
+        assertEquals(19000L, transactionDTO.getBalanceSnapshot());
+    }
+
+    @Test
+    void useBalanceFailed_balanceExceeded() {
+        // given
+        given(accountUserRepository.existsById(12L))
+                .willReturn(true);
+        given(accountRepository.findByAccountNumber("1000000012"))
+                .willReturn(Optional.of(createAccount(100L, 0L)));
+
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> ledgerEngine.useBalance(12L, "1000000012", 1000L));
+
+        // then
+        assertEquals(BALANCE_EXCEEDED, exception.getErrorCode());
+        verify(accountRepository, never()).updateBalanceIfVersion(anyLong(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void useBalanceFailed_userNotFound() {
+        // given
+        given(accountUserRepository.existsById(12L))
+                .willReturn(false);
+
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> ledgerEngine.useBalance(12L, "1000000012", 1000L));
+
+        // then
+        assertEquals(USER_NOT_FOUND, exception.getErrorCode());
+        assertEquals(0, ledgerEngine.size());
+    }
+
+    @Test
+    void evictIdleOwners() throws InterruptedException {
+        // given
+        ReflectionTestUtils.setField(ledgerEngine, "idleEvictMillis", 0L);
+        given(accountUserRepository.existsById(12L))
+                .willReturn(true);
+        given(accountRepository.findByAccountNumber("1000000012"))
+                .willReturn(Optional.of(createAccount(100L, 0L)));
+        assertThrows(AccountException.class, () -> ledgerEngine.useBalance(12L, "1000000012", 1000L));
+        Thread.sleep(10L);
+
+        // when
+        ledgerEngine.evictIdleOwners();
+
+        // then
+        assertEquals(0, ledgerEngine.size());
+    }
+
+
+    private static Account createAccount(Long balance, Long version) {
+        return Account.builder()
+                .id(1L)
+                .accountUser(AccountUser.builder().id(12L).userName("Isaiah").build())
+                .accountStatus(AccountStatus.ACTIVE)
+                .accountNumber("1000000012")
+                .balance(balance)
+                .version(version)
+                .build();
+    }
+}
@@ -0,0 +1,374 @@
+package com.ian.account.service;
+
+import com.ian.account.domain.Account;
+import com.ian.account.domain.AccountUser;
+import com.ian.account.domain.LedgerCheckpoint;
+import com.ian.account.domain.LedgerEvent;
+import com.ian.account.domain.Transaction;
+import com.ian.account.dto.AccountDTO;
+import com.ian.account.dto.TransactionDTO;
+import com.ian.account.exception.AccountException;
+import com.ian.account.repository.AccountRepository;
+import com.ian.account.repository.AccountUserRepository;
+import com.ian.account.repository.LedgerCheckpointRepository;
+import com.ian.account.repository.LedgerEventRepository;
+import com.ian.account.repository.TransactionRepository;
+import com.ian.account.type.AccountStatus;
+import com.ian.account.type.JournalDurability;
+import com.ian.account.type.TransactionMode;
+import jakarta.persistence.EntityManager;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.SelectionQuery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static com.ian.account.type.ErrorCode.ACCOUNT_HAS_BALANCE;
+import static com.ian.account.type.ErrorCode.BALANCE_EXCEEDED;
+import static com.ian.account.type.ErrorCode.TRANSACTION_NOT_CANCELLABLE;
+import static com.ian.account.type.TransactionResultType.S;
+import static com.ian.account.type.TransactionType.TRANSFER;
+import static com.ian.account.type.TransactionType.USE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerJournalTest {
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private AccountUserRepository accountUserRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private LedgerEventRepository ledgerEventRepository;
+
+    @Mock
+    private LedgerCheckpointRepository ledgerCheckpointRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private TransactionIdGenerator transactionIdGenerator;
+
+    @Mock
+    private AccountCache accountCache;
+
+    @Mock
+    private TransactionOutbox transactionOutbox;
+
+    @Mock
+    private TransactionCache transactionCache;
+
+    @Mock
+    private Session session;
+
+    @Mock(answer = Answers.RETURNS_SELF)
+    private SelectionQuery<Object[]> query;
+
+    @Mock
+    private ScrollableResults<Object[]> accountRows;
+
+    @Mock
+    private ScrollableResults<Object[]> eventRows;
+
+    @InjectMocks
+    private LedgerJournal ledgerJournal;
+
+    @BeforeEach
+    void setUp() {
+        // 스냅샷(계좌 테이블)의 잔액은 10000, 체크포인트(100) 이후 이벤트로 8000
+        ReflectionTestUtils.setField(ledgerJournal, "transactionMode", TransactionMode.JOURNAL);
+        given(ledgerCheckpointRepository.findTopByOrderByIdDesc())
+                .willReturn(Optional.of(LedgerCheckpoint.builder().lastEventId(100L).build()));
+        given(entityManager.unwrap(Session.class)).willReturn(session);
+        given(session.createSelectionQuery(anyString(), eq(Object[].class))).willReturn(query);
+        given(query.scroll(ScrollMode.FORWARD_ONLY)).willReturn(accountRows, eventRows);
+        given(accountRows.next()).willReturn(true, false);
+        given(accountRows.get()).willReturn(
+                new Object[]{1L, "1000000012", 12L, AccountStatus.ACTIVE, 10000L, LocalDateTime.now()});
+        given(eventRows.next()).willReturn(true, false);
+        given(eventRows.get()).willReturn(new Object[]{101L, 1L, 8000L});
+
+        ledgerJournal.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        ledgerJournal.stop();
+    }
+
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void useBalanceSuccess_afterReplay() {
+        // given
+        givenEventIds();
+        given(accountUserRepository.existsById(12L))
+                .willReturn(true);
+        given(accountRepository.getReferenceById(1L))
+                .willReturn(createAccount(1L, "1000000012", 10000L));
+
+        // when
+        TransactionDTO transactionDTO = ledgerJournal.useBalance(12L, "1000000012", 1000L);
+
+        // then
+        // 체크포인트 이후의 이벤트만 다시 적용하고, 계좌 행은 UPDATE 하지 않음
+        verify(query).setParameter("checkpoint", 100L);
+        verify(accountRepository, never()).updateBalanceIfVersion(anyLong(), anyLong(), anyLong(), any());
+        assertEquals("1000000012", transactionDTO.getAccountNumber());
+        assertEquals(USE, transactionDTO.getTransactionType());
+        assertEquals(7000L, transactionDTO.getBalanceSnapshot());
+
+        ArgumentCaptor<List<LedgerEvent>> captor = ArgumentCaptor.forClass(List.class);
+        verify(ledgerEventRepository).saveAll(captor.capture());
+        assertEquals(-1000L, captor.getValue().get(0).getDelta());
+        assertEquals(7000L, captor.getValue().get(0).getBalance());
+        assertEquals(transactionDTO.getTransactionId(), captor.getValue().get(0).getTransactionId());
+    }
+
+    @Test
+    void applyJournalBalances_afterUseBalance() {
+        // given
+        givenEventIds();
+        given(accountUserRepository.existsById(12L))
+                .willReturn(true);
+        given(accountRepository.getReferenceById(1L))
+                .willReturn(createAccount(1L, "1000000012", 10000L));
+        // 계좌 테이블(스냅샷)의 잔액으로 캐시된 목록
+        List<AccountDTO> snapshot = List.of(
+                AccountDTO.builder().id(12L).accountNumber("1000000012").balance(10000L).build(),
+                AccountDTO.builder().id(12L).accountNumber("1000000099").balance(5000L).build());
+
+        // when
+        ledgerJournal.useBalance(12L, "1000000012", 1000L);
+        List<AccountDTO> accounts = ledgerJournal.applyJournalBalances(snapshot);
+
+        // then
+        // 체크포인트 전이어도 응답한 거래의 잔액으로 반환하고, 캐시된 목록은 바꾸지 않음
+        assertEquals(7000L, accounts.get(0).getBalance());
+        assertEquals(5000L, accounts.get(1).getBalance());
+        assertEquals(10000L, snapshot.get(0).getBalance());
+    }
+
+    @Test
+    void useBalanceFailed_balanceExceeded() {
+        // given
+        given(accountUserRepository.existsById(12L))
+                .willReturn(true);
+
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> ledgerJournal.useBalance(12L, "1000000012", 9000L));
+
+        // then
+        assertEquals(BALANCE_EXCEEDED, exception.getErrorCode());
+        verify(ledgerEventRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void cancelBalanceFailed_transferNotCancellable() {
+        // given
+        // 1000000012 에서 보낸 이체, 1000000012 로 받은 이체
+        given(transactionRepository.findDTOByTransactionId("sentTransactionId"))
+                .willReturn(Optional.of(createTransferDTO("sentTransactionId", 7000L)));
+        given(transactionRepository.findDTOByTransactionId("receivedTransactionId"))
+                .willReturn(Optional.of(createTransferDTO("receivedTransactionId", 9000L)));
+
+        // when
+        AccountException sentException = assertThrows(AccountException.class,
+                () -> ledgerJournal.cancelBalance("sentTransactionId", "1000000012", 1000L));
+        AccountException receivedException = assertThrows(AccountException.class,
+                () -> ledgerJournal.cancelBalance("receivedTransactionId", "1000000012", 1000L));
+
+        // then
+        assertEquals(TRANSACTION_NOT_CANCELLABLE, sentException.getErrorCode());
+        assertEquals(TRANSACTION_NOT_CANCELLABLE, receivedException.getErrorCode());
+        verify(ledgerEventRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void transferBalanceSuccess_loadNewAccount() {
+        // given
+        Account toAccount = createAccount(2L, "1000000013", 500L);
+        givenEventIds();
+        given(accountUserRepository.existsById(12L))
+                .willReturn(true);
+        given(accountRepository.findByAccountNumberIn(any()))
+                .willReturn(List.of(toAccount));
+        given(accountRepository.getReferenceById(anyLong()))
+                .willReturn(toAccount);
+
+        // when
+        TransactionDTO transactionDTO = ledgerJournal.transferBalance(12L, "1000000012", "1000000013", 3000L);
+
+        // then
+        // 복구 이후에 생성된 받는 계좌는 처음 사용할 때 읽음
+        assertEquals("1000000012", transactionDTO.getAccountNumber());
+        assertEquals(TRANSFER, transactionDTO.getTransactionType());
+        assertEquals(5000L, transactionDTO.getBalanceSnapshot());
+
+        ArgumentCaptor<List<Transaction>> captor = ArgumentCaptor.forClass(List.class);
+        verify(transactionRepository).insertAll(captor.capture());
+        assertEquals(3500L, captor.getValue().get(0).getBalanceSnapshot());
+        assertEquals(5000L, captor.getValue().get(1).getBalanceSnapshot());
+    }
+
+    @Test
+    void deleteAccountFailed_hasBalance() {
+        // given
+        given(accountUserRepository.existsById(12L))
+                .willReturn(true);
+
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> ledgerJournal.deleteAccount(12L, "1000000012"));
+
+        // then
+        // 계좌 테이블이 아닌 메모리의 잔액으로 확인
+        assertEquals(ACCOUNT_HAS_BALANCE, exception.getErrorCode());
+        verify(accountRepository, never()).closeAccount(anyLong(), any(), anyLong(), any());
+    }
+
+    @Test
+    void deleteAccountSuccess() {
+        // given
+        givenEventIds();
+        given(accountUserRepository.existsById(12L))
+                .willReturn(true);
+        given(accountRepository.getReferenceById(1L))
+                .willReturn(createAccount(1L, "1000000012", 10000L));
+        ledgerJournal.useBalance(12L, "1000000012", 8000L);
+
+        // when
+        AccountDTO accountDTO = ledgerJournal.deleteAccount(12L, "1000000012");
+
+        // then
+        verify(accountRepository).closeAccount(eq(1L), eq(AccountStatus.CLOSED), eq(0L), any());
+        verify(accountCache).evictAfterCommit(12L);
+        assertEquals("1000000012", accountDTO.getAccountNumber());
+        assertEquals(0L, accountDTO.getBalance());
+    }
+
+    @Test
+    void checkpointOnStop() throws InterruptedException {
+        // given
+        Account account = createAccount(1L, "1000000012", 10000L);
+        given(accountRepository.findAllById(any()))
+                .willReturn(List.of(account));
+
+        // when
+        ledgerJournal.stop();
+
+        // then
+        // 복구 중 다시 적용한 계좌의 잔액을 계좌 테이블에 저장하고 체크포인트 기록
+        ArgumentCaptor<LedgerCheckpoint> captor = ArgumentCaptor.forClass(LedgerCheckpoint.class);
+        verify(ledgerCheckpointRepository).save(captor.capture());
+        assertEquals(101L, captor.getValue().getLastEventId());
+        assertEquals(1, captor.getValue().getAccountCount());
+        assertEquals(8000L, account.getBalance());
+    }
+
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void useBalanceSuccess_walBeforePersist(@TempDir Path walDirectory) throws InterruptedException {
+        // given
+        ledgerJournal.stop();
+        ReflectionTestUtils.setField(ledgerJournal, "durability", JournalDurability.WAL);
+        ReflectionTestUtils.setField(ledgerJournal, "walDirectory", walDirectory.toString());
+        ReflectionTestUtils.setField(ledgerJournal, "walSegmentBytes", WriteAheadLog.RECORD_SIZE * 16);
+        given(query.scroll(ScrollMode.FORWARD_ONLY)).willReturn(accountRows, eventRows);
+        given(accountRows.next()).willReturn(true, false);
+        given(eventRows.next()).willReturn(false);
+        givenEventIds();
+        given(accountUserRepository.existsById(12L))
+                .willReturn(true);
+        given(accountRepository.getReferenceById(1L))
+                .willReturn(createAccount(1L, "1000000012", 10000L));
+        ledgerJournal.start();
+
+        // when
+        TransactionDTO transactionDTO = ledgerJournal.useBalance(12L, "1000000012", 1000L);
+        ledgerJournal.stop();
+
+        // then
+        // WAL 에 기록한 뒤 응답하고(거래 확인 캐시에 저장), 저장 스레드가 WAL 기록 번호와 함께 DB 에 저장
+        assertEquals(9000L, transactionDTO.getBalanceSnapshot());
+        verify(transactionCache).put(transactionDTO);
+
+        ArgumentCaptor<List<LedgerEvent>> captor = ArgumentCaptor.forClass(List.class);
+        verify(ledgerEventRepository).saveAll(captor.capture());
+        assertEquals(1L, captor.getValue().get(0).getWalSequence());
+        assertEquals(9000L, captor.getValue().get(0).getBalance());
+        assertEquals(transactionDTO.getTransactionId(), captor.getValue().get(0).getTransactionId());
+        verify(transactionRepository).insertAll(anyList());
+    }
+
+
+    // 저장한 이벤트에 아이디를 매김 (마지막 이벤트 아이디 기록)
+    private void givenEventIds() {
+        given(ledgerEventRepository.saveAll(anyList())).willAnswer(invocation -> {
+            List<LedgerEvent> events = invocation.getArgument(0);
+            long id = 102L;
+            for (LedgerEvent event : events)
+                event.setId(id++);
+            return events;
+        });
+    }
+
+    private static TransactionDTO createTransferDTO(String transactionId, Long balanceSnapshot) {
+        return TransactionDTO.builder()
+                .accountNumber("1000000012")
+                .transactionType(TRANSFER)
+                .transactionResultType(S)
+                .amount(1000L)
+                .balanceSnapshot(balanceSnapshot)
+                .transactionId(transactionId)
+                .transactedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static Account createAccount(Long id, String accountNumber, Long balance) {
+        return Account.builder()
+                .id(id)
+                .accountUser(AccountUser.builder().id(12L).userName("Isaiah").build())
+                .accountStatus(AccountStatus.ACTIVE)
+                .accountNumber(accountNumber)
+                .balance(balance)
+                .build();
+    }
+}
@@ -0,0 +1,106 @@
+package com.ian.account.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalLockRegistryTest {
+    private final LocalLockRegistry localLockRegistry = new LocalLockRegistry();
+
+
+    @Test
+    void lockUnlockSuccess() throws InterruptedException {
+        // when
+        boolean isLock = localLockRegistry.tryLock("1234567890", 100, TimeUnit.MILLISECONDS);
+        localLockRegistry.unlock("1234567890");
+
+        // then
+        assertTrue(isLock);
+        assertEquals(0, localLockRegistry.size());
+    }
+
+    @Test
+    void lockFailed_heldByOtherThread() throws Exception {
+        // given
+        localLockRegistry.tryLock("1234567890", 100, TimeUnit.MILLISECONDS);
+
+        // when
+        boolean isLock = CompletableFuture.supplyAsync(() -> {
+            try {
+                return localLockRegistry.tryLock("1234567890", 50, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }).get();
+
+        // then
+        assertFalse(isLock);
+        assertEquals(1, localLockRegistry.size());
+        localLockRegistry.unlock("1234567890");
+        assertEquals(0, localLockRegistry.size());
+    }
+
+    @Test
+    void lockSuccess_otherAccount() throws Exception {
+        // given
+        localLockRegistry.tryLock("1234567890", 100, TimeUnit.MILLISECONDS);
+
+        // when
+        boolean isLock = CompletableFuture.supplyAsync(() -> {
+            try {
+                boolean result = localLockRegistry.tryLock("1111111111", 50, TimeUnit.MILLISECONDS);
+                localLockRegistry.unlock("1111111111");
+                return result;
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }).get();
+
+        // then
+        assertTrue(isLock);
+        localLockRegistry.unlock("1234567890");
+    }
+
+    @Test
+    void unlockFailed_notHeld() {
+        assertThrows(IllegalMonitorStateException.class,
+                () -> localLockRegistry.unlock("1234567890"));
+    }
+
+    @Test
+    void lockFailed_queueFull() throws Exception {
+        // given
+        localLockRegistry.tryLock("1234567890", 100, TimeUnit.MILLISECONDS);
+
+        // when
+        long startedAt = System.nanoTime();
+        LocalLockRegistry.Acquisition acquisition = CompletableFuture.supplyAsync(() -> {
+            try {
+                return localLockRegistry.tryLock("1234567890", 5, TimeUnit.SECONDS, 0);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }).get();
+
+        // then
+        // 대기열이 가득 찬 경우 대기 시간(5초)을 기다리지 않고 바로 실패
+        assertEquals(LocalLockRegistry.Acquisition.QUEUE_FULL, acquisition);
+        assertTrue(System.nanoTime() - startedAt < TimeUnit.SECONDS.toNanos(1));
+        localLockRegistry.unlock("1234567890");
+        assertEquals(0, localLockRegistry.size());
+    }
+
+    @Test
+    void lockSuccess_queueDepthNotCheckedWhenFree() throws InterruptedException {
+        // when
+        LocalLockRegistry.Acquisition acquisition =
+                localLockRegistry.tryLock("1234567890", 100, TimeUnit.MILLISECONDS, 0);
+
+        // then
+        assertEquals(LocalLockRegistry.Acquisition.ACQUIRED, acquisition);
+        localLockRegistry.unlock("1234567890");
+    }
+}
@@ -1,20 +1,37 @@
 package com.ian.account.service;
 
 
+import com.ian.account.aop.AccountLock;
+import com.ian.account.controller.TransactionController;
+import com.ian.account.dto.TransferBalance;
 import com.ian.account.dto.UseBalance;
 import com.ian.account.exception.AccountException;
 import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
 
 import static com.ian.account.type.ErrorCode.ACCOUNT_NOT_FOUND;
+import static com.ian.account.type.LockProtocol.SCRIPT;
+import static com.ian.account.type.TransactionMode.CONDITIONAL_UPDATE;
+import static com.ian.account.type.TransactionType.CANCEL;
+import static com.ian.account.type.TransactionType.USE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -23,9 +40,18 @@ class LockAOPAspectTest {
     @Mock
     private LockService lockService;
 
+    @Mock
+    private IdempotencyService idempotencyService;
+
     @Mock
     private ProceedingJoinPoint proceedingJoinPoint;
 
+    @Mock
+    private AccountLock accountLock;
+
+    @Mock
+    private MethodSignature methodSignature;
+
     @InjectMocks
     private LockAOPAspect lockAOPAspect;
 
@@ -38,11 +64,11 @@ class LockAOPAspectTest {
         UseBalance.Request request = new UseBalance.Request(123L, "12345", 1234L);
 
         // when
-        lockAOPAspect.around(proceedingJoinPoint, request);
+        lockAOPAspect.around(proceedingJoinPoint, accountLock, request);
 
         // then
-        verify(lockService, times(1)).lock(lockArgumentCaptor.capture());
-        verify(lockService, times(1)).unlock(unLockArgumentCaptor.capture());
+        verify(lockService, times(1)).lock(lockArgumentCaptor.capture(), anyLong());
+        verify(lockService, times(1)).unlock(unLockArgumentCaptor.capture(), isNull());
         assertEquals("12345", lockArgumentCaptor.getValue());
         assertEquals("12345", unLockArgumentCaptor.getValue());
     }
@@ -58,12 +84,81 @@ class LockAOPAspectTest {
 
         // when
         assertThrows(AccountException.class,
-                () -> lockAOPAspect.around(proceedingJoinPoint, request));
+                () -> lockAOPAspect.around(proceedingJoinPoint, accountLock, request));
 
         // then
-        verify(lockService, times(1)).lock(lockArgumentCaptor.capture());
-        verify(lockService, times(1)).unlock(unLockArgumentCaptor.capture());
+        verify(lockService, times(1)).lock(lockArgumentCaptor.capture(), anyLong());
+        // 처리 중 발생한 예외를 락 해제에 전달 (락 보유 시간 지표의 outcome / error_code)
+        verify(lockService, times(1)).unlock(unLockArgumentCaptor.capture(), any(AccountException.class));
         assertEquals("54321", lockArgumentCaptor.getValue());
         assertEquals("54321", unLockArgumentCaptor.getValue());
     }
-}
\ No newline at end of file
+
+    @Test
+    void skipLock_conditionalUpdateUseBalance() throws Throwable {
+        // given
+        ReflectionTestUtils.setField(lockAOPAspect, "transactionMode", CONDITIONAL_UPDATE);
+        given(accountLock.transactionType()).willReturn(USE);
+        UseBalance.Request request = new UseBalance.Request(123L, "12345", 1234L);
+
+        // when
+        lockAOPAspect.around(proceedingJoinPoint, accountLock, request);
+
+        // then
+        verify(proceedingJoinPoint, times(1)).proceed();
+        verify(lockService, never()).lock(anyString(), anyLong());
+        verify(lockService, never()).unlock(anyString(), any());
+    }
+
+    @Test
+    void lockUnlock_conditionalUpdateCancelBalance() throws Throwable {
+        // given
+        ReflectionTestUtils.setField(lockAOPAspect, "transactionMode", CONDITIONAL_UPDATE);
+        given(accountLock.transactionType()).willReturn(CANCEL);
+        UseBalance.Request request = new UseBalance.Request(123L, "12345", 1234L);
+
+        // when
+        lockAOPAspect.around(proceedingJoinPoint, accountLock, request);
+
+        // then
+        verify(lockService, times(1)).lock("12345", 0L);
+        verify(lockService, times(1)).unlock("12345", null);
+    }
+
+    @Test
+    void lockAllUnlockAllTest() throws Throwable {
+        // given
+        given(accountLock.tryLockTime()).willReturn(5000L);
+        TransferBalance.Request request = new TransferBalance.Request(
+                123L, "2222222222", "1111111111", 1234L);
+
+        // when
+        lockAOPAspect.aroundAll(proceedingJoinPoint, accountLock, request);
+
+        // then
+        verify(lockService, times(1)).lockAll(List.of("2222222222", "1111111111"), 5000L);
+        verify(lockService, times(1)).unlockAll(List.of("2222222222", "1111111111"), null);
+    }
+
+    @Test
+    void lockAndClaim_scriptProtocol() throws Throwable {
+        // given
+        ReflectionTestUtils.setField(lockAOPAspect, "lockProtocol", SCRIPT);
+        given(accountLock.tryLockTime()).willReturn(5000L);
+        given(proceedingJoinPoint.getSignature()).willReturn(methodSignature);
+        given(methodSignature.getMethod())
+                .willReturn(TransactionController.class.getMethod("useBalance", UseBalance.Request.class));
+        given(lockService.lockAndClaim(List.of("12345"), 5000L, null))
+                .willReturn(new RedisLockScript.Result(RedisLockScript.Status.ACQUIRED, 1L, null));
+        UseBalance.Request request = new UseBalance.Request(123L, "12345", 1234L);
+
+        // when
+        lockAOPAspect.around(proceedingJoinPoint, accountLock, request);
+
+        // then
+        // Idempotency-Key 헤더가 없는 요청은 락만 취득/해제
+        verify(proceedingJoinPoint, times(1)).proceed();
+        verify(lockService, times(1)).unlockAndRecord(eq(List.of("12345")), isNull(), isNull(), isNull());
+        verify(lockService, never()).lock(anyString(), anyLong());
+    }
+}
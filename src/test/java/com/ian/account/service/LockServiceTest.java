@@ -1,21 +1,41 @@
 package com.ian.account.service;
 
+import com.ian.account.dto.IdempotencyClaim;
+import com.ian.account.dto.IdempotencyRecord;
 import com.ian.account.exception.AccountException;
 import com.ian.account.type.ErrorCode;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RFuture;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
+import org.redisson.misc.CompletableFutureWrapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.ian.account.type.ErrorCode.ACCOUNT_TRANSACTION_LOCK;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
 class LockServiceTest {
@@ -25,6 +45,12 @@ class LockServiceTest {
     @Mock
     private RLock lock;
 
+    @Mock
+    private RedisLockScript redisLockScript;
+
+    @Mock
+    private AccountMetrics accountMetrics;
+
     @InjectMocks
     private LockService lockService;
 
@@ -34,12 +60,12 @@ class LockServiceTest {
         // given
         given(redisson.getLock(anyString()))
                 .willReturn(lock);
-        given(lock.tryLock(anyLong(), anyLong(), any()))
-                .willReturn(true);
+        given(lock.tryLockAsync(anyLong(), anyLong(), any(), anyLong()))
+                .willReturn(locked(true));
 
         // when
         // then
-        assertDoesNotThrow(() -> lockService.lock("1234"));
+        assertDoesNotThrow(() -> lockService.lock("1234", 1000L));
     }
 
     @Test
@@ -47,14 +73,217 @@ class LockServiceTest {
         // given
         given(redisson.getLock(anyString()))
                 .willReturn(lock);
-        given(lock.tryLock(anyLong(), anyLong(), any()))
-                .willReturn(false);
+        given(lock.tryLockAsync(anyLong(), anyLong(), any(), anyLong()))
+                .willReturn(locked(false));
 
         // when
         AccountException accountException = assertThrows(AccountException.class,
-                () -> lockService.lock("1234"));
+                () -> lockService.lock("1234", 1000L));
         // then
         assertEquals(ACCOUNT_TRANSACTION_LOCK, accountException.getErrorCode());
+        verify(accountMetrics, times(1))
+                .recordLockWait(anyLong(), eq("redis_timeout"), eq(ACCOUNT_TRANSACTION_LOCK));
+    }
+
+    @Test
+    void getLockFailed_releaseLocalLock() throws InterruptedException {
+        // given
+        given(redisson.getLock(anyString()))
+                .willReturn(lock);
+        given(lock.tryLockAsync(anyLong(), anyLong(), any(), anyLong()))
+                .willReturn(locked(false), locked(true));
+
+        // when
+        assertThrows(AccountException.class, () -> lockService.lock("1234", 1000L));
+
+        // then
+        // Redis 락 취득에 실패하면 로컬 락도 해제되어, 다른 스레드가 같은 계좌의 락을 취득할 수 있다
+        assertDoesNotThrow(() -> CompletableFuture.runAsync(() -> lockService.lock("1234", 1000L)).get());
+    }
+
+    @Test
+    void getLockInterrupted_releaseLocalLock() throws Exception {
+        // given
+        CountDownLatch waiting = new CountDownLatch(1);
+        given(redisson.getLock(anyString()))
+                .willReturn(lock);
+        given(lock.tryLockAsync(anyLong(), anyLong(), any(), anyLong()))
+                .willAnswer(invocation -> {
+                    waiting.countDown();
+                    return new CompletableFutureWrapper<Boolean>(new CompletableFuture<Boolean>());
+                })
+                .willReturn(locked(true));
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        Thread waiter = Thread.ofPlatform().start(() -> {
+            try {
+                lockService.lock("1234", 10000L);
+            } catch (Exception e) {
+                failure.set(e);
+            }
+        });
+
+        // when
+        // Redis 락을 기다리는 중에 인터럽트
+        assertTrue(waiting.await(1, TimeUnit.SECONDS));
+        waiter.interrupt();
+        waiter.join(1000L);
+
+        // then
+        // 인터럽트된 스레드의 로컬 락이 해제되어, 다른 스레드가 같은 계좌의 락을 바로 취득할 수 있다
+        assertInstanceOf(AccountException.class, failure.get());
+        verify(accountMetrics, times(1))
+                .recordLockWait(anyLong(), eq("interrupted"), eq(ACCOUNT_TRANSACTION_LOCK));
+        assertDoesNotThrow(() -> CompletableFuture.runAsync(() -> lockService.lock("1234", 1000L)).get());
+    }
+
+    @Test
+    void lockAll_accountNumberOrder() throws InterruptedException {
+        // given
+        given(redisson.getLock(anyString()))
+                .willReturn(lock);
+        given(lock.tryLockAsync(anyLong(), anyLong(), any(), anyLong()))
+                .willReturn(locked(true));
+
+        // when
+        lockService.lockAll(List.of("2222222222", "1111111111"), 1000L);
+
+        // then
+        // 요청 순서와 관계없이 계좌 번호 순서로 락 취득
+        InOrder inOrder = inOrder(redisson);
+        inOrder.verify(redisson).getLock("ACLK:1111111111");
+        inOrder.verify(redisson).getLock("ACLK:2222222222");
+    }
+
+    @Test
+    void unlockAll_recordRequestFailure() throws InterruptedException {
+        // given
+        AccountException requestFailure = new AccountException(ErrorCode.BALANCE_EXCEEDED);
+        given(redisson.getLock(anyString()))
+                .willReturn(lock);
+        given(lock.tryLockAsync(anyLong(), anyLong(), any(), anyLong()))
+                .willReturn(locked(true));
+        given(lock.unlockAsync(anyLong()))
+                .willReturn(new CompletableFutureWrapper<Void>(new IllegalStateException("Redis unavailable")))
+                .willReturn(new CompletableFutureWrapper<>((Void) null));
+        lockService.lockAll(List.of("1111111111", "2222222222"), 1000L);
+
+        // when
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> lockService.unlockAll(List.of("1111111111", "2222222222"), requestFailure));
+
+        // then
+        // 하나의 해제가 실패해도 나머지 락을 해제하고, 락 보유 시간은 두 계좌 모두 요청의 처리 결과로 기록
+        assertEquals("Redis unavailable", exception.getMessage());
+        verify(lock, times(2)).unlockAsync(Thread.currentThread().threadId());
+        verify(accountMetrics, times(2)).recordLockHold(anyLong(), eq(requestFailure));
     }
 
-}
\ No newline at end of file
+    @Test
+    void lockAllFailed_releaseAcquiredLocks() throws InterruptedException {
+        // given
+        given(redisson.getLock(anyString()))
+                .willReturn(lock);
+        given(lock.tryLockAsync(anyLong(), anyLong(), any(), anyLong()))
+                .willReturn(locked(true), locked(false));
+        given(lock.unlockAsync(anyLong()))
+                .willReturn(new CompletableFutureWrapper<>((Void) null));
+
+        // when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> lockService.lockAll(List.of("1111111111", "2222222222"), 1000L));
+
+        // then
+        // 두 번째 계좌의 락 취득에 실패하면 먼저 취득한 첫 번째 계좌의 락을 해제
+        assertEquals(ACCOUNT_TRANSACTION_LOCK, accountException.getErrorCode());
+        verify(redisson, times(2)).getLock("ACLK:1111111111");
+        verify(lock, times(1)).unlockAsync(Thread.currentThread().threadId());
+    }
+
+    @Test
+    void lockAndClaimSuccess() throws Exception {
+        // given
+        IdempotencyClaim claim = new IdempotencyClaim("useBalance:key-1", "fingerprint",
+                Duration.ofSeconds(15), Duration.ofHours(1));
+        given(redisLockScript.acquire(any(), any(), anyLong(), any()))
+                .willReturn(new RedisLockScript.Result(RedisLockScript.Status.ACQUIRED, 7L, null));
+
+        // when
+        RedisLockScript.Result result = lockService.lockAndClaim(List.of("2222222222", "1111111111"), 1000L, claim);
+
+        // then
+        // 두 계좌의 락과 멱등성 키를 한 번의 스크립트 호출로 처리
+        assertEquals(RedisLockScript.Status.ACQUIRED, result.getStatus());
+        assertEquals(7L, result.getFencingToken());
+        verify(redisLockScript, times(1))
+                .acquire(eq(List.of("ACLK:1111111111", "ACLK:2222222222")), any(), anyLong(), eq(claim));
+
+        // 다른 스레드는 로컬 락에서 대기하다가 실패
+        assertThrows(Exception.class, () -> CompletableFuture.runAsync(
+                () -> lockService.lockAndClaim(List.of("1111111111"), 10L, null)).get());
+
+        lockService.unlockAndRecord(List.of("2222222222", "1111111111"), claim, null, null);
+        verify(redisLockScript, times(1))
+                .release(eq(List.of("ACLK:1111111111", "ACLK:2222222222")), any(), anyLong(), eq(claim), isNull());
+        verify(accountMetrics, times(2)).recordLockHold(anyLong(), isNull());
+    }
+
+    @Test
+    void lockAndClaim_existingRecord() throws Exception {
+        // given
+        given(redisLockScript.acquire(any(), any(), anyLong(), any()))
+                .willReturn(new RedisLockScript.Result(RedisLockScript.Status.EXISTING, 0L,
+                        IdempotencyRecord.inProgress("fingerprint")))
+                .willReturn(new RedisLockScript.Result(RedisLockScript.Status.ACQUIRED, 1L, null));
+
+        // when
+        RedisLockScript.Result result = lockService.lockAndClaim(List.of("1111111111"), 1000L,
+                new IdempotencyClaim("useBalance:key-1", "fingerprint", Duration.ofSeconds(15), Duration.ofHours(1)));
+
+        // then
+        // 이미 기록이 있으면 로컬 락도 해제되어, 다른 스레드가 같은 계좌의 락을 취득할 수 있다
+        assertEquals(RedisLockScript.Status.EXISTING, result.getStatus());
+        assertDoesNotThrow(() -> CompletableFuture.runAsync(
+                () -> lockService.lockAndClaim(List.of("1111111111"), 1000L, null)).get());
+    }
+
+    @Test
+    void lockAndClaimFailed_lockedUntilTimeout() {
+        // given
+        given(redisLockScript.acquire(any(), any(), anyLong(), any()))
+                .willReturn(new RedisLockScript.Result(RedisLockScript.Status.LOCKED, 0L, null));
+
+        // when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> lockService.lockAndClaim(List.of("1111111111"), 50L, null));
+
+        // then
+        assertEquals(ACCOUNT_TRANSACTION_LOCK, accountException.getErrorCode());
+        verify(redisLockScript, atLeast(2)).acquire(any(), any(), anyLong(), any());
+    }
+
+    @Test
+    void lockAndClaim_localTierDisabled() {
+        // given
+        ReflectionTestUtils.setField(lockService, "localTierEnabled", false);
+        given(redisLockScript.acquire(any(), any(), anyLong(), any()))
+                .willReturn(new RedisLockScript.Result(RedisLockScript.Status.ACQUIRED, 1L, null))
+                .willReturn(new RedisLockScript.Result(RedisLockScript.Status.LOCKED, 0L, null));
+        lockService.lockAndClaim(List.of("1111111111"), 1000L, null);
+
+        // when
+        // 다른 스레드도 로컬 락에서 기다리지 않고 Redis 락을 직접 시도
+        assertThrows(Exception.class, () -> CompletableFuture.runAsync(
+                () -> lockService.lockAndClaim(List.of("1111111111"), 50L, null)).get());
+        lockService.unlockAndRecord(List.of("1111111111"), null, null, null);
+
+        // then
+        verify(redisLockScript, atLeast(3)).acquire(any(), any(), anyLong(), any());
+        verify(accountMetrics, never()).recordLockHold(anyLong(), any());
+    }
+
+
+    // Redisson 비동기 락 취득 결과
+    private static RFuture<Boolean> locked(boolean locked) {
+        return new CompletableFutureWrapper<>(locked);
+    }
+}
@@ -0,0 +1,81 @@
+package com.ian.account.service;
+
+import com.ian.account.exception.AccountException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static com.ian.account.type.ErrorCode.ACCOUNT_TRANSACTION_LOCK;
+import static com.ian.account.type.TransactionMode.LOCKED;
+import static com.ian.account.type.TransactionMode.OPTIMISTIC;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class OptimisticRetryAspectTest {
+    @Mock
+    private ProceedingJoinPoint proceedingJoinPoint;
+
+    private final OptimisticRetryAspect optimisticRetryAspect = new OptimisticRetryAspect();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(optimisticRetryAspect, "transactionMode", OPTIMISTIC);
+        ReflectionTestUtils.setField(optimisticRetryAspect, "maxAttempts", 3);
+        ReflectionTestUtils.setField(optimisticRetryAspect, "backoffMillis", 1L);
+    }
+
+
+    @Test
+    void retrySuccess() throws Throwable {
+        // given
+        given(proceedingJoinPoint.proceed())
+                .willThrow(new OptimisticLockingFailureException("conflict"))
+                .willReturn("result");
+
+        // when
+        Object result = optimisticRetryAspect.around(proceedingJoinPoint);
+
+        // then
+        assertEquals("result", result);
+        verify(proceedingJoinPoint, times(2)).proceed();
+    }
+
+    @Test
+    void retryFailed_attemptsExhausted() throws Throwable {
+        // given
+        given(proceedingJoinPoint.proceed())
+                .willThrow(new OptimisticLockingFailureException("conflict"));
+
+        // when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> optimisticRetryAspect.around(proceedingJoinPoint));
+
+        // then
+        assertEquals(ACCOUNT_TRANSACTION_LOCK, accountException.getErrorCode());
+        verify(proceedingJoinPoint, times(3)).proceed();
+    }
+
+    @Test
+    void noRetry_lockedMode() throws Throwable {
+        // given
+        ReflectionTestUtils.setField(optimisticRetryAspect, "transactionMode", LOCKED);
+        given(proceedingJoinPoint.proceed())
+                .willThrow(new OptimisticLockingFailureException("conflict"));
+
+        // when
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> optimisticRetryAspect.around(proceedingJoinPoint));
+
+        // then
+        verify(proceedingJoinPoint, times(1)).proceed();
+    }
+}
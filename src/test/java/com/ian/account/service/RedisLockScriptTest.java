@@ -0,0 +1,98 @@
+package com.ian.account.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.redisson.Redisson;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+import redis.embedded.RedisServer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// 내장 Redis 에서 Lua 스크립트 락의 재진입과 Redisson 락과의 호환 확인
+class RedisLockScriptTest {
+    private static final int REDIS_PORT = 16382;
+    private static final long LEASE_MILLIS = 15000L;
+    private static final List<String> LOCK_KEYS = List.of("ACLK:1111111111");
+
+    private static RedisServer redisServer;
+    private static RedissonClient redissonClient;
+    private static RedisLockScript redisLockScript;
+
+    @BeforeAll
+    static void setUp() {
+        redisServer = RedisServer.builder().port(REDIS_PORT).build();
+        redisServer.start();
+
+        Config config = new Config();
+        config.useSingleServer().setAddress("redis://localhost:" + REDIS_PORT);
+        redissonClient = Redisson.create(config);
+        redisLockScript = new RedisLockScript(redissonClient, new ObjectMapper());
+    }
+
+    @AfterAll
+    static void tearDown() {
+        redissonClient.shutdown();
+        redisServer.stop();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        redissonClient.getKeys().flushall();
+    }
+
+
+    @Test
+    void reentrantAcquire_releaseWhenCountReachesZero() {
+        // given
+        String owner = getOwner();
+        redisLockScript.acquire(LOCK_KEYS, owner, LEASE_MILLIS, null);
+
+        // when
+        // 같은 소유자는 다시 취득 가능 (보유 횟수 2)
+        RedisLockScript.Result reentered = redisLockScript.acquire(LOCK_KEYS, owner, LEASE_MILLIS, null);
+        redisLockScript.release(LOCK_KEYS, owner, LEASE_MILLIS, null, null);
+
+        // then
+        // 한 번 해제해도 보유 횟수가 남아 있으면 다른 소유자는 취득하지 못하고, 모두 해제하면 취득 가능
+        assertEquals(RedisLockScript.Status.ACQUIRED, reentered.getStatus());
+        assertEquals(RedisLockScript.Status.LOCKED,
+                redisLockScript.acquire(LOCK_KEYS, "other:1", LEASE_MILLIS, null).getStatus());
+        redisLockScript.release(LOCK_KEYS, owner, LEASE_MILLIS, null, null);
+        assertEquals(RedisLockScript.Status.ACQUIRED,
+                redisLockScript.acquire(LOCK_KEYS, "other:1", LEASE_MILLIS, null).getStatus());
+    }
+
+    @Test
+    void releaseKeepsRedissonLockOfSameOwner() throws InterruptedException {
+        // given
+        RLock lock = redissonClient.getLock(LOCK_KEYS.get(0));
+        assertTrue(lock.tryLock(1000L, LEASE_MILLIS, TimeUnit.MILLISECONDS));
+
+        // when
+        // 같은 스레드가 Redisson 락을 보유한 채 스크립트 락을 취득/해제
+        RedisLockScript.Result result = redisLockScript.acquire(LOCK_KEYS, getOwner(), LEASE_MILLIS, null);
+        redisLockScript.release(LOCK_KEYS, getOwner(), LEASE_MILLIS, null, null);
+
+        // then
+        // 스크립트 락 해제가 Redisson 락을 지우지 않는다
+        assertEquals(RedisLockScript.Status.ACQUIRED, result.getStatus());
+        assertTrue(lock.isHeldByCurrentThread());
+        assertEquals(1, lock.getHoldCount());
+        lock.unlock();
+        assertFalse(lock.isLocked());
+    }
+
+
+    // Redisson 락과 같은 소유자 형식 (LockService.getLockOwner)
+    private static String getOwner() {
+        return redissonClient.getId() + ":" + Thread.currentThread().threadId();
+    }
+}
@@ -0,0 +1,153 @@
+package com.ian.account.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ian.account.dto.TransactionExport;
+import com.ian.account.exception.AccountException;
+import com.ian.account.repository.AccountRepository;
+import com.ian.account.type.ExportFormat;
+import jakarta.persistence.EntityManager;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.SelectionQuery;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import static com.ian.account.type.ErrorCode.ACCOUNT_NOT_FOUND;
+import static com.ian.account.type.TransactionResultType.F;
+import static com.ian.account.type.TransactionResultType.S;
+import static com.ian.account.type.TransactionType.CANCEL;
+import static com.ian.account.type.TransactionType.USE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionExportServiceTest {
+    private static final LocalDateTime TRANSACTED_AT = LocalDateTime.of(2025, 3, 1, 12, 0, 0);
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private Session session;
+
+    @Mock(answer = Answers.RETURNS_SELF)
+    private SelectionQuery<Object[]> query;
+
+    @Mock
+    private ScrollableResults<Object[]> results;
+
+    @InjectMocks
+    private TransactionExportService transactionExportService;
+
+
+    @Test
+    void exportNdjson() throws Exception {
+        // given
+        given(accountRepository.findIdByAccountNumber("1000000012"))
+                .willReturn(Optional.of(12L));
+        givenRows();
+        TransactionExport.Request request = new TransactionExport.Request(
+                "1000000012", TRANSACTED_AT.minusDays(1), null, ExportFormat.NDJSON, false);
+
+        // when
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        transactionExportService.export(request).writeTo(out);
+
+        // then
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        verify(session).createSelectionQuery(captor.capture(), eq(Object[].class));
+        assertTrue(captor.getValue().contains("t.account.id = :accountId"));
+        assertTrue(captor.getValue().contains("t.transactedAt >= :from"));
+        assertFalse(captor.getValue().contains(":to"));
+        verify(query).setParameter("accountId", 12L);
+        verify(query).setReadOnly(true);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("{\"transactionId\":\"034a07dc3a000e4a\",\"accountNumber\":\"1000000012\"," +
+                "\"transactionType\":\"USE\",\"transactionResultType\":\"S\",\"amount\":1000," +
+                "\"balanceSnapshot\":9000,\"transactedAt\":\"2025-03-01T12:00\"}", lines[0]);
+        assertEquals(9000L, objectMapper.readTree(lines[1]).get("amount").asLong());
+        assertTrue(objectMapper.readTree(lines[1]).get("balanceSnapshot").isNull());
+    }
+
+    @Test
+    void exportCsvGzip() throws Exception {
+        // given
+        givenRows();
+        TransactionExport.Request request = new TransactionExport.Request(
+                null, null, null, ExportFormat.CSV, true);
+
+        // when
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        transactionExportService.export(request).writeTo(out);
+
+        // then
+        verify(accountRepository, never()).findIdByAccountNumber(anyString());
+        String csv = new String(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())).readAllBytes(),
+                StandardCharsets.UTF_8);
+        assertEquals("transactionId,accountNumber,transactionType,transactionResultType,amount,balanceSnapshot,transactedAt\n" +
+                "034a07dc3a000e4a,1000000012,USE,S,1000,9000,2025-03-01T12:00\n" +
+                "034a07dc3a000e4b,1000000012,CANCEL,F,9000,,2025-03-01T12:00\n", csv);
+    }
+
+    @Test
+    void exportFailed_accountNotFound() {
+        // given
+        given(accountRepository.findIdByAccountNumber("1000000012"))
+                .willReturn(Optional.empty());
+        TransactionExport.Request request = new TransactionExport.Request(
+                "1000000012", null, null, ExportFormat.NDJSON, false);
+
+        // when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> transactionExportService.export(request));
+
+        // then
+        assertEquals(ACCOUNT_NOT_FOUND, exception.getErrorCode());
+        verify(entityManager, never()).unwrap(any());
+    }
+
+
+    private void givenRows() {
+        given(entityManager.unwrap(Session.class)).willReturn(session);
+        given(session.createSelectionQuery(anyString(), eq(Object[].class))).willReturn(query);
+        given(query.scroll(ScrollMode.FORWARD_ONLY)).willReturn(results);
+        given(results.next()).willReturn(true, true, false);
+        given(results.get()).willReturn(
+                new Object[]{"034a07dc3a000e4a", "1000000012", USE, S, 1000L, 9000L, TRANSACTED_AT},
+                new Object[]{"034a07dc3a000e4b", "1000000012", CANCEL, F, 9000L, null, TRANSACTED_AT});
+    }
+}
@@ -0,0 +1,94 @@
+package com.ian.account.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionIdGeneratorTest {
+    private final TransactionIdGenerator transactionIdGenerator = new TransactionIdGenerator();
+
+
+    @Test
+    void nextId_increasing() {
+        // when
+        long previous = transactionIdGenerator.nextId();
+        for (int i = 0; i < 10000; i++) {
+            long next = transactionIdGenerator.nextId();
+
+            // then
+            // 한 밀리초에 4096개를 넘어도 값은 계속 증가
+            assertTrue(next > previous);
+            previous = next;
+        }
+    }
+
+    @Test
+    void nextId_uniqueAcrossThreads() {
+        // given
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+
+        // when
+        CompletableFuture.allOf(IntStream.range(0, 4)
+                .mapToObj(i -> CompletableFuture.runAsync(() -> {
+                    for (int j = 0; j < 10000; j++)
+                        ids.add(transactionIdGenerator.nextId());
+                }))
+                .toArray(CompletableFuture[]::new)).join();
+
+        // then
+        assertEquals(40000, ids.size());
+    }
+
+    @Test
+    void nextId_node() {
+        // given
+        ReflectionTestUtils.setField(transactionIdGenerator, "node", 1023L);
+
+        // when
+        long id = transactionIdGenerator.nextId();
+
+        // then
+        assertEquals(1023L, (id >>> 12) & 1023L);
+        assertTrue(id > 0);
+    }
+
+    @Test
+    void validateFailed_node() {
+        // given
+        ReflectionTestUtils.setField(transactionIdGenerator, "node", 1024L);
+
+        // when
+        // then
+        assertThrows(IllegalStateException.class, transactionIdGenerator::validate);
+    }
+
+    @Test
+    void formatAndParse() {
+        // when
+        String transactionId = transactionIdGenerator.nextTransactionId();
+
+        // then
+        // 16자리 16진수 문자열, 발급 순서와 문자열 순서가 같음
+        assertEquals(16, transactionId.length());
+        assertTrue(transactionId.matches("[0-9a-f]{16}"));
+        assertEquals("00000000000000ff", TransactionIdGenerator.format(255L));
+        assertEquals(255L, TransactionIdGenerator.parse("00000000000000ff"));
+        assertEquals(TransactionIdGenerator.parse(transactionId),
+                TransactionIdGenerator.parse(transactionId.toUpperCase()));
+        assertTrue(transactionId.compareTo(transactionIdGenerator.nextTransactionId()) < 0);
+    }
+
+    @Test
+    void parse_invalid() {
+        assertNull(TransactionIdGenerator.parse(null));
+        assertNull(TransactionIdGenerator.parse("transactionId"));
+        assertNull(TransactionIdGenerator.parse("51fdf8543c434b89857a4ad3f88d039d"));
+        assertNull(TransactionIdGenerator.parse("00000000000000fg"));
+    }
+}
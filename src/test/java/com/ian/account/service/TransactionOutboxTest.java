@@ -0,0 +1,169 @@
+package com.ian.account.service;
+
+import com.ian.account.domain.OutboxEvent;
+import com.ian.account.domain.Transaction;
+import com.ian.account.dto.BalanceChangeEvent;
+import com.ian.account.repository.OutboxEventRepository;
+import com.ian.account.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.ian.account.type.TransactionResultType.F;
+import static com.ian.account.type.TransactionResultType.S;
+import static com.ian.account.type.TransactionType.USE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionOutboxTest {
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private OutboxSink outboxSink;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RLock lock;
+
+    @InjectMocks
+    private TransactionOutbox transactionOutbox;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(transactionOutbox, "enabled", true);
+    }
+
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void addSuccess_skipFailedTransaction() {
+        // given
+        Transaction succeeded = Transaction.builder().id(1L).transactionResultType(S).build();
+        Transaction failed = Transaction.builder().id(2L).transactionResultType(F).build();
+        given(transactionRepository.getReferenceById(1L))
+                .willReturn(succeeded);
+
+        // when
+        transactionOutbox.add(List.of(succeeded, failed));
+
+        // then
+        // 잔액이 바뀌지 않은 실패 거래는 알림을 추가하지 않음
+        ArgumentCaptor<List<OutboxEvent>> captor = ArgumentCaptor.forClass(List.class);
+        verify(outboxEventRepository).saveAll(captor.capture());
+        assertEquals(1, captor.getValue().size());
+        assertEquals(succeeded, captor.getValue().get(0).getTransaction());
+    }
+
+    @Test
+    void addSkipped_disabled() {
+        // given
+        ReflectionTestUtils.setField(transactionOutbox, "enabled", false);
+
+        // when
+        transactionOutbox.add(List.of(Transaction.builder().id(1L).transactionResultType(S).build()));
+
+        // then
+        verify(outboxEventRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void relaySuccess() {
+        // given
+        List<BalanceChangeEvent> events = List.of(createEvent(10L), createEvent(11L));
+        given(redissonClient.getLock("OUTBOX:relay"))
+                .willReturn(lock);
+        given(lock.tryLock())
+                .willReturn(true);
+        given(outboxEventRepository.findBalanceChanges(PageRequest.of(0, 500)))
+                .willReturn(events);
+
+        // when
+        int published = transactionOutbox.relay();
+
+        // then
+        // 전달한 뒤에 삭제
+        assertEquals(2, published);
+        verify(outboxSink).publish(events);
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(10L, 11L));
+        verify(lock).unlock();
+    }
+
+    @Test
+    void relayFailed_sinkError() {
+        // given
+        List<BalanceChangeEvent> events = List.of(createEvent(10L));
+        given(redissonClient.getLock("OUTBOX:relay"))
+                .willReturn(lock);
+        given(lock.tryLock())
+                .willReturn(true);
+        given(outboxEventRepository.findBalanceChanges(any()))
+                .willReturn(events);
+        willThrow(new IllegalStateException("sink unavailable"))
+                .given(outboxSink).publish(events);
+
+        // when
+        assertThrows(IllegalStateException.class, () -> transactionOutbox.relay());
+
+        // then
+        // 삭제하지 않으므로 다음 전달에서 같은 알림을 다시 전달
+        verify(outboxEventRepository, never()).deleteAllByIdInBatch(any());
+        verify(lock).unlock();
+    }
+
+    @Test
+    void relaySkipped_otherServerRelaying() {
+        // given
+        given(redissonClient.getLock("OUTBOX:relay"))
+                .willReturn(lock);
+        given(lock.tryLock())
+                .willReturn(false);
+
+        // when
+        int published = transactionOutbox.relay();
+
+        // then
+        assertEquals(0, published);
+        verify(outboxEventRepository, never()).findBalanceChanges(any());
+    }
+
+
+    private static BalanceChangeEvent createEvent(Long eventId) {
+        return BalanceChangeEvent.builder()
+                .eventId(eventId)
+                .accountNumber("1000000012")
+                .transactionType(USE)
+                .amount(1000L)
+                .balance(9000L)
+                .transactionId("0000000000000001")
+                .transactedAt(LocalDateTime.now())
+                .build();
+    }
+}
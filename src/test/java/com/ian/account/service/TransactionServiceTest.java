@@ -3,7 +3,10 @@ package com.ian.account.service;
 import com.ian.account.domain.Account;
 import com.ian.account.domain.AccountUser;
 import com.ian.account.domain.Transaction;
+import com.ian.account.dto.FailedTransaction;
 import com.ian.account.dto.TransactionDTO;
+import com.ian.account.dto.TransactionHistory;
+import com.ian.account.dto.TransactionHistoryItem;
 import com.ian.account.exception.AccountException;
 import com.ian.account.repository.AccountRepository;
 import com.ian.account.repository.AccountUserRepository;
@@ -16,20 +19,27 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
 import static com.ian.account.type.ErrorCode.BALANCE_EXCEEDED;
 import static com.ian.account.type.ErrorCode.TRANSACTION_NOT_FOUND;
+import static com.ian.account.type.TransactionMode.CONDITIONAL_UPDATE;
 import static com.ian.account.type.TransactionResultType.F;
 import static com.ian.account.type.TransactionResultType.S;
 import static com.ian.account.type.TransactionType.CANCEL;
+import static com.ian.account.type.TransactionType.TRANSFER;
 import static com.ian.account.type.TransactionType.USE;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -44,6 +54,18 @@ class TransactionServiceTest {
     @Mock
     private AccountUserRepository accountUserRepository;
 
+    @Spy
+    private TransactionIdGenerator transactionIdGenerator;
+
+    @Mock
+    private TransactionCache transactionCache;
+
+    @Mock
+    private AccountCache accountCache;
+
+    @Mock
+    private TransactionOutbox transactionOutbox;
+
     @InjectMocks
     private TransactionService transactionService;
 
@@ -94,6 +116,9 @@ class TransactionServiceTest {
         verify(transactionRepository, times(1)).save(captor.capture());
         assertEquals(1234L, captor.getValue().getAmount());
         assertEquals(8766L, captor.getValue().getBalanceSnapshot());
+        verify(accountCache).evictAfterCommit(12L);
+        // 같은 트랜잭션에서 잔액 변경 알림 추가
+        verify(transactionOutbox).add(any());
     }
 
     @Test
@@ -219,6 +244,116 @@ class TransactionServiceTest {
     }
 
 
+    @Test
+    @DisplayName("잔액 사용 (조건부 UPDATE)")
+    void useBalanceByConditionalUpdateSuccess() {
+        // given
+        ReflectionTestUtils.setField(transactionService, "transactionMode", CONDITIONAL_UPDATE);
+
+        AccountUser accountUser = AccountUser.builder()
+                .id(12L)
+                .userName("Isaiah").build();
+
+        Account account = Account.builder()
+                .accountUser(accountUser)
+                .accountStatus(AccountStatus.ACTIVE)
+                .balance(8766L)
+                .accountNumber("1000000012").build();
+
+        given(accountRepository.useBalanceIfPossible(anyString(), anyLong(), anyLong(), any(), any()))
+                .willReturn(1);
+
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(account));
+
+        given(transactionRepository.save(any()))
+                .willReturn(Transaction.builder()
+                        .account(account)
+                        .amount(1234L)
+                        .balanceSnapshot(8766L)
+                        .transactionResultType(S)
+                        .transactionType(USE)
+                        .transactedAt(LocalDateTime.now())
+                        .build()
+                );
+
+        ArgumentCaptor<Transaction> captor = ArgumentCaptor.forClass(Transaction.class);
+
+        // when
+        TransactionDTO transactionDTO = transactionService.useBalance(12L, "1000000012", 1234L);
+
+        // then
+        assertEquals(S, transactionDTO.getTransactionResultType());
+        verify(accountUserRepository, never()).findById(anyLong());
+        verify(transactionRepository, times(1)).save(captor.capture());
+        assertEquals(1234L, captor.getValue().getAmount());
+        assertEquals(8766L, captor.getValue().getBalanceSnapshot());
+    }
+
+    @Test
+    @DisplayName("잔액 사용 (조건부 UPDATE) 시, 거래 금액이 잔액보다 클 때")
+    void useBalanceByConditionalUpdate_exceedBalance() {
+        // given
+        ReflectionTestUtils.setField(transactionService, "transactionMode", CONDITIONAL_UPDATE);
+
+        AccountUser accountUser = AccountUser.builder()
+                .id(12L)
+                .userName("Isaiah").build();
+
+        given(accountRepository.useBalanceIfPossible(anyString(), anyLong(), anyLong(), any(), any()))
+                .willReturn(0);
+
+        given(accountUserRepository.findById(anyLong()))
+                .willReturn(Optional.of(accountUser));
+
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(Account.builder()
+                        .accountUser(accountUser)
+                        .accountStatus(AccountStatus.ACTIVE)
+                        .balance(100L)
+                        .accountNumber("1000000012").build()));
+
+        // when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> transactionService.useBalance(12L, "1000000012", 1000L));
+
+        // then
+        assertEquals(BALANCE_EXCEEDED, accountException.getErrorCode());
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("잔액 사용 (조건부 UPDATE) 시, 계좌가 이미 해지가 된 상태일 때")
+    void useBalanceByConditionalUpdate_accountAlreadyClosed() {
+        // given
+        ReflectionTestUtils.setField(transactionService, "transactionMode", CONDITIONAL_UPDATE);
+
+        AccountUser accountUser = AccountUser.builder()
+                .id(12L)
+                .userName("Isaiah").build();
+
+        given(accountRepository.useBalanceIfPossible(anyString(), anyLong(), anyLong(), any(), any()))
+                .willReturn(0);
+
+        given(accountUserRepository.findById(anyLong()))
+                .willReturn(Optional.of(accountUser));
+
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(Account.builder()
+                        .accountUser(accountUser)
+                        .accountStatus(AccountStatus.CLOSED)
+                        .balance(10000L)
+                        .accountNumber("1000000012").build()));
+
+        // when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> transactionService.useBalance(12L, "1000000012", 1000L));
+
+        // then
+        assertEquals(ErrorCode.ACCOUNT_ALREADY_CLOSED, accountException.getErrorCode());
+    }
+
+
     @Test
     void saveFailedUseTransaction() {
         // given
@@ -259,6 +394,41 @@ class TransactionServiceTest {
     }
 
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void saveFailedTransactions() {
+        // given
+        Account account = Account.builder()
+                .accountUser(AccountUser.builder().id(12L).userName("Isaiah").build())
+                .accountStatus(AccountStatus.ACTIVE)
+                .balance(10000L)
+                .accountNumber("1000000012").build();
+
+        given(accountRepository.findByAccountNumberIn(anyCollection()))
+                .willReturn(List.of(account));
+
+        LocalDateTime failedAt = LocalDateTime.now().minusSeconds(1);
+        ArgumentCaptor<List<Transaction>> captor = ArgumentCaptor.forClass(List.class);
+
+        // when
+        int saved = transactionService.saveFailedTransactions(List.of(
+                new FailedTransaction(USE, "1000000012", 1000L, failedAt),
+                new FailedTransaction(CANCEL, "1000000012", 2000L, failedAt),
+                new FailedTransaction(USE, "1000000099", 3000L, failedAt)));
+
+        // then
+        // 계좌는 한 번만 조회하고, 없는 계좌의 거래는 기록하지 않음
+        verify(accountRepository, times(1)).findByAccountNumberIn(anyCollection());
+        verify(transactionRepository, times(1)).insertAll(captor.capture());
+        assertEquals(2, saved);
+        assertEquals(2, captor.getValue().size());
+        assertEquals(F, captor.getValue().get(0).getTransactionResultType());
+        assertEquals(CANCEL, captor.getValue().get(1).getTransactionType());
+        assertEquals(failedAt, captor.getValue().get(0).getTransactedAt());
+        assertEquals(10000L, captor.getValue().get(0).getBalanceSnapshot());
+    }
+
+
     ///////////////////////////////////// CancelBalance /////////////////////////////////////
 
     @Test
@@ -480,24 +650,173 @@ class TransactionServiceTest {
         assertEquals(ErrorCode.TRANSACTION_CANCELLATION_EXPIRED, accountException.getErrorCode());
     }
 
+    @Test
+    @DisplayName("잔액 사용 취소 시, 계좌 이체 거래를 취소하려 할 때 (보내는/받는 계좌 모두)")
+    void cancelBalance_transferNotCancellable() {
+        // given
+        AccountUser accountUser = AccountUser.builder()
+                .id(12L)
+                .userName("Isaiah").build();
+
+        Account fromAccount = Account.builder()
+                .accountUser(accountUser)
+                .accountStatus(AccountStatus.ACTIVE)
+                .balance(9000L)
+                .accountNumber("1000000012").build();
+
+        Account toAccount = Account.builder()
+                .accountUser(accountUser)
+                .accountStatus(AccountStatus.ACTIVE)
+                .balance(11000L)
+                .accountNumber("1000000013").build();
+
+        given(transactionRepository.findByTransactionId("fromTransactionId"))
+                .willReturn(Optional.of(createTransferTransaction(fromAccount, 9000L)));
+        given(transactionRepository.findByTransactionId("toTransactionId"))
+                .willReturn(Optional.of(createTransferTransaction(toAccount, 11000L)));
+        given(accountRepository.findByAccountNumber("1000000012"))
+                .willReturn(Optional.of(fromAccount));
+        given(accountRepository.findByAccountNumber("1000000013"))
+                .willReturn(Optional.of(toAccount));
+
+        // when
+        AccountException fromException = assertThrows(AccountException.class,
+                () -> transactionService.cancelBalance("fromTransactionId", "1000000012", 1000L));
+        AccountException toException = assertThrows(AccountException.class,
+                () -> transactionService.cancelBalance("toTransactionId", "1000000013", 1000L));
+
+        // then
+        // 이체의 어느 쪽을 취소해도 잔액이 새로 생기므로 거부하고, 잔액은 그대로
+        assertEquals(ErrorCode.TRANSACTION_NOT_CANCELLABLE, fromException.getErrorCode());
+        assertEquals(ErrorCode.TRANSACTION_NOT_CANCELLABLE, toException.getErrorCode());
+        assertEquals(9000L, fromAccount.getBalance());
+        assertEquals(11000L, toAccount.getBalance());
+        verify(transactionRepository, never()).save(any());
+    }
+
+    private static Transaction createTransferTransaction(Account account, Long balanceSnapshot) {
+        return Transaction.builder()
+                .account(account)
+                .amount(1000L)
+                .balanceSnapshot(balanceSnapshot)
+                .transactionId("transactionId")
+                .transactionResultType(S)
+                .transactionType(TRANSFER)
+                .transactedAt(LocalDateTime.now())
+                .build();
+    }
 
-    ///////////////////////////////////// GetTransaction /////////////////////////////////////
+
+    ///////////////////////////////////// TransferBalance /////////////////////////////////////
 
     @Test
-    void getTransactionSuccess() {
+    @SuppressWarnings("unchecked")
+    void transferBalanceSuccess() {
         // given
         AccountUser accountUser = AccountUser.builder()
                 .id(12L)
                 .userName("Isaiah").build();
 
-        Account account = Account.builder()
+        AccountUser peter = AccountUser.builder()
+                .id(13L)
+                .userName("Peter").build();
+
+        Account fromAccount = Account.builder()
                 .accountUser(accountUser)
                 .accountStatus(AccountStatus.ACTIVE)
                 .balance(10000L)
                 .accountNumber("1000000012").build();
 
-        Transaction transaction = Transaction.builder()
-                .account(account)
+        Account toAccount = Account.builder()
+                .accountUser(peter)
+                .accountStatus(AccountStatus.ACTIVE)
+                .balance(500L)
+                .accountNumber("1000000013").build();
+
+        given(accountUserRepository.findById(anyLong()))
+                .willReturn(Optional.of(accountUser));
+
+        given(accountRepository.findByAccountNumber("1000000012"))
+                .willReturn(Optional.of(fromAccount));
+
+        given(accountRepository.findByAccountNumber("1000000013"))
+                .willReturn(Optional.of(toAccount));
+
+        given(transactionRepository.insertAll(anyList()))
+                .willAnswer(invocation -> invocation.getArgument(0));
+
+        ArgumentCaptor<List<Transaction>> captor = ArgumentCaptor.forClass(List.class);
+
+        // when
+        TransactionDTO transactionDTO = transactionService
+                .transferBalance(12L, "1000000012", "1000000013", 1000L);
+
+        // then
+        assertEquals("1000000012", transactionDTO.getAccountNumber());
+        assertEquals(TRANSFER, transactionDTO.getTransactionType());
+        assertEquals(S, transactionDTO.getTransactionResultType());
+        assertEquals(9000L, fromAccount.getBalance());
+        assertEquals(1500L, toAccount.getBalance());
+
+        // 보내는 계좌와 받는 계좌의 거래 내역을 한 번에 기록
+        verify(transactionRepository, times(1)).insertAll(captor.capture());
+        assertEquals(1500L, captor.getValue().get(0).getBalanceSnapshot());
+        assertEquals(9000L, captor.getValue().get(1).getBalanceSnapshot());
+    }
+
+    @Test
+    @DisplayName("계좌 이체 시, 보내는 계좌와 받는 계좌가 같을 때")
+    void transferBalance_sameAccount() {
+        // when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> transactionService.transferBalance(12L, "1000000012", "1000000012", 1000L));
+
+        // then
+        assertEquals(ErrorCode.SAME_ACCOUNT_TRANSFER, accountException.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("계좌 이체 시, 받는 계좌가 해지 상태일 때")
+    void transferBalance_toAccountClosed() {
+        // given
+        AccountUser accountUser = AccountUser.builder()
+                .id(12L)
+                .userName("Isaiah").build();
+
+        given(accountUserRepository.findById(anyLong()))
+                .willReturn(Optional.of(accountUser));
+
+        given(accountRepository.findByAccountNumber("1000000012"))
+                .willReturn(Optional.of(Account.builder()
+                        .accountUser(accountUser)
+                        .accountStatus(AccountStatus.ACTIVE)
+                        .balance(10000L)
+                        .accountNumber("1000000012").build()));
+
+        given(accountRepository.findByAccountNumber("1000000013"))
+                .willReturn(Optional.of(Account.builder()
+                        .accountUser(accountUser)
+                        .accountStatus(AccountStatus.CLOSED)
+                        .balance(0L)
+                        .accountNumber("1000000013").build()));
+
+        // when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> transactionService.transferBalance(12L, "1000000012", "1000000013", 1000L));
+
+        // then
+        assertEquals(ErrorCode.ACCOUNT_ALREADY_CLOSED, accountException.getErrorCode());
+        verify(transactionRepository, never()).save(any());
+    }
+
+
+    ///////////////////////////////////// GetTransaction /////////////////////////////////////
+
+    @Test
+    void getTransactionSuccess() {
+        // given
+        TransactionDTO transaction = TransactionDTO.builder()
+                .accountNumber("1000000012")
                 .amount(1000L)
                 .balanceSnapshot(9000L)
                 .transactionId("transactionId")
@@ -506,8 +825,9 @@ class TransactionServiceTest {
                 .transactedAt(LocalDateTime.now())
                 .build();
 
-        given(transactionRepository.findByTransactionId(anyString()))
+        given(transactionRepository.findDTOByTransactionId(anyString()))
                 .willReturn(Optional.of(transaction));
+        givenCacheMiss();
 
         // when
         TransactionDTO transactionDTO = transactionService.queryTransaction("testTransactionId");
@@ -517,13 +837,17 @@ class TransactionServiceTest {
         assertEquals("transactionId", transactionDTO.getTransactionId());
         assertEquals(USE, transactionDTO.getTransactionType());
         assertEquals(S, transactionDTO.getTransactionResultType());
+        assertEquals("1000000012", transactionDTO.getAccountNumber());
+        // 엔티티를 불러오지 않고 DTO 로 바로 조회
+        verify(transactionRepository, never()).findByTransactionId(anyString());
     }
 
     @Test
     void getTransactionFailed() {
         // given
-        given(transactionRepository.findByTransactionId(anyString()))
+        given(transactionRepository.findDTOByTransactionId(anyString()))
                 .willReturn(Optional.empty());
+        givenCacheMiss();
 
         // when
         AccountException accountException = assertThrows(AccountException.class,
@@ -532,4 +856,164 @@ class TransactionServiceTest {
         // then
         assertEquals(TRANSACTION_NOT_FOUND, accountException.getErrorCode());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getTransaction_cacheHit() {
+        // given
+        given(transactionCache.get(anyString(), any()))
+                .willReturn(TransactionDTO.builder()
+                        .transactionId("transactionId")
+                        .amount(1000L)
+                        .build());
+
+        // when
+        TransactionDTO transactionDTO = transactionService.queryTransaction("transactionId");
+
+        // then
+        // 캐시에 있으면 DB 조회 없이 반환
+        assertEquals(1000L, transactionDTO.getAmount());
+        verify(transactionRepository, never()).findDTOByTransactionId(anyString());
+    }
+
+    @Test
+    void useBalance_cacheAfterSave() {
+        // given
+        AccountUser accountUser = AccountUser.builder()
+                .id(12L)
+                .userName("Isaiah").build();
+
+        Account account = Account.builder()
+                .accountUser(accountUser)
+                .accountStatus(AccountStatus.ACTIVE)
+                .balance(10000L)
+                .accountNumber("1000000012").build();
+
+        given(accountUserRepository.findById(anyLong()))
+                .willReturn(Optional.of(accountUser));
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(account));
+        given(transactionRepository.save(any()))
+                .willAnswer(invocation -> invocation.getArgument(0));
+
+        ArgumentCaptor<TransactionDTO> captor = ArgumentCaptor.forClass(TransactionDTO.class);
+
+        // when
+        TransactionDTO transactionDTO = transactionService.useBalance(12L, "1000000012", 1000L);
+
+        // then
+        verify(transactionCache, times(1)).putAfterCommit(captor.capture());
+        assertEquals(transactionDTO.getTransactionId(), captor.getValue().getTransactionId());
+    }
+
+
+    ///////////////////////////////////// TransactionHistory /////////////////////////////////////
+
+    @Test
+    void getTransactionHistorySuccess() {
+        // given
+        LocalDateTime transactedAt = LocalDateTime.of(2025, 3, 1, 12, 0);
+        given(accountRepository.findIdByAccountNumber("1000000012"))
+                .willReturn(Optional.of(1L));
+        given(transactionRepository.findHistory(eq(1L), eq(USE), isNull(), isNull(), isNull(),
+                isNull(), isNull(), eq(3)))
+                .willReturn(List.of(
+                        createHistoryItem(30L, transactedAt),
+                        createHistoryItem(20L, transactedAt),
+                        createHistoryItem(10L, transactedAt.minusMinutes(1))));
+        given(transactionRepository.findHistory(eq(1L), eq(USE), isNull(), isNull(), isNull(),
+                eq(transactedAt), eq(20L), eq(3)))
+                .willReturn(List.of(createHistoryItem(10L, transactedAt.minusMinutes(1))));
+
+        TransactionHistory.Request request = new TransactionHistory.Request();
+        request.setTransactionType(USE);
+        request.setSize(2);
+
+        // when
+        TransactionHistory.Response response = transactionService.getTransactionHistory("1000000012", request);
+
+        // then
+        // 한 건 더 조회하여 다음 페이지가 있으면 마지막 거래 위치를 cursor 로 반환
+        assertEquals("1000000012", response.getAccountNumber());
+        assertEquals(2, response.getTransactions().size());
+        assertNotNull(response.getNextCursor());
+
+        // when
+        request.setCursor(response.getNextCursor());
+        TransactionHistory.Response nextResponse = transactionService.getTransactionHistory("1000000012", request);
+
+        // then
+        // 다음 페이지는 마지막으로 본 (거래 일시, 아이디) 다음부터 조회
+        verify(transactionRepository, times(1)).findHistory(eq(1L), eq(USE), isNull(), isNull(), isNull(),
+                eq(transactedAt), eq(20L), eq(3));
+        assertEquals(1, nextResponse.getTransactions().size());
+        assertNull(nextResponse.getNextCursor());
+    }
+
+    @Test
+    void getTransactionHistory_lastPage() {
+        // given
+        given(accountRepository.findIdByAccountNumber("1000000012"))
+                .willReturn(Optional.of(1L));
+        given(transactionRepository.findHistory(eq(1L), isNull(), isNull(), isNull(), isNull(),
+                isNull(), isNull(), eq(21)))
+                .willReturn(List.of(createHistoryItem(10L, LocalDateTime.now())));
+
+        // when
+        TransactionHistory.Response response = transactionService.getTransactionHistory(
+                "1000000012", new TransactionHistory.Request());
+
+        // then
+        assertEquals(1, response.getTransactions().size());
+        assertNull(response.getNextCursor());
+    }
+
+    @Test
+    void getTransactionHistoryFailed_invalidCursor() {
+        // given
+        given(accountRepository.findIdByAccountNumber("1000000012"))
+                .willReturn(Optional.of(1L));
+        TransactionHistory.Request request = new TransactionHistory.Request();
+        request.setCursor("invalid-cursor");
+
+        // when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> transactionService.getTransactionHistory("1000000012", request));
+
+        // then
+        assertEquals(ErrorCode.INVALID_REQUEST, accountException.getErrorCode());
+    }
+
+    @Test
+    void getTransactionHistoryFailed_accountNotFound() {
+        // given
+        given(accountRepository.findIdByAccountNumber(anyString()))
+                .willReturn(Optional.empty());
+
+        // when
+        AccountException accountException = assertThrows(AccountException.class,
+                () -> transactionService.getTransactionHistory("1000000012", new TransactionHistory.Request()));
+
+        // then
+        assertEquals(ErrorCode.ACCOUNT_NOT_FOUND, accountException.getErrorCode());
+    }
+
+
+    private static TransactionHistoryItem createHistoryItem(Long id, LocalDateTime transactedAt) {
+        return TransactionHistoryItem.builder()
+                .id(id)
+                .transactionId("transactionId" + id)
+                .transactionType(USE)
+                .transactionResultType(S)
+                .amount(1000L)
+                .transactedAt(transactedAt)
+                .build();
+    }
+
+    // 캐시에 없는 경우 (loader 로 조회)
+    @SuppressWarnings("unchecked")
+    private void givenCacheMiss() {
+        given(transactionCache.get(anyString(), any()))
+                .willAnswer(invocation -> ((Function<String, TransactionDTO>) invocation.getArgument(1))
+                        .apply(invocation.getArgument(0)));
+    }
+}
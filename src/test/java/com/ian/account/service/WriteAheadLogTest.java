@@ -0,0 +1,130 @@
+package com.ian.account.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.ian.account.type.TransactionType.USE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WriteAheadLogTest {
+    // 세그먼트 하나에 기록 4건
+    private static final int SEGMENT_BYTES = WriteAheadLog.RECORD_SIZE * 4;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void replayAfterReopen() throws IOException {
+        // given
+        LocalDateTime transactedAt = LocalDateTime.of(2025, 3, 1, 12, 30, 15, 123456789);
+        WriteAheadLog wal = new WriteAheadLog(directory, SEGMENT_BYTES);
+        assertTrue(wal.open(1L).isEmpty());
+        wal.append(List.of(createRecord(1L, transactedAt), createRecord(2L, transactedAt)));
+        wal.force();
+        wal.close();
+
+        // when
+        WriteAheadLog reopened = new WriteAheadLog(directory, SEGMENT_BYTES);
+        List<WriteAheadLog.Record> records = reopened.open(1L);
+
+        // then
+        assertEquals(2, records.size());
+        assertEquals(1L, records.get(0).getSequence());
+        assertEquals(2L, records.get(1).getAccountId());
+        assertEquals(USE, records.get(1).getTransactionType());
+        assertEquals(-1000L, records.get(1).getDelta());
+        assertEquals(9000L, records.get(1).getBalance());
+        assertEquals(transactedAt, records.get(1).getTransactedAt());
+        // 이어서 기록
+        assertEquals(3L, reopened.append(List.of(createRecord(3L, transactedAt))));
+        reopened.close();
+    }
+
+    @Test
+    void rotateAndTruncate() throws IOException {
+        // given
+        WriteAheadLog wal = new WriteAheadLog(directory, SEGMENT_BYTES);
+        wal.open(1L);
+
+        // when
+        // 남은 자리보다 많은 기록은 다음 세그먼트에 기록
+        assertEquals(3L, wal.append(createRecords(3)));
+        assertEquals(5L, wal.append(createRecords(2)));
+        assertEquals(9L, wal.append(createRecords(4)));
+        wal.force();
+
+        // then
+        assertEquals(3, wal.size());
+        // 기록 번호 1~3 만 저장된 경우 첫 세그먼트만 삭제, 현재 세그먼트는 유지
+        wal.truncate(4L);
+        assertEquals(2, wal.size());
+        wal.truncate(9L);
+        assertEquals(1, wal.size());
+        wal.close();
+
+        List<WriteAheadLog.Record> records = new WriteAheadLog(directory, SEGMENT_BYTES).open(1L);
+        assertEquals(4, records.size());
+        assertEquals(6L, records.get(0).getSequence());
+    }
+
+    @Test
+    void discardCorruptedRecord() throws IOException {
+        // given
+        WriteAheadLog wal = new WriteAheadLog(directory, SEGMENT_BYTES);
+        wal.open(1L);
+        wal.append(createRecords(3));
+        wal.force();
+        wal.close();
+        // 두 번째 기록의 잔액 일부를 변경 (CRC 불일치)
+        try (RandomAccessFile file = new RandomAccessFile(getSegment().toFile(), "rw")) {
+            file.seek(WriteAheadLog.RECORD_SIZE + 32);
+            file.write(0x7F);
+        }
+
+        // when
+        WriteAheadLog reopened = new WriteAheadLog(directory, SEGMENT_BYTES);
+        List<WriteAheadLog.Record> records = reopened.open(1L);
+
+        // then
+        // CRC 가 맞지 않는 기록부터 버리고, 그 자리부터 이어서 기록
+        assertEquals(1, records.size());
+        assertEquals(2L, reopened.append(createRecords(1)));
+        reopened.close();
+        assertEquals(2, new WriteAheadLog(directory, SEGMENT_BYTES).open(1L).size());
+    }
+
+
+    private Path getSegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.findFirst().orElseThrow();
+        }
+    }
+
+    private static List<WriteAheadLog.Record> createRecords(int count) {
+        List<WriteAheadLog.Record> records = new ArrayList<>();
+        for (int i = 0; i < count; i++)
+            records.add(createRecord(i + 1L, LocalDateTime.now()));
+        return records;
+    }
+
+    private static WriteAheadLog.Record createRecord(long accountId, LocalDateTime transactedAt) {
+        return WriteAheadLog.Record.builder()
+                .accountId(accountId)
+                .transactionType(USE)
+                .delta(-1000L)
+                .balance(9000L)
+                .transactionKey(accountId)
+                .transactedAt(transactedAt)
+                .build();
+    }
+}